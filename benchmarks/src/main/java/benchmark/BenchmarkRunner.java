@@ -0,0 +1,32 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so every result also reports its allocation rate, and writes the results
+ * to benchmarks.csv for {@link CompareResults}. Accepts the usual JMH command line options, e.g. a benchmark regex,
+ * -p rows=10000, -rf to choose another result format or -rff to choose the results file.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        ResultFormatType resultFormat = commandLineOptions.getResultFormat().orElse(ResultFormatType.CSV);
+
+        Options options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(resultFormat)
+                .result(commandLineOptions.getResult().orElse("benchmarks." + resultFormat.name().toLowerCase()))
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,61 @@
+package benchmark;
+
+import data.parser.bin.BinDecoder;
+import data.parser.xdf.TableDefinition;
+import data.parser.xdf.XdfParser;
+import domain.math.map.Map3d;
+import org.apache.commons.math3.util.Pair;
+import org.jdom2.JDOMException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinDecoderBenchmark {
+
+    @Param({"100", "1000"})
+    public int tables;
+
+    private File xdf;
+    private byte[] bin;
+    private List<TableDefinition> tableDefinitions;
+
+    // A decoder is not thread safe, each benchmark thread gets its own
+    @State(Scope.Thread)
+    public static class Decoder {
+        private final BinDecoder decoder = new BinDecoder();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, JDOMException {
+        SyntheticData data = new SyntheticData(SyntheticData.DEFAULT_SEED);
+        xdf = data.writeXdf(Files.createTempFile("synthetic", ".xdf").toFile(), tables);
+        bin = data.bin(tables);
+        tableDefinitions = parseXdf();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        xdf.delete();
+    }
+
+    @Benchmark
+    public List<TableDefinition> parseXdf() throws IOException, JDOMException {
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(xdf))) {
+            return XdfParser.parseTableDefinitions(inputStream);
+        }
+    }
+
+    @Benchmark
+    public List<Pair<TableDefinition, Map3d>> decode(Decoder decoder) {
+        return decoder.decoder.decode(bin, tableDefinitions);
+    }
+}
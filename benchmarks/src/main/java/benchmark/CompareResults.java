@@ -0,0 +1,83 @@
+package benchmark;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares two CSV result files written by {@link BenchmarkRunner}, e.g. of the last release and of a change.
+ *
+ * Usage: CompareResults baseline.csv current.csv [threshold percent]
+ *
+ * Exits with 1 if any benchmark got worse by more than the threshold (5% by default). Throughput is worse when it
+ * drops, while latencies and the bytes allocated per operation are worse when they grow. The other GC profiler results
+ * are skipped, a faster benchmark allocates at a higher rate and collects more often.
+ */
+public class CompareResults {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults baseline.csv current.csv [threshold percent]");
+            System.exit(2);
+        }
+
+        Map<String, CSVRecord> baseline = read(args[0]);
+        Map<String, CSVRecord> current = read(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5;
+
+        boolean regression = false;
+
+        for (Map.Entry<String, CSVRecord> entry : current.entrySet()) {
+            CSVRecord before = baseline.get(entry.getKey());
+
+            if (before == null || !isCompared(entry.getValue())) {
+                continue;
+            }
+
+            double baselineScore = Double.parseDouble(before.get("Score"));
+            double currentScore = Double.parseDouble(entry.getValue().get("Score"));
+            double change = (currentScore - baselineScore) / baselineScore * 100;
+
+            boolean higherIsBetter = entry.getValue().get("Mode").equals("thrpt") && !entry.getKey().contains(":gc.");
+            boolean worse = higherIsBetter ? change < -threshold : change > threshold;
+            regression |= worse;
+
+            System.out.printf(Locale.ENGLISH, "%-100s %14.3f %14.3f %+8.1f%% %s%n", entry.getKey(), baselineScore, currentScore, change, worse ? "REGRESSION" : "");
+        }
+
+        System.exit(regression ? 1 : 0);
+    }
+
+    private static boolean isCompared(CSVRecord record) {
+        String benchmark = record.get("Benchmark");
+
+        return !benchmark.contains(":gc.") || benchmark.endsWith(":gc.alloc.rate.norm");
+    }
+
+    // Keyed by benchmark, mode and parameters
+    private static Map<String, CSVRecord> read(String file) throws IOException {
+        Map<String, CSVRecord> results = new LinkedHashMap<>();
+
+        try (Reader reader = new FileReader(file)) {
+            for (CSVRecord record : CSVFormat.RFC4180.withFirstRecordAsHeader().parse(reader)) {
+                StringBuilder key = new StringBuilder(record.get("Benchmark")).append(' ').append(record.get("Mode"));
+
+                for (Map.Entry<String, String> column : record.toMap().entrySet()) {
+                    if (column.getKey().startsWith("Param: ")) {
+                        key.append(' ').append(column.getKey().substring(7)).append('=').append(column.getValue());
+                    }
+                }
+
+                results.put(key.toString(), record);
+            }
+        }
+
+        return results;
+    }
+}
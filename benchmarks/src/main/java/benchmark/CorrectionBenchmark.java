@@ -0,0 +1,84 @@
+package benchmark;
+
+import data.contract.Me7LogFileContract;
+import data.parser.afrLog.AfrLogParser;
+import data.parser.me7log.Me7LogParser;
+import domain.math.map.Map3d;
+import domain.model.closedloopfueling.ClosedLoopFuelingCorrection;
+import domain.model.closedloopfueling.ClosedLoopFuelingCorrectionManager;
+import domain.model.ldrpid.LdrpidCalculator;
+import domain.model.openloopfueling.correction.OpenLoopMlhfmCorrection;
+import domain.model.openloopfueling.correction.OpenLoopMlhfmCorrectionManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CorrectionBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private Map<Me7LogFileContract.Header, List<Double>> closedLoopLog;
+    private Map<Me7LogFileContract.Header, List<Double>> openLoopLog;
+    private Map<Me7LogFileContract.Header, List<Double>> ldrpidLog;
+    private Map<String, List<Double>> afrLog;
+
+    private Map3d mlhfm;
+    private Map3d kfldrl;
+    private Map3d kfldimx;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        closedLoopLog = parse(Me7LogParser.LogType.CLOSED_LOOP);
+        openLoopLog = parse(Me7LogParser.LogType.OPEN_LOOP);
+        ldrpidLog = parse(Me7LogParser.LogType.LDRPID);
+
+        File file = Files.createTempFile("zeitronix", ".csv").toFile();
+        afrLog = AfrLogParser.getInstance().parseLogFile(new SyntheticData(SyntheticData.DEFAULT_SEED).writeAfrLog(file, rows));
+        file.delete();
+
+        mlhfm = SyntheticData.mlhfm();
+        kfldrl = SyntheticData.kfldrl();
+        kfldimx = SyntheticData.kfldimx();
+    }
+
+    private Map<Me7LogFileContract.Header, List<Double>> parse(Me7LogParser.LogType logType) throws IOException {
+        File file = Files.createTempFile("me7log", ".csv").toFile();
+        Map<Me7LogFileContract.Header, List<Double>> log = new Me7LogParser().parseLogFile(logType, new SyntheticData(SyntheticData.DEFAULT_SEED).writeMe7Log(file, logType, rows, 0, 0));
+        file.delete();
+
+        return log;
+    }
+
+    @Benchmark
+    public ClosedLoopFuelingCorrection closedLoopCorrection() {
+        ClosedLoopFuelingCorrectionManager manager = new ClosedLoopFuelingCorrectionManager(0, 0, 1);
+        manager.correct(closedLoopLog, mlhfm);
+
+        return manager.getClosedLoopMlhfmCorrection();
+    }
+
+    @Benchmark
+    public OpenLoopMlhfmCorrection openLoopCorrection() {
+        OpenLoopMlhfmCorrectionManager manager = new OpenLoopMlhfmCorrectionManager(80, 2000, 75, 150, 16);
+        manager.correct(openLoopLog, afrLog, mlhfm);
+
+        return manager.getOpenLoopCorrection();
+    }
+
+    @Benchmark
+    public LdrpidCalculator.LdrpidResult ldrpid() {
+        return LdrpidCalculator.caclulateLdrpid(ldrpidLog, kfldrl, kfldimx);
+    }
+}
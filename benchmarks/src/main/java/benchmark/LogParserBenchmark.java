@@ -0,0 +1,81 @@
+package benchmark;
+
+import data.contract.Me7LogFileContract;
+import data.parser.afrLog.AfrLogParser;
+import data.parser.me7log.Me7LogParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogParserBenchmark {
+
+    private static final int FILES = 8;
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"CLOSED_LOOP", "OPEN_LOOP", "LDRPID"})
+    public Me7LogParser.LogType logType;
+
+    // Total columns of the logs, the required ones are always logged. Wider logs can be benchmarked with -p channels=64
+    @Param({"0"})
+    public int channels;
+
+    // Relative to the directory the benchmarks are run from
+    @Param({"example/zeitronix.csv"})
+    public String afrLog;
+
+    private File directory;
+    private File log;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("me7logs").toFile();
+        SyntheticData data = new SyntheticData(SyntheticData.DEFAULT_SEED);
+
+        for (int i = 0; i < FILES; i++) {
+            data.writeMe7Log(new File(directory, "log" + i + ".csv"), logType, rows, channels, i);
+        }
+
+        log = new File(directory, "log0.csv");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public Map<Me7LogFileContract.Header, List<Double>> parseLogFile() {
+        return new Me7LogParser().parseLogFile(logType, log);
+    }
+
+    @Benchmark
+    public Map<Me7LogFileContract.Header, List<Double>> parseLogDirectory() {
+        return new Me7LogParser().parseLogDirectory(logType, directory, (value, max) -> {});
+    }
+
+    @Benchmark
+    public List<Map<Me7LogFileContract.Header, List<Double>>> parseLogFiles() {
+        return new Me7LogParser().parseLogFiles(logType, directory, (value, max) -> {});
+    }
+
+    @Benchmark
+    public Map<String, List<Double>> parseAfrLog() {
+        return AfrLogParser.getInstance().parseLogFile(new File(afrLog));
+    }
+}
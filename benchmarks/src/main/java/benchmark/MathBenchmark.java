@@ -0,0 +1,80 @@
+package benchmark;
+
+import domain.math.Index;
+import domain.math.Inverse;
+import domain.math.LinearInterpolation;
+import domain.math.map.Map3d;
+import domain.model.kfmirl.Kfmirl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MathBenchmark {
+
+    private Double[] x;
+    private Double[] y;
+    private Double[] xi;
+
+    private Map3d kfmirl;
+    private Map3d kfmiop;
+
+    private List<Double> voltages;
+    private double[] lookups;
+    private int lookup;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SyntheticData.DEFAULT_SEED);
+        Map3d mlhfm = SyntheticData.mlhfm();
+
+        x = mlhfm.yAxis;
+        y = new Double[x.length];
+        for (int i = 0; i < y.length; i++) {
+            y[i] = mlhfm.zAxis[i][0];
+        }
+
+        xi = new Double[1024];
+        for (int i = 0; i < xi.length; i++) {
+            xi[i] = random.nextDouble() * 5;
+        }
+
+        kfmirl = new Map3d(Kfmirl.getStockKfmirlXAxis(), Kfmirl.getStockKfmirlYAxis(), Kfmirl.getStockKfmirlMap());
+
+        Double[] loads = new Double[11];
+        for (int i = 0; i < loads.length; i++) {
+            loads[i] = i * 19d;
+        }
+        kfmiop = new Map3d(loads, Kfmirl.getStockKfmirlYAxis(), new Double[Kfmirl.getStockKfmirlYAxis().length][loads.length]);
+
+        voltages = new ArrayList<>(List.of(x));
+        lookups = new double[1024];
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = random.nextDouble() * 5;
+        }
+    }
+
+    @Benchmark
+    public Double[] linearInterpolation() {
+        return LinearInterpolation.interpolate(x, y, xi);
+    }
+
+    @Benchmark
+    public Map3d inverse() {
+        return Inverse.calculateInverse(kfmirl, kfmiop);
+    }
+
+    @Benchmark
+    public int getInsertIndex() {
+        lookup = (lookup + 1) & (lookups.length - 1);
+        return Index.getInsertIndex(voltages, lookups[lookup]);
+    }
+}
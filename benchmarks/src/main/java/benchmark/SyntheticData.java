@@ -0,0 +1,586 @@
+package benchmark;
+
+import data.parser.me7log.Me7LogParser;
+import domain.math.map.Map3d;
+import domain.model.kfmirl.Kfmirl;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates ME7Logger logs, Zeitronix logs and a matching bin and XDF for load and scale testing. The output only
+ * depends on the seed and the sizes, so benchmark and regression runs can regenerate the same data offline.
+ *
+ * The logs follow a drive that alternates part throttle cruising in closed loop with third gear wide open throttle
+ * pulls in open loop, so every correction has samples to work with. Logs are streamed to disk and can be many
+ * gigabytes long. Additional channels widen the rows like a logger configured with many variables.
+ *
+ * The XDF always contains MLHFM, KFMIRL, KFLDRL, KFLDIMX and KFVPDKSD with plausible values, followed by generated
+ * curves, maps and constants of 8 and 16 bits.
+ *
+ * Usage: SyntheticData output-directory [seed] [rows per log] [logs] [channels] [tables]
+ */
+public class SyntheticData {
+
+    public static final long DEFAULT_SEED = 7;
+
+    // Samples per second of the ME7 logs
+    private static final double SAMPLE_RATE = 20;
+
+    private static final String[] CLOSED_LOOP_HEADERS = {"TIME", "nmot", "fr_w", "fra_w", "uhfm_w", "wdkba", "B_lr", "rl_w"};
+    // The parser stops looking for headers once the required ones are found, so the optional ones come first
+    private static final String[] OPEN_LOOP_HEADERS = {"TIME", "rl_w", "lamsoni_w", "nmot", "fr_w", "fra_w", "uhfm_w", "mshfm_w", "wdkba", "B_lr", "lamsbg_w", "ti_b1"};
+    private static final String[] LDRPID_HEADERS = {"TIME", "nmot", "wdkba", "pus_w", "ldtvm", "pvdks_w", "gangi"};
+    private static final String[] KFVPDKSD_HEADERS = {"TIME", "nmot", "wdkba", "pus_w", "pvdks_w"};
+
+    // Channels that are commonly logged but not used by ME7Tuner
+    private static final String[] EXTRA_HEADERS = {"tmot", "tans", "ub", "vfzg", "zwout", "mibas_w", "miist_w", "mrfa_w", "ldrlts_w", "plsol_w", "pssol_w", "rlsol_w", "lamfaw_w", "dwkrz_0", "dwkrz_1", "dwkrz_2", "dwkrz_3", "dwkrz_4", "dwkrz_5", "ldimxr_w", "ldptv_w", "tabgm", "fpum_w", "wped_w"};
+
+    private static final int BIN_SIZE = 0x100000;
+    private static final int FIRST_TABLE_ADDRESS = 0x10000;
+
+    private final long seed;
+
+    public SyntheticData(long seed) {
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SyntheticData output-directory [seed] [rows per log] [logs] [channels] [tables]");
+            System.exit(2);
+        }
+
+        File directory = new File(args[0]);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+        long rows = args.length > 2 ? Long.parseLong(args[2]) : 100_000;
+        int logs = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        int channels = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+        int tables = args.length > 5 ? Integer.parseInt(args[5]) : 2000;
+
+        SyntheticData data = new SyntheticData(seed);
+
+        for (Me7LogParser.LogType logType : Me7LogParser.LogType.values()) {
+            File logDirectory = new File(directory, logType.name().toLowerCase());
+            logDirectory.mkdirs();
+
+            for (int i = 0; i < logs; i++) {
+                data.writeMe7Log(new File(logDirectory, "log" + i + ".csv"), logType, rows, channels, i);
+            }
+        }
+
+        data.writeAfrLog(new File(directory, "zeitronix.csv"), rows);
+        data.writeXdf(new File(directory, "synthetic.xdf"), tables);
+        data.writeBin(new File(directory, "synthetic.bin"), tables);
+    }
+
+    /**
+     * Writes an ME7Logger log.
+     *
+     * @param channels the number of channels to log, the required channels of the log type are always logged.
+     * @param index    the index of the log, so several logs from the same seed differ.
+     */
+    public File writeMe7Log(File file, Me7LogParser.LogType logType, long rows, int channels, int index) throws IOException {
+        List<String> headers = new ArrayList<>(List.of(switch (logType) {
+            case CLOSED_LOOP -> CLOSED_LOOP_HEADERS;
+            case OPEN_LOOP -> OPEN_LOOP_HEADERS;
+            case LDRPID -> LDRPID_HEADERS;
+            case KFVPDKSD -> KFVPDKSD_HEADERS;
+        }));
+
+        for (int i = 0; headers.size() < channels; i++) {
+            headers.add(i < EXTRA_HEADERS.length ? EXTRA_HEADERS[i] : "var" + i);
+        }
+
+        Random random = new Random(seed * 31 + logType.ordinal() * 1009L + index);
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.US_ASCII), 1 << 16)) {
+            writer.write("ME7-Logger synthetic log\n");
+            writer.write("Log started at: Sun 30.12.2018 10:49:18\n");
+            writer.write(String.join(",", headers));
+            writer.write('\n');
+
+            StringBuilder line = new StringBuilder();
+
+            for (long i = 0; i < rows; i++) {
+                Sample sample = new Sample(i, random);
+                line.setLength(0);
+
+                for (int j = 0; j < headers.size(); j++) {
+                    if (j > 0) {
+                        line.append(',');
+                    }
+                    appendFixed(line, sample.get(headers.get(j), j));
+                }
+
+                line.append('\n');
+                writer.append(line);
+            }
+        }
+
+        return file;
+    }
+
+    /**
+     * Writes a Zeitronix log of the same drive as the ME7 logs.
+     */
+    public File writeAfrLog(File file, long rows) throws IOException {
+        Random random = new Random(seed * 31 + 997);
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.US_ASCII), 1 << 16)) {
+            writer.write("Filename:synthetic.zdl\n");
+            writer.write("Date Exported:12/30/2018 10:49:18 AM\n\n");
+            writer.write("\"Time\",\"Zt-2 AFR\",\"Zt-2 RPM\",\"Zt-2 Boost\",\"Zt-2 EGT\",\"Zt-2 TPS\",\"Zt-2 User1\"\n");
+
+            StringBuilder line = new StringBuilder();
+
+            for (long i = 0; i < rows; i++) {
+                Sample sample = new Sample(i, random);
+                long millis = Math.round((10 * 3600 + 49 * 60 + 18 + sample.time) * 1000);
+                // Zeitronix reports psi for positive pressure and inHg for negative pressure
+                double boost = sample.boost - sample.barometricPressure;
+                double psi = boost >= 0 ? boost / 68.9476 : boost / 33.8639;
+
+                line.setLength(0);
+                appendTwoDigits(line, (int) (millis / 3_600_000 % 24)).append(':');
+                appendTwoDigits(line, (int) (millis / 60_000 % 60)).append(':');
+                if (millis % 60_000 < 10_000) {
+                    line.append('0');
+                }
+                appendFixed(line, millis % 60_000 / 1000.0).append(',');
+                appendFixed(line, sample.afr).append(',');
+                appendFixed(line, sample.rpm).append(',');
+                appendFixed(line, psi).append(',');
+                appendFixed(line, 650 + sample.load * 2).append(',');
+                appendFixed(line, sample.throttle).append(",0\n");
+
+                writer.append(line);
+            }
+        }
+
+        return file;
+    }
+
+    public File writeXdf(File file, int tableCount) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.write("<XDFFORMAT version=\"1.60\">\n");
+            writer.write("<XDFHEADER><deftitle>Synthetic</deftitle><description>Seed " + seed + "</description></XDFHEADER>\n");
+
+            for (Table table : tables(tableCount)) {
+                table.writeXdf(writer);
+            }
+
+            writer.write("</XDFFORMAT>\n");
+        }
+
+        return file;
+    }
+
+    /**
+     * @return a bin with the tables of the XDF written by {@link #writeXdf(File, int)} with the same table count.
+     */
+    public byte[] bin(int tableCount) {
+        List<Table> tables = tables(tableCount);
+        int size = Math.max(BIN_SIZE, tables.isEmpty() ? 0 : tables.get(tables.size() - 1).end());
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+
+        // Code and unused regions of a real bin aren't all zero
+        Random random = new Random(seed);
+        for (int i = 0; i < FIRST_TABLE_ADDRESS; i++) {
+            buffer.put((byte) random.nextInt(256));
+        }
+
+        for (Table table : tables) {
+            table.writeBin(buffer);
+        }
+
+        return buffer.array();
+    }
+
+    public File writeBin(File file, int tableCount) throws IOException {
+        Files.write(file.toPath(), bin(tableCount));
+        return file;
+    }
+
+    /**
+     * A 512 point MLHFM over 0 to 5 volts.
+     */
+    public static Map3d mlhfm() {
+        Double[] voltage = new Double[512];
+        Double[][] airflow = new Double[512][1];
+
+        for (int i = 0; i < voltage.length; i++) {
+            voltage[i] = i * 5.0 / (voltage.length - 1);
+            airflow[i][0] = voltage[i] < 0.5 ? 0 : 12 * Math.pow(voltage[i] - 0.5, 2.6);
+        }
+
+        return new Map3d(new Double[0], voltage, airflow);
+    }
+
+    public static Map3d kfmirl() {
+        return new Map3d(Kfmirl.getStockKfmirlXAxis(), Kfmirl.getStockKfmirlYAxis(), Kfmirl.getStockKfmirlMap());
+    }
+
+    public static Map3d kfldrl() {
+        Double[] dutyCycle = {0d, 10.1d, 20.1d, 30d, 40d, 50.1d, 60.1d, 70d, 80d, 95d};
+        Double[] rpm = rpmAxis();
+        Double[][] z = new Double[rpm.length][dutyCycle.length];
+
+        for (int i = 0; i < rpm.length; i++) {
+            for (int j = 0; j < dutyCycle.length; j++) {
+                z[i][j] = dutyCycle[j];
+            }
+        }
+
+        return new Map3d(dutyCycle, rpm, z);
+    }
+
+    public static Map3d kfldimx() {
+        Double[] pressure = {0d, 100d, 200d, 300d, 400d, 500d, 600d, 700d};
+        Double[] rpm = rpmAxis();
+        Double[][] z = new Double[rpm.length][pressure.length];
+
+        for (int i = 0; i < rpm.length; i++) {
+            for (int j = 0; j < pressure.length; j++) {
+                z[i][j] = 5 + j * 8d;
+            }
+        }
+
+        return new Map3d(pressure, rpm, z);
+    }
+
+    /**
+     * KFVPDKSD over pressure ratio and RPM, with the boost of a small turbo that builds by 3000 RPM.
+     */
+    public static Map3d kfvpdksd() {
+        Double[] pressureRatio = {1d, 1.1d, 1.2d, 1.3d, 1.4d, 1.5d, 1.6d, 1.8d, 2d, 2.2d};
+        Double[] rpm = rpmAxis();
+        Double[][] z = new Double[rpm.length][pressureRatio.length];
+
+        for (int i = 0; i < rpm.length; i++) {
+            double maxPressureRatio = 1 + Math.min(1, Math.max(0, (rpm[i] - 1500) / 1500));
+
+            for (int j = 0; j < pressureRatio.length; j++) {
+                z[i][j] = j > 0 && pressureRatio[j] > maxPressureRatio ? 1.016 : 0.965;
+            }
+        }
+
+        return new Map3d(pressureRatio, rpm, z);
+    }
+
+    private static Double[] rpmAxis() {
+        return new Double[]{1000d, 1500d, 2000d, 2500d, 2750d, 3000d, 3250d, 3500d, 3750d, 4000d, 4500d, 5000d, 5500d, 6000d, 6500d, 7000d};
+    }
+
+    private List<Table> tables(int tableCount) {
+        Random random = new Random(seed * 31 + 1);
+        List<Table> tables = new ArrayList<>();
+        int address = FIRST_TABLE_ADDRESS;
+
+        Map3d[] named = {mlhfm(), kfmirl(), kfldrl(), kfldimx(), kfvpdksd()};
+        String[] names = {"MLHFM", "KFMIRL", "KFLDRL", "KFLDIMX", "KFVPDKSD"};
+        String[] units = {"kg/h", "%", "%", "hPa", "-"};
+        double[] scales = {0.1, 0.023438, 0.005, 0.078125, 0.000031};
+
+        for (int i = 0; i < named.length && tables.size() < tableCount; i++) {
+            Table table = new Table(names[i], "Synthetic " + names[i], units[i], address, 16, false, scales[i], 0, named[i]);
+            tables.add(table);
+            address = table.end();
+        }
+
+        while (tables.size() < tableCount) {
+            int index = tables.size();
+            int kind = random.nextInt(10);
+            int sizeBits = random.nextInt(3) == 0 ? 8 : 16;
+            boolean signed = random.nextInt(4) == 0;
+            double scale = sizeBits == 8 ? 0.75 : 0.023438;
+            double offset = random.nextInt(3) == 0 ? -48 : 0;
+
+            Table table;
+            if (kind == 0) {
+                // Constant
+                Map3d value = new Map3d(new Double[0], new Double[0], new Double[][]{{offset + random.nextInt(100) * scale}});
+                table = new Table("CONST" + index, "Synthetic constant " + index, "-", address, sizeBits, signed, scale, offset, value);
+                table.constant = true;
+            } else {
+                int rows = kind < 4 ? 4 + random.nextInt(13) : 8 + random.nextInt(9);
+                int columns = kind < 4 ? 1 : 6 + random.nextInt(11);
+                table = new Table(kind < 4 ? "CURVE" + index : "MAP" + index, "Synthetic table " + index, "-", address, sizeBits, signed, scale, offset, smoothMap(random, rows, columns, sizeBits, signed, scale, offset));
+            }
+
+            tables.add(table);
+            address = table.end();
+        }
+
+        return tables;
+    }
+
+    private static Map3d smoothMap(Random random, int rows, int columns, int sizeBits, boolean signed, double scale, double offset) {
+        Double[] xAxis = new Double[columns == 1 ? 0 : columns];
+        Double[] yAxis = new Double[rows];
+        Double[][] z = new Double[rows][columns];
+
+        for (int j = 0; j < xAxis.length; j++) {
+            xAxis[j] = j * 10d;
+        }
+        for (int i = 0; i < rows; i++) {
+            yAxis[i] = 500d + i * 500d;
+        }
+
+        // Raw values stay inside the range of the smallest type
+        double base = random.nextInt(40);
+        double rowSlope = random.nextDouble() * 4;
+        double columnSlope = random.nextDouble() * 4;
+        int max = sizeBits == 8 ? (signed ? 127 : 255) : (signed ? 32767 : 65535);
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                double raw = Math.min(max, base + i * rowSlope + j * columnSlope + random.nextInt(3));
+                z[i][j] = offset + raw * scale;
+            }
+        }
+
+        return new Map3d(xAxis, yAxis, z);
+    }
+
+    /**
+     * Appends the value with three decimals, much faster than String.format for huge logs.
+     */
+    private static StringBuilder appendFixed(StringBuilder builder, double value) {
+        long thousandths = Math.round(value * 1000);
+
+        if (thousandths < 0) {
+            builder.append('-');
+            thousandths = -thousandths;
+        }
+
+        builder.append(thousandths / 1000).append('.');
+
+        long fraction = thousandths % 1000;
+        if (fraction < 100) {
+            builder.append('0');
+        }
+        if (fraction < 10) {
+            builder.append('0');
+        }
+
+        return builder.append(fraction);
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder builder, int value) {
+        if (value < 10) {
+            builder.append('0');
+        }
+
+        return builder.append(value);
+    }
+
+    // A table of the XDF and its contents in the bin. Axes are stored in the bin as unsigned 16 bit values.
+    private static class Table {
+        private final String name;
+        private final String description;
+        private final String unit;
+        private final int address;
+        private final int sizeBits;
+        private final boolean signed;
+        private final double scale;
+        private final double offset;
+        private final Map3d map;
+        private boolean constant;
+
+        private Table(String name, String description, String unit, int address, int sizeBits, boolean signed, double scale, double offset, Map3d map) {
+            this.name = name;
+            this.description = description;
+            this.unit = unit;
+            this.address = address;
+            this.sizeBits = sizeBits;
+            this.signed = signed;
+            this.scale = scale;
+            this.offset = offset;
+            this.map = map;
+        }
+
+        private int xAxisAddress() {
+            return address;
+        }
+
+        private int yAxisAddress() {
+            return xAxisAddress() + map.xAxis.length * 2;
+        }
+
+        private int zAddress() {
+            return yAxisAddress() + map.yAxis.length * 2;
+        }
+
+        private int end() {
+            int size = map.zAxis.length * map.zAxis[0].length * sizeBits / 8;
+            // Word aligned like the tables of a real bin
+            return (zAddress() + size + 1) & ~1;
+        }
+
+        private String equation() {
+            return offset == 0 ? String.format(Locale.ENGLISH, "X*%.6f", scale) : String.format(Locale.ENGLISH, "X*%.6f+%.6f", scale, offset);
+        }
+
+        // The finest scale that fits the axis into unsigned 16 bit values
+        private static double axisScale(Double[] axis) {
+            double max = 0;
+            for (Double value : axis) {
+                max = Math.max(max, value);
+            }
+
+            double scale = 0.001;
+            while (max / scale > 65535) {
+                scale *= 10;
+            }
+
+            return scale;
+        }
+
+        private static void writeAxis(ByteBuffer buffer, Double[] axis) {
+            double scale = axisScale(axis);
+            for (Double value : axis) {
+                buffer.putShort((short) Math.round(value / scale));
+            }
+        }
+
+        private void writeXdf(Writer writer) throws IOException {
+            String type = "0x" + Integer.toHexString((signed ? 1 : 0) | 2);
+
+            if (constant) {
+                writer.write("<XDFCONSTANT>\n<title>" + name + "</title>\n<description>" + description + "</description>\n");
+                writer.write("<EMBEDDEDDATA mmedtypeflags=\"" + type + "\" mmedaddress=\"0x" + Integer.toHexString(zAddress()) + "\" mmedelementsizebits=\"" + sizeBits + "\"/>\n");
+                writer.write("<units>" + unit + "</units>\n");
+                writer.write("<MATH equation=\"" + equation() + "\"><VAR id=\"X\"/></MATH>\n");
+                writer.write("</XDFCONSTANT>\n");
+                return;
+            }
+
+            writer.write("<XDFTABLE>\n<title>" + name + "</title>\n<description>" + description + "</description>\n");
+            writeAxis(writer, "x", xAxisAddress(), map.xAxis.length, axisScale(map.xAxis));
+            writeAxis(writer, "y", yAxisAddress(), map.yAxis.length, axisScale(map.yAxis));
+
+            writer.write("<XDFAXIS id=\"z\">\n");
+            writer.write("<EMBEDDEDDATA mmedtypeflags=\"" + type + "\" mmedaddress=\"0x" + Integer.toHexString(zAddress()) + "\" mmedelementsizebits=\"" + sizeBits + "\" mmedrowcount=\"" + map.zAxis.length + "\" mmedcolcount=\"" + map.zAxis[0].length + "\"/>\n");
+            writer.write("<units>" + unit + "</units>\n");
+            writer.write("<MATH equation=\"" + equation() + "\"><VAR id=\"X\"/></MATH>\n");
+            writer.write("</XDFAXIS>\n</XDFTABLE>\n");
+        }
+
+        private static void writeAxis(Writer writer, String id, int address, int count, double scale) throws IOException {
+            writer.write("<XDFAXIS id=\"" + id + "\">\n");
+            if (count > 0) {
+                writer.write("<EMBEDDEDDATA mmedtypeflags=\"0x2\" mmedaddress=\"0x" + Integer.toHexString(address) + "\" mmedelementsizebits=\"16\" mmedrowcount=\"1\" mmedcolcount=\"" + count + "\"/>\n");
+            }
+            writer.write("<indexcount>" + count + "</indexcount>\n<units>-</units>\n");
+            writer.write("<MATH equation=\"" + String.format(Locale.ENGLISH, "X*%.6f", scale) + "\"><VAR id=\"X\"/></MATH>\n");
+            writer.write("</XDFAXIS>\n");
+        }
+
+        private void writeBin(ByteBuffer buffer) {
+            buffer.position(xAxisAddress());
+            writeAxis(buffer, map.xAxis);
+            writeAxis(buffer, map.yAxis);
+
+            for (Double[] row : map.zAxis) {
+                for (Double value : row) {
+                    long raw = Math.round((value - offset) / scale);
+
+                    if (sizeBits == 8) {
+                        buffer.put((byte) Math.max(signed ? -128 : 0, Math.min(signed ? 127 : 255, raw)));
+                    } else {
+                        buffer.putShort((short) Math.max(signed ? -32768 : 0, Math.min(signed ? 32767 : 65535, raw)));
+                    }
+                }
+            }
+        }
+    }
+
+    // One sample of a drive that alternates 30 s of cruising with 10 s third gear pulls
+    private static class Sample {
+        private final double time;
+        private final double rpm;
+        private final double throttle;
+        private final double load;
+        private final double mafVoltage;
+        private final double mafGramsPerSecond;
+        private final double requestedLambda;
+        private final double lambda;
+        private final double afr;
+        private final double barometricPressure;
+        private final double boost;
+        private final double wastegateDutyCycle;
+        private final boolean lambdaControl;
+        private final double stft;
+        private final double ltft;
+        private final double injectorOnTime;
+        private final double noise;
+
+        private Sample(long index, Random random) {
+            time = index / SAMPLE_RATE;
+
+            double phase = time % 40;
+            boolean pull = phase >= 30;
+            noise = random.nextGaussian();
+
+            if (pull) {
+                double progress = (phase - 30) / 10;
+                rpm = 2000 + progress * 4800 + noise * 10;
+                throttle = 99.6;
+                load = 120 + 70 * Math.sin(progress * Math.PI * 0.8) + noise;
+                requestedLambda = 0.78;
+                lambdaControl = false;
+                boost = 1013 + 1200 * Math.min(1, progress * 3) + noise * 5;
+                wastegateDutyCycle = 95 - 40 * progress;
+            } else {
+                rpm = 1500 + 1000 * (1 + Math.sin(time / 5)) + noise * 10;
+                throttle = 8 + 12 * (1 + Math.sin(time / 7)) + noise * 0.2;
+                load = 25 + throttle * 1.5 + noise;
+                requestedLambda = 1;
+                lambdaControl = true;
+                boost = 500 + load * 4 + noise * 5;
+                wastegateDutyCycle = 0;
+            }
+
+            barometricPressure = 1013;
+            mafGramsPerSecond = load * rpm / 6000 * 1.2;
+            mafVoltage = Math.min(5, 0.5 + Math.pow(mafGramsPerSecond * 3.6 / 12, 1 / 2.6));
+            lambda = requestedLambda * (1 + noise * 0.01);
+            afr = lambda * 14.7;
+            stft = lambdaControl ? 1 + noise * 0.02 : 1;
+            ltft = 1.02;
+            injectorOnTime = load * 0.08;
+        }
+
+        private double get(String header, int column) {
+            return switch (header) {
+                case "TIME" -> time;
+                case "nmot" -> rpm;
+                case "fr_w" -> stft;
+                case "fra_w" -> ltft;
+                case "uhfm_w" -> mafVoltage;
+                case "mshfm_w" -> mafGramsPerSecond;
+                case "wdkba" -> throttle;
+                case "B_lr" -> lambdaControl ? 1 : 0;
+                case "lamsbg_w" -> requestedLambda;
+                case "ti_b1" -> injectorOnTime;
+                case "rl_w" -> load;
+                case "lamsoni_w" -> lambda;
+                case "pus_w" -> barometricPressure;
+                case "ldtvm" -> wastegateDutyCycle;
+                case "pvdks_w" -> boost;
+                case "gangi" -> 3;
+                // Loosely follows the load so the columns don't compress to nothing
+                default -> load * (1 + column % 7) * 0.1 + noise;
+            };
+        }
+    }
+}
@@ -1,7 +1,9 @@
 import com.formdev.flatlaf.intellijthemes.FlatArcDarkOrangeIJTheme;
+import presentation.batch.Batch;
 import presentation.view.MainManager;
 
 import javax.swing.*;
+import java.util.Arrays;
 import java.util.Locale;
 
 public class Main {
@@ -9,6 +11,12 @@ public class Main {
 
         Locale.setDefault(Locale.ENGLISH);
 
+        if (args.length > 0 && args[0].equals(Batch.ARGUMENT)) {
+            // The batch runs on build servers without a display, so it must be done before the look and feel loads AWT
+            System.setProperty("java.awt.headless", "true");
+            System.exit(Batch.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+
         try {
             UIManager.setLookAndFeel( new FlatArcDarkOrangeIJTheme());
         } catch (UnsupportedLookAndFeelException e) {
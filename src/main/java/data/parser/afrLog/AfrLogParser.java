@@ -2,6 +2,10 @@ package data.parser.afrLog;
 
 import data.contract.AfrLogFileContract;
 import data.contract.Me7LogFileContract;
+import domain.metrics.Counter;
+import domain.metrics.LogParseEvent;
+import domain.metrics.Metrics;
+import domain.metrics.Stage;
 import io.reactivex.Observer;
 import io.reactivex.Single;
 import io.reactivex.SingleObserver;
@@ -21,6 +25,10 @@ import java.util.*;
 
 public class AfrLogParser {
 
+    private static final Stage PARSE = Metrics.getInstance().stage("afrlog.parse");
+    private static final Counter PARSED_BYTES = Metrics.getInstance().counter("afrlog.parse.bytes", PARSE);
+    private static final Counter PARSED_ROWS = Metrics.getInstance().counter("afrlog.parse.rows", PARSE);
+
     private static AfrLogParser instance;
 
     private final PublishSubject<Map<String, List<Double>>> publishSubject = PublishSubject.create();
@@ -79,6 +87,20 @@ public class AfrLogParser {
         });
     }
 
+    /**
+     * Parses a Zeitronix log on the calling thread without publishing it.
+     */
+    public Map<String, List<Double>> parseLogFile(File file) {
+        return parse(file);
+    }
+
+    /**
+     * Reads the wideband of an ME7 log on the calling thread without publishing it.
+     */
+    public Map<String, List<Double>> parseLog(Map<Me7LogFileContract.Header, List<Double>> log) {
+        return parse(log);
+    }
+
     private Map<String, List<Double>> parse(Map<Me7LogFileContract.Header, List<Double>> log) {
 
         Map<String, List<Double>> map = new HashMap<>();
@@ -95,7 +117,8 @@ public class AfrLogParser {
             map.get(AfrLogFileContract.START_TIME).add(startTime);
 
             for(int i = 0; i < log.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER).size(); i++) {
-                map.get(AfrLogFileContract.START_TIME).add(log.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER).get(i));
+                // ME7 timestamps are relative to the start of the log
+                map.get(AfrLogFileContract.TIMESTAMP).add(startTime + log.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER).get(i));
                 map.get(AfrLogFileContract.RPM_HEADER).add(log.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER).get(i));
                 // ME7.5 afr is normalized. Covert to stoichiometric gasoline ratio
                 map.get(AfrLogFileContract.AFR_HEADER).add(log.get(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER).get(i) * 14.7);
@@ -107,6 +130,9 @@ public class AfrLogParser {
     }
 
     private Map<String, List<Double>> parse(File file) {
+        long start = PARSE.start();
+        LogParseEvent event = new LogParseEvent();
+        event.begin();
 
         int timeColumnIndex = -1;
         int rpmColumnIndex = -1;
@@ -115,6 +141,8 @@ public class AfrLogParser {
         int boostColumnIndex = -1;
 
         double lastPsi = 0;
+        double lastTimestamp = 0;
+        double hourOffset = 0;
 
         Map<String, List<Double>> map = new HashMap<>();
         map.put(AfrLogFileContract.START_TIME, new ArrayList<>());
@@ -158,6 +186,13 @@ public class AfrLogParser {
                     double seconds = Double.parseDouble(split[2]);
                     double timestamp = (minuteSeconds + seconds);
 
+                    // Only minutes and seconds are kept so keep the timestamps ascending across the hour
+                    if (timestamp + hourOffset < lastTimestamp - 1800) {
+                        hourOffset += 3600;
+                    }
+                    timestamp += hourOffset;
+                    lastTimestamp = timestamp;
+
                     map.get(AfrLogFileContract.TIMESTAMP).add(timestamp);
                     map.get(AfrLogFileContract.TPS_HEADER).add(Double.parseDouble(record.get(tpsColumnIndex)));
                     map.get(AfrLogFileContract.RPM_HEADER).add(Double.parseDouble(record.get(rpmColumnIndex)));
@@ -184,6 +219,19 @@ public class AfrLogParser {
                 }
             }
 
+            PARSE.stop(start);
+            PARSED_BYTES.add(file.length());
+            PARSED_ROWS.add(map.get(AfrLogFileContract.TIMESTAMP).size());
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.logType = "ZEITRONIX";
+                event.file = file.getPath();
+                event.bytes = file.length();
+                event.rows = map.get(AfrLogFileContract.TIMESTAMP).size();
+                event.commit();
+            }
+
             double startTime = map.get(AfrLogFileContract.TIMESTAMP).get(0);
             map.get(AfrLogFileContract.START_TIME).add(startTime);
 
@@ -0,0 +1,226 @@
+package data.parser.bin;
+
+import data.parser.xdf.AxisDefinition;
+import data.parser.xdf.TableDefinition;
+import domain.math.map.Map3d;
+import domain.metrics.Counter;
+import domain.metrics.Metrics;
+import domain.metrics.Stage;
+import domain.metrics.TableDecodeEvent;
+import org.apache.commons.math3.util.Pair;
+
+import javax.script.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Decodes the tables of a bin with the table definitions of an XDF. A decoder owns a script engine for the
+ * equations, so it must only be used by one thread at a time.
+ */
+public class BinDecoder {
+
+    private static final Stage DECODE_TABLE = Metrics.getInstance().stage("bin.decode.table");
+    private static final Stage COMPILE_EQUATION = Metrics.getInstance().stage("bin.decode.equation");
+    private static final Counter DECODED_CELLS = Metrics.getInstance().counter("bin.decode.cells", DECODE_TABLE);
+
+    private final ScriptEngine engine = new ScriptEngineManager().getEngineByName("graal.js");
+
+    public List<Pair<TableDefinition, Map3d>> decode(byte[] bytes, List<TableDefinition> tableDefinitions) {
+        return decode(bytes, tableDefinitions, () -> false);
+    }
+
+    /**
+     * @return an immutable list of the decoded tables, or null if decoding was cancelled.
+     */
+    public List<Pair<TableDefinition, Map3d>> decode(byte[] bytes, List<TableDefinition> tableDefinitions, BooleanSupplier cancelled) {
+        List<Pair<TableDefinition, Map3d>> mapList = new ArrayList<>(tableDefinitions.size());
+
+        for(TableDefinition tableDefinition:tableDefinitions) {
+            if (cancelled.getAsBoolean()) {
+                return null;
+            }
+
+            mapList.add(new Pair<>(tableDefinition, decode(bytes, tableDefinition)));
+        }
+
+        return Collections.unmodifiableList(mapList);
+    }
+
+    public Map3d decode(byte[] bytes, TableDefinition tableDefinition) {
+        long start = DECODE_TABLE.start();
+        TableDecodeEvent event = new TableDecodeEvent();
+        event.begin();
+
+        AxisDefinition xAxisDefinition = tableDefinition.getXAxis();
+        AxisDefinition yAxisDefinition = tableDefinition.getYAxis();
+        AxisDefinition zAxisDefinition = tableDefinition.getZAxis();
+
+        Double[] xAxis = new Double[0];
+        Double[] yAxis = new Double[0];
+        Double[][] zAxis = new Double[0][0];
+
+        if(xAxisDefinition != null) {
+            xAxis = parseAxis(bytes, xAxisDefinition);
+        }
+        if(yAxisDefinition != null) {
+            yAxis = parseAxis(bytes, yAxisDefinition);
+        }
+        if(zAxisDefinition != null) {
+            zAxis = parseData(bytes, zAxisDefinition);
+        }
+
+        long cells = xAxis.length + yAxis.length + (long) zAxis.length * (zAxis.length == 0 ? 0 : zAxis[0].length);
+
+        DECODE_TABLE.stop(start);
+        DECODED_CELLS.add(cells);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.table = tableDefinition.getTableName();
+            event.cells = cells;
+            event.equation = zAxisDefinition == null ? null : zAxisDefinition.getEquation();
+            event.commit();
+        }
+
+        return new Map3d(xAxis, yAxis, zAxis);
+    }
+
+    private Double[] parseAxis(byte[] bytes, AxisDefinition axisDefinition) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int address = axisDefinition.getAddress();
+
+        if(address != 0) { // Parse from the bin
+            buffer.position(address);
+            int strideBytes = axisDefinition.getSizeBits()/8;
+            // Determine how many bytes per row to get the last index of the axis
+            buffer.limit(address + (strideBytes*axisDefinition.getIndexCount()));
+
+            ByteBuffer slice = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+            slice.position(0);
+
+            try {
+                long compileStart = COMPILE_EQUATION.start();
+                CompiledScript compiledScript = ((Compilable)engine)
+                        .compile("function func("+ axisDefinition.getVarId() +") { return " + axisDefinition.getEquation() + "}");
+                compiledScript.eval(compiledScript.getEngine()
+                        .getBindings(ScriptContext.ENGINE_SCOPE));
+                COMPILE_EQUATION.stop(compileStart);
+
+                Invocable funcEngine = (Invocable) compiledScript.getEngine();
+
+                Double[] axis = new Double[axisDefinition.getIndexCount()];
+
+                for (int i = 0; i < axis.length; i++) {
+                    int value;
+                    if(strideBytes == 1) {
+                        // 0x00 = unsigned, LSB last
+                        // 0x01 = signed, LSB last
+                        // 0x02 = unsigned, LSB first
+                        // 0x03 = signed, LSB first
+                        if(axisDefinition.getType() % 2 == 0) {
+                            value = Byte.toUnsignedInt(slice.get());
+                        } else {
+                            value = slice.get();
+                        }
+                    } else {
+                        // 0x00 = unsigned, LSB last
+                        // 0x01 = signed, LSB last
+                        // 0x02 = unsigned, LSB first
+                        // 0x03 = signed, LSB first
+                        if(axisDefinition.getType() % 2 == 0) {
+                            value = Short.toUnsignedInt(slice.getShort());
+                        } else {
+                            value = slice.getShort();
+                        }
+                    }
+
+                    axis[i] = ((Number)funcEngine.invokeFunction("func", value)).doubleValue();
+                }
+
+                return axis;
+            } catch (ScriptException | NoSuchMethodException e) {
+                e.printStackTrace();
+            }
+        } else if(axisDefinition.getIndexCount() != 0) { // Parse from xdf
+            Double[] axis = new Double[axisDefinition.getIndexCount()];
+            for(int i = 0; i < axis.length; i++) {
+                axis[i] = axisDefinition.getAxisValues().get(i).getSecond().doubleValue();
+            }
+
+            return axis;
+        }
+
+        return new Double[0];
+    }
+
+    private Double[][] parseData(byte[] bytes, AxisDefinition axisDefinition) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int address = axisDefinition.getAddress();
+
+        if(address != 0) {
+            buffer.position(address);
+            int rowCount = axisDefinition.getRowCount();
+            int columnCount = Math.max(1, axisDefinition.getColumnCount());
+
+            int stride = axisDefinition.getSizeBits()/8;
+
+            // Determine how many bytes per row to get the last index of the axis
+            buffer.limit(address + (stride*(rowCount * columnCount)));
+            ByteBuffer slice = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+            slice.position(0);
+
+            try {
+                long compileStart = COMPILE_EQUATION.start();
+                CompiledScript compiledScript = ((Compilable)engine)
+                        .compile("function func("+ axisDefinition.getVarId() +") { return " + axisDefinition.getEquation() + "}");
+                compiledScript.eval(compiledScript.getEngine()
+                        .getBindings(ScriptContext.ENGINE_SCOPE));
+                COMPILE_EQUATION.stop(compileStart);
+
+                Invocable funcEngine = (Invocable) compiledScript.getEngine();
+
+                Double[][] axis = new Double[rowCount][columnCount];
+
+                for (int i = 0; i < axis.length; i++) {
+                    axis[i] = new Double[columnCount];
+                    for (int j = 0; j < axis[i].length; j++) {
+                        int value;
+                        if(stride == 1) {
+                            // 0x00 = unsigned, LSB last
+                            // 0x01 = signed, LSB last
+                            // 0x02 = unsigned, LSB first
+                            // 0x03 = signed, LSB first
+                            if(axisDefinition.getType() % 2 == 0) {
+                                value = Byte.toUnsignedInt(slice.get());
+                            } else {
+                                value = slice.get();
+                            }
+                        } else {
+                            // 0x00 = unsigned, LSB last
+                            // 0x01 = signed, LSB last
+                            // 0x02 = unsigned, LSB first
+                            // 0x03 = signed, LSB first
+                            if(axisDefinition.getType() % 2 == 0) {
+                                value = Short.toUnsignedInt(slice.getShort());
+                            } else {
+                                value = slice.getShort();
+                            }
+                        }
+
+                        axis[i][j] = ((Number)funcEngine.invokeFunction("func", value)).doubleValue();
+                    }
+                }
+
+                return axis;
+            } catch (ScriptException | NoSuchMethodException e) {
+                e.printStackTrace();
+            }
+        }
+
+        return new Double[0][0];
+    }
+}
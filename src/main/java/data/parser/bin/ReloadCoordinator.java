@@ -0,0 +1,63 @@
+package data.parser.bin;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Coalesces reload requests. A reload runs once no further request has arrived for the quiet period, so a burst of
+ * requests results in a single reload. Reloads run one at a time on a thread owned by the coordinator.
+ *
+ * Every request increments the generation. A reload is given the generation it was started for, and its result is
+ * stale if {@link #isLatest(long)} no longer holds by the time it is published.
+ */
+class ReloadCoordinator {
+
+    private final ScheduledExecutorService executor;
+    private final LongConsumer reload;
+    private final long quietPeriodMillis;
+
+    private final AtomicLong generation = new AtomicLong();
+    private ScheduledFuture<?> pending;
+
+    ReloadCoordinator(String name, long quietPeriodMillis, LongConsumer reload) {
+        this.reload = reload;
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules a reload after the quiet period, replacing one that hasn't started yet.
+     *
+     * @return the generation of the request.
+     */
+    synchronized long request() {
+        long requested = generation.incrementAndGet();
+
+        if (pending != null) {
+            // A reload that has already started runs to completion, its result will be stale
+            pending.cancel(false);
+        }
+
+        pending = executor.schedule(() -> {
+            try {
+                reload.accept(requested);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, quietPeriodMillis, TimeUnit.MILLISECONDS);
+
+        return requested;
+    }
+
+    boolean isLatest(long generation) {
+        return this.generation.get() == generation;
+    }
+}
@@ -17,6 +17,7 @@ import java.util.Map;
 public class ClosedLoopLogParser {
 
     private final PublishSubject<Map<Me7LogFileContract.Header, List<Double>>> publishSubject;
+    private final PublishSubject<List<Map<Me7LogFileContract.Header, List<Double>>>> filesPublishSubject;
 
     private static ClosedLoopLogParser instance;
 
@@ -34,23 +35,36 @@ public class ClosedLoopLogParser {
 
     private ClosedLoopLogParser() {
         publishSubject = PublishSubject.create();
+        filesPublishSubject = PublishSubject.create();
     }
 
     public void registerClosedLoopLogOnChangeObserver(Observer<Map<Me7LogFileContract.Header, List<Double>>> observer){
         SwingUtilities.invokeLater(() -> publishSubject.subscribe(observer));
     }
 
+    /**
+     * Observes the logs of the directory with one log map per file.
+     */
+    public void registerClosedLoopLogFilesOnChangeObserver(Observer<List<Map<Me7LogFileContract.Header, List<Double>>>> observer){
+        SwingUtilities.invokeLater(() -> filesPublishSubject.subscribe(observer));
+    }
+
     public void loadDirectory(File directory) {
         if (directory.isDirectory()) {
             Me7LogParser me7LogParser = new Me7LogParser();
-            Single.fromCallable(() -> me7LogParser.parseLogDirectory(Me7LogParser.LogType.CLOSED_LOOP, directory, (value, max) -> {
-            })).subscribeOn(Schedulers.io()).subscribe(new SingleObserver<Map<Me7LogFileContract.Header, List<Double>>>() {
+            Single.fromCallable(() -> me7LogParser.parseLogFiles(Me7LogParser.LogType.CLOSED_LOOP, directory, (value, max) -> {
+            })).subscribeOn(Schedulers.io()).subscribe(new SingleObserver<List<Map<Me7LogFileContract.Header, List<Double>>>>() {
                 @Override
                 public void onSubscribe(@NonNull Disposable disposable) {}
 
                 @Override
-                public void onSuccess(@NonNull Map<Me7LogFileContract.Header, List<Double>> logMap) {
-                    SwingUtilities.invokeLater(() -> publishSubject.onNext(logMap));
+                public void onSuccess(@NonNull List<Map<Me7LogFileContract.Header, List<Double>>> logs) {
+                    Map<Me7LogFileContract.Header, List<Double>> logMap = Me7LogParser.concat(Me7LogParser.LogType.CLOSED_LOOP, logs);
+
+                    SwingUtilities.invokeLater(() -> {
+                        filesPublishSubject.onNext(logs);
+                        publishSubject.onNext(logMap);
+                    });
                 }
 
                 @Override
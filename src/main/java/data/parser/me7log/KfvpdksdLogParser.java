@@ -1,6 +1,7 @@
 package data.parser.me7log;
 
 import data.contract.Me7LogFileContract;
+import domain.math.TopFractionMean;
 import io.reactivex.Observer;
 import io.reactivex.Single;
 import io.reactivex.SingleObserver;
@@ -12,10 +13,11 @@ import io.reactivex.subjects.PublishSubject;
 import java.io.File;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 public class KfvpdksdLogParser {
 
-    private final PublishSubject<Map<Me7LogFileContract.Header, List<Double>>> publishSubject;
+    private final PublishSubject<TopFractionMean[]> publishSubject;
 
     private static KfvpdksdLogParser instance;
 
@@ -35,27 +37,37 @@ public class KfvpdksdLogParser {
         publishSubject = PublishSubject.create();
     }
 
-    public void registerLogOnChangeObserver(Observer<Map<Me7LogFileContract.Header, List<Double>>> observer){
+    public void registerPressureOnChangeObserver(Observer<TopFractionMean[]> observer){
         publishSubject.subscribe(observer);
     }
 
-    public void loadDirectory(File directory, Me7LogParser.ProgressCallback progressCallback) {
-        if (directory.isDirectory()) {
-            Me7LogParser me7LogParser = new Me7LogParser();
-            Single.fromCallable(() -> me7LogParser.parseLogDirectory(Me7LogParser.LogType.KFVPDKSD, directory, progressCallback)).subscribeOn(Schedulers.io()).subscribe(new SingleObserver<>() {
-                @Override
-                public void onSubscribe(@NonNull Disposable disposable) {}
+    /**
+     * Parses the logs of the directory in parallel, reducing each log to its boost pressure sketches as soon as it is
+     * parsed, and publishes the merged sketches.
+     *
+     * @return false if the directory has no log files, nothing is loaded.
+     */
+    public boolean loadDirectory(File directory, Function<Map<Me7LogFileContract.Header, List<Double>>, TopFractionMean[]> sketcher, Me7LogParser.ProgressCallback progressCallback) {
+        if (!directory.isDirectory() || Me7LogParser.listLogFiles(directory).length == 0) {
+            return false;
+        }
 
-                @Override
-                public void onSuccess(@NonNull Map<Me7LogFileContract.Header, List<Double>> logMap) {
-                    publishSubject.onNext(logMap);
-                }
+        Me7LogParser me7LogParser = new Me7LogParser();
+        Single.fromCallable(() -> me7LogParser.reduceLogFiles(Me7LogParser.LogType.KFVPDKSD, directory, sketcher, TopFractionMean::merge, progressCallback)).subscribeOn(Schedulers.io()).subscribe(new SingleObserver<>() {
+            @Override
+            public void onSubscribe(@NonNull Disposable disposable) {}
 
-                @Override
-                public void onError(@NonNull Throwable throwable) {
-                    throwable.printStackTrace();
-                }
-            });
-        }
+            @Override
+            public void onSuccess(@NonNull TopFractionMean[] sketches) {
+                publishSubject.onNext(sketches);
+            }
+
+            @Override
+            public void onError(@NonNull Throwable throwable) {
+                throwable.printStackTrace();
+            }
+        });
+
+        return true;
     }
 }
@@ -1,6 +1,10 @@
 package data.parser.me7log;
 
 import data.contract.Me7LogFileContract;
+import domain.metrics.Counter;
+import domain.metrics.LogParseEvent;
+import domain.metrics.Metrics;
+import domain.metrics.Stage;
 import io.reactivex.annotations.NonNull;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVRecord;
@@ -10,9 +14,14 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class Me7LogParser {
 
@@ -23,6 +32,11 @@ public class Me7LogParser {
         KFVPDKSD
     }
 
+    private static final Stage PARSE = Metrics.getInstance().stage("me7log.parse");
+    private static final Stage HEADERS = Metrics.getInstance().stage("me7log.headers");
+    private static final Counter PARSED_BYTES = Metrics.getInstance().counter("me7log.parse.bytes", PARSE);
+    private static final Counter PARSED_ROWS = Metrics.getInstance().counter("me7log.parse.rows", PARSE);
+
     private int timeColumnIndex = -1;
     private int rpmColumnIndex = -1;
     private int stftColumnIndex = -1;
@@ -58,6 +72,75 @@ public class Me7LogParser {
         return map;
     }
 
+    /**
+     * Parses every file in the directory in parallel.
+     *
+     * @return one log map per file, in directory listing order.
+     */
+    public List<Map<Me7LogFileContract.Header, List<Double>>> parseLogFiles(LogType logType, File directory, ProgressCallback callback) {
+        File[] files = listLogFiles(directory);
+
+        int numFiles = files.length;
+        AtomicInteger count = new AtomicInteger();
+
+        // The column indices are per instance so each file gets its own parser
+        return Arrays.stream(files).parallel().map(file -> {
+            Map<Me7LogFileContract.Header, List<Double>> map = new Me7LogParser().parseLogFile(logType, file);
+            callback.onProgress(count.getAndIncrement(), numFiles);
+            return map;
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Parses every file in the directory in parallel and reduces each log as soon as it is parsed, so only the
+     * reduced values of the directory are kept in memory.
+     *
+     * @return the reduced logs combined in directory listing order, or null if the directory has no files.
+     */
+    public <T> T reduceLogFiles(LogType logType, File directory, Function<Map<Me7LogFileContract.Header, List<Double>>, T> reducer, BinaryOperator<T> combiner, ProgressCallback callback) {
+        File[] files = listLogFiles(directory);
+
+        if (files.length == 0) {
+            return null;
+        }
+
+        int numFiles = files.length;
+        AtomicInteger count = new AtomicInteger();
+
+        return Arrays.stream(files).parallel().map(file -> {
+            T value = reducer.apply(new Me7LogParser().parseLogFile(logType, file));
+            callback.onProgress(count.getAndIncrement(), numFiles);
+            return value;
+        }).reduce(combiner).orElse(null);
+    }
+
+    /**
+     * @return the files of the directory, without its subdirectories. Empty if the directory can't be read.
+     */
+    public static File[] listLogFiles(File directory) {
+        File[] files = directory.listFiles(File::isFile);
+
+        return files != null ? files : new File[0];
+    }
+
+    /**
+     * Concatenates per file log maps into a single log map.
+     */
+    public static Map<Me7LogFileContract.Header, List<Double>> concat(LogType logType, List<Map<Me7LogFileContract.Header, List<Double>>> logs) {
+        Map<Me7LogFileContract.Header, List<Double>> map = generateMap(logType);
+
+        for (Map<Me7LogFileContract.Header, List<Double>> log : logs) {
+            for (Me7LogFileContract.Header header : map.keySet()) {
+                List<Double> values = log.get(header);
+                if (values != null) {
+                    map.get(header).addAll(values);
+                }
+            }
+        }
+
+        return map;
+    }
+
     @NonNull
     public Map<Me7LogFileContract.Header, List<Double>> parseLogFile(LogType logType, File file) {
         Map<Me7LogFileContract.Header, List<Double>> map = generateMap(logType);
@@ -68,8 +151,16 @@ public class Me7LogParser {
     }
 
     private void parse(File file, LogType logType, Map<Me7LogFileContract.Header, List<Double>> map) {
+        long start = PARSE.start();
+        LogParseEvent event = new LogParseEvent();
+        event.begin();
+
+        int rows = 0;
+        int rejectedRows = 0;
+
         resetIndices();
         try {
+            long headersStart = HEADERS.start();
             boolean headersFound = false;
             Reader in = new FileReader(file);
             Iterable<CSVRecord> records = CSVFormat.RFC4180.parse(in);
@@ -136,6 +227,8 @@ public class Me7LogParser {
                 }
             }
 
+            HEADERS.stop(headersStart);
+
             if (headersFound) {
                 for (CSVRecord record : records) {
                     try {
@@ -202,7 +295,10 @@ public class Me7LogParser {
                             map.get(Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER).add(barometricPressure);
                             map.get(Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER).add(absoluteBoostPressure);
                         }
+
+                        rows++;
                     } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                        rejectedRows++;
                         e.printStackTrace();
                     }
                 }
@@ -211,6 +307,20 @@ public class Me7LogParser {
             e.printStackTrace();
         }
 
+        PARSE.stop(start);
+        PARSED_BYTES.add(file.length());
+        PARSED_ROWS.add(rows);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.logType = logType.name();
+            event.file = file.getPath();
+            event.bytes = file.length();
+            event.rows = rows;
+            event.rejectedRows = rejectedRows;
+            event.commit();
+        }
+
         int size = -1;
         for (Me7LogFileContract.Header key : map.keySet()) {
             if (!key.equals(Me7LogFileContract.Header.START_TIME_HEADER) && size == -1) {
@@ -260,7 +370,7 @@ public class Me7LogParser {
         return false;
     }
 
-    private Map<Me7LogFileContract.Header, List<Double>> generateMap(LogType logType) {
+    private static Map<Me7LogFileContract.Header, List<Double>> generateMap(LogType logType) {
         Map<Me7LogFileContract.Header, List<Double>> map = new HashMap<>();
 
         map.put(Me7LogFileContract.Header.START_TIME_HEADER, new ArrayList<>());
@@ -8,9 +8,12 @@ import org.apache.commons.math3.util.Pair;
 import org.jdom2.*;
 import org.jdom2.input.SAXBuilder;
 import data.preferences.xdf.XdfFilePreferences;
+import domain.metrics.Metrics;
+import domain.metrics.Stage;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
@@ -39,9 +42,12 @@ public class XdfParser {
     private static final String XDF_COLUMN_COUNT_TAG = "mmedcolcount";
     private static final String XDF_EQUATION_TAG = "equation";
 
-    private static XdfParser instance;
+    private static final Stage PARSE = Metrics.getInstance().stage("xdf.parse");
 
-    private final List<TableDefinition> tableDefinitions = new ArrayList<>();
+    private static volatile XdfParser instance;
+
+    // Replaced rather than modified, so readers can iterate it on any thread without locking
+    private volatile List<TableDefinition> tableDefinitions = List.of();
 
     private final BehaviorSubject<List<TableDefinition>> behaviorSubject = BehaviorSubject.create();
 
@@ -85,12 +91,26 @@ public class XdfParser {
         behaviorSubject.subscribe(observer);
     }
 
+    /**
+     * @return an immutable snapshot of the table definitions.
+     */
     public List<TableDefinition> getTableDefinitions() {
         return tableDefinitions;
     }
 
     private void parse(InputStream inputStream) throws JDOMException, IOException {
-        tableDefinitions.clear();
+        this.tableDefinitions = parseTableDefinitions(inputStream);
+        behaviorSubject.onNext(this.tableDefinitions);
+    }
+
+    /**
+     * Parses the table definitions of an XDF without touching the state of the parser.
+     *
+     * @return the table definitions, sorted and immutable.
+     */
+    public static List<TableDefinition> parseTableDefinitions(InputStream inputStream) throws JDOMException, IOException {
+        long start = PARSE.start();
+        List<TableDefinition> tableDefinitions = new ArrayList<>();
 
         SAXBuilder saxBuilder = new SAXBuilder();
         Document document = saxBuilder.build(inputStream);
@@ -363,7 +383,8 @@ public class XdfParser {
         }
 
         tableDefinitions.sort(Comparator.comparing(TableDefinition::toString));
+        PARSE.stop(start);
 
-        behaviorSubject.onNext(tableDefinitions);
+        return Collections.unmodifiableList(tableDefinitions);
     }
 }
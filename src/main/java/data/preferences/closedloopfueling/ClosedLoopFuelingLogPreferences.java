@@ -1,5 +1,8 @@
 package data.preferences.closedloopfueling;
 
+import io.reactivex.Observer;
+import io.reactivex.subjects.PublishSubject;
+
 import javax.swing.filechooser.FileSystemView;
 import java.io.File;
 import java.util.prefs.Preferences;
@@ -13,6 +16,18 @@ public class ClosedLoopFuelingLogPreferences {
     private static final String LAST_USED_DIRECTORY_KEY = "closed_loop_last_used_directory_key";
 
     private static final Preferences prefs = Preferences.userNodeForPackage(ClosedLoopFuelingLogPreferences.class);
+    private static final PublishSubject<Boolean> filterSubject = PublishSubject.create();
+
+    /**
+     * Observes changes to the filter, so the loaded logs can be filtered again without reloading them.
+     */
+    public static void registerOnFilterChanged(Observer<Boolean> observer) {
+        filterSubject.subscribe(observer);
+    }
+
+    public static void notifyFilterChanged() {
+        filterSubject.onNext(true);
+    }
 
     public static double getMinThrottleAnglePreference() {
         return Double.parseDouble(prefs.get(MIN_THROTTLE_ANGLE_PREFERENCE, String.valueOf(0)));
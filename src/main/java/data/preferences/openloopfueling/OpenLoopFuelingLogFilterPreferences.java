@@ -1,5 +1,8 @@
 package data.preferences.openloopfueling;
 
+import io.reactivex.Observer;
+import io.reactivex.subjects.PublishSubject;
+
 import java.util.prefs.Preferences;
 
 public class OpenLoopFuelingLogFilterPreferences {
@@ -14,6 +17,18 @@ public class OpenLoopFuelingLogFilterPreferences {
     private static final String NUM_FUEL_INJECTORS = "num_fuel_injectors_open_loop_preference";
 
     private static final Preferences prefs = Preferences.userNodeForPackage(OpenLoopFuelingLogFilterPreferences.class);
+    private static final PublishSubject<Boolean> filterSubject = PublishSubject.create();
+
+    /**
+     * Observes changes to the filter, so the loaded logs can be filtered again without reloading them.
+     */
+    public static void registerOnFilterChanged(Observer<Boolean> observer) {
+        filterSubject.subscribe(observer);
+    }
+
+    public static void notifyFilterChanged() {
+        filterSubject.onNext(true);
+    }
 
     public static double getMinThrottleAnglePreference() {
         return Double.parseDouble(prefs.get(MIN_THROTTLE_ANGLE_PREFERENCE, String.valueOf(80)));
@@ -4,8 +4,11 @@ import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.subjects.PublishSubject;
 import domain.math.map.Map3d;
+import domain.math.map.MapHistory;
+import domain.metrics.BinWriteEvent;
 import data.parser.bin.BinParser;
 import data.parser.xdf.TableDefinition;
+import org.apache.commons.math3.util.Pair;
 
 import javax.script.*;
 import java.io.File;
@@ -13,26 +16,38 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class BinWriter {
     private static final int INVALID_ADDRESS = 0;
 
-    private static BinWriter instance;
-    private final ScriptEngine engine = new ScriptEngineManager().getEngineByName("JavaScript");
+    private static volatile BinWriter instance;
+    // The function is redefined per axis, so each thread writes with its own engine
+    private final ThreadLocal<ScriptEngine> engine = ThreadLocal.withInitial(() -> new ScriptEngineManager().getEngineByName("JavaScript"));
 
 
     private final PublishSubject<TableDefinition> publishSubject = PublishSubject.create();
 
+    // Revisions written to the bin per table, so a write can be rolled back
+    private final Map<TableDefinition, MapHistory> writeHistory = new HashMap<>();
+    // The tables in the order they were written, so the most recent write is undone first
+    private final Deque<TableDefinition> undoTables = new ArrayDeque<>();
+    private final Deque<TableDefinition> redoTables = new ArrayDeque<>();
+    private volatile File writeHistoryFile;
+
     private BinWriter() {
     }
 
     public static BinWriter getInstance() {
         if (instance == null) {
-            synchronized ((BinParser.class)) {
+            synchronized ((BinWriter.class)) {
                 if (instance == null) {
                     instance = new BinWriter();
                 }
@@ -46,8 +61,147 @@ public class BinWriter {
         publishSubject.subscribe(observer);
     }
 
+    /**
+     * @return the table that {@link #undo(File)} would restore, or null if there is nothing to undo.
+     */
+    public TableDefinition getUndoTable(@NonNull File file) {
+        synchronized (writeHistory) {
+            return file.equals(writeHistoryFile) ? undoTables.peek() : null;
+        }
+    }
+
+    /**
+     * @return the table that {@link #redo(File)} would restore, or null if there is nothing to redo.
+     */
+    public TableDefinition getRedoTable(@NonNull File file) {
+        synchronized (writeHistory) {
+            return file.equals(writeHistoryFile) ? redoTables.peek() : null;
+        }
+    }
+
+    /**
+     * Writes the previous revision of the most recently written table back to the bin.
+     *
+     * @return the restored table, or null if there is nothing to undo.
+     */
+    public TableDefinition undo(@NonNull File file) throws IOException {
+        TableDefinition tableDefinition;
+
+        synchronized (writeHistory) {
+            tableDefinition = getUndoTable(file);
+
+            if (tableDefinition == null) {
+                return null;
+            }
+
+            MapHistory history = writeHistory.get(tableDefinition);
+            if (!history.canUndo()) {
+                // The revision was dropped once the history reached its capacity
+                undoTables.clear();
+                return null;
+            }
+
+            try {
+                writeTable(file, tableDefinition, history.undo().toMap3d());
+            } catch (IOException e) {
+                history.redo();
+                throw e;
+            }
+
+            redoTables.push(undoTables.pop());
+        }
+
+        publishSubject.onNext(tableDefinition);
+        return tableDefinition;
+    }
+
+    public TableDefinition redo(@NonNull File file) throws IOException {
+        TableDefinition tableDefinition;
+
+        synchronized (writeHistory) {
+            tableDefinition = getRedoTable(file);
+
+            if (tableDefinition == null) {
+                return null;
+            }
+
+            MapHistory history = writeHistory.get(tableDefinition);
+            if (!history.canRedo()) {
+                // The revision was dropped once the history reached its capacity
+                redoTables.clear();
+                return null;
+            }
+
+            try {
+                writeTable(file, tableDefinition, history.redo().toMap3d());
+            } catch (IOException e) {
+                history.undo();
+                throw e;
+            }
+
+            undoTables.push(redoTables.pop());
+        }
+
+        publishSubject.onNext(tableDefinition);
+        return tableDefinition;
+    }
+
     public void write(@NonNull File file, @NonNull TableDefinition tableDefinition, @NonNull Map3d map) throws IOException {
-        RandomAccessFile raf = new RandomAccessFile(file, "rws");
+        synchronized (writeHistory) {
+            MapHistory history = getHistory(file, tableDefinition, map);
+
+            // Throws before the commit if the table couldn't be written, so only a write that reached the bin becomes a revision
+            writeTable(file, tableDefinition, map);
+
+            if (history.commit(map)) {
+                undoTables.push(tableDefinition);
+                redoTables.clear();
+            }
+        }
+
+        // Observers are notified outside of the lock, they may read the history back
+        publishSubject.onNext(tableDefinition);
+    }
+
+    private MapHistory getHistory(File file, TableDefinition tableDefinition, Map3d map) {
+        if (!file.equals(writeHistoryFile)) {
+            writeHistory.clear();
+            undoTables.clear();
+            redoTables.clear();
+            writeHistoryFile = file;
+        }
+
+        MapHistory history = writeHistory.get(tableDefinition);
+
+        if (history == null) {
+            // The first revision is whatever is currently in the bin
+            Map3d original = map;
+            for (Pair<TableDefinition, Map3d> pair : BinParser.getInstance().getMapList()) {
+                if (pair.getFirst().equals(tableDefinition)) {
+                    original = pair.getSecond();
+                    break;
+                }
+            }
+
+            history = new MapHistory(original);
+            writeHistory.put(tableDefinition, history);
+        }
+
+        return history;
+    }
+
+    /**
+     * Writes the table to the bin without recording it in the write history or notifying observers. Used by
+     * {@link #write}, {@link #undo} and {@link #redo} for the loaded bin, which keep the history themselves, and by
+     * batch jobs for bins that aren't loaded in the UI. Every axis is encoded before the bin is opened, so a value that
+     * can't be encoded leaves the bin untouched.
+     */
+    public void writeTable(@NonNull File file, @NonNull TableDefinition tableDefinition, @NonNull Map3d map) throws IOException {
+        BinWriteEvent event = new BinWriteEvent();
+        event.begin();
+        long cells = 0;
+
+        List<EncodedAxis> axes = new ArrayList<>();
 
         if (tableDefinition.getXAxis() != null && tableDefinition.getXAxis().getAddress() != INVALID_ADDRESS) {
             double[] xAxis = new double[Math.max(tableDefinition.getXAxis().getRowCount(), 1) * Math.max(tableDefinition.getXAxis().getIndexCount(), 1)];
@@ -55,7 +209,8 @@ public class BinWriter {
                 xAxis[i] = map.xAxis[i];
             }
 
-            write(raf, tableDefinition.getXAxis().getAddress(), tableDefinition.getXAxis().getSizeBits(), tableDefinition.getXAxis().getEquation(), xAxis);
+            axes.add(encode(tableDefinition.getXAxis().getAddress(), tableDefinition.getXAxis().getSizeBits(), tableDefinition.getXAxis().getEquation(), xAxis));
+            cells += xAxis.length;
         }
 
         if (tableDefinition.getYAxis() != null && tableDefinition.getYAxis().getAddress() != INVALID_ADDRESS) {
@@ -65,7 +220,8 @@ public class BinWriter {
                 yAxis[i] = map.yAxis[i];
             }
 
-            write(raf, tableDefinition.getYAxis().getAddress(), tableDefinition.getYAxis().getSizeBits(), tableDefinition.getYAxis().getEquation(), yAxis);
+            axes.add(encode(tableDefinition.getYAxis().getAddress(), tableDefinition.getYAxis().getSizeBits(), tableDefinition.getYAxis().getEquation(), yAxis));
+            cells += yAxis.length;
         }
 
         if (tableDefinition.getZAxis() != null && tableDefinition.getZAxis().getAddress() != INVALID_ADDRESS) {
@@ -78,39 +234,57 @@ public class BinWriter {
                 }
             }
 
-            write(raf, tableDefinition.getZAxis().getAddress(), tableDefinition.getZAxis().getSizeBits(), tableDefinition.getZAxis().getEquation(), zAxis);
+            axes.add(encode(tableDefinition.getZAxis().getAddress(), tableDefinition.getZAxis().getSizeBits(), tableDefinition.getZAxis().getEquation(), zAxis));
+            cells += zAxis.length;
         }
 
-        publishSubject.onNext(tableDefinition);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rws")) {
+            for (EncodedAxis axis : axes) {
+                raf.seek(axis.address());
+                raf.write(axis.bytes());
+            }
+        }
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = file.getPath();
+            event.table = tableDefinition.getTableName();
+            event.cells = cells;
+            event.commit();
+        }
     }
 
-    private void write(RandomAccessFile raf, int address, int size, String equation, double[] values) throws IOException {
+    private EncodedAxis encode(int address, int size, String equation, double[] values) throws IOException {
         try {
-            CompiledScript compiledScript = ((Compilable) engine)
+            CompiledScript compiledScript = ((Compilable) engine.get())
                     .compile("function func(X) { return " + BinWriter.inverse(equation) + "}");
             compiledScript.eval(compiledScript.getEngine()
                     .getBindings(ScriptContext.ENGINE_SCOPE));
 
             Invocable funcEngine = (Invocable) compiledScript.getEngine();
 
-            raf.seek(address);
-
             ByteBuffer bb = ByteBuffer.allocate(values.length * (size/8)).order(ByteOrder.LITTLE_ENDIAN);
             for (double value : values) {
+                if (!(funcEngine.invokeFunction("func", value) instanceof Number number)) {
+                    throw new IOException("Could not encode " + value + " with " + equation);
+                }
+
                 if (size == 8) {
-                    bb.put(((Number) funcEngine.invokeFunction("func", value)).byteValue());
+                    bb.put(number.byteValue());
                 } else if (size == 16) {
-                    bb.putShort(((Number) funcEngine.invokeFunction("func", value)).shortValue());
+                    bb.putShort(number.shortValue());
                 }
             }
 
-            raf.write(bb.array());
+            return new EncodedAxis(address, bb.array());
         } catch (ScriptException | NoSuchMethodException e) {
-            e.printStackTrace();
+            throw new IOException("Could not encode the values with " + equation, e);
         }
     }
 
+    private record EncodedAxis(int address, byte[] bytes) {
+    }
+
     private static String inverse(String equation) {
         List<String> operators = extractOperators(equation);
         List<Double> operands = extractOperands(equation);
@@ -0,0 +1,87 @@
+package domain.calibration;
+
+import domain.math.Inverse;
+import domain.math.RescaleAxis;
+import domain.math.map.Map3d;
+import domain.model.kfmiop.Kfmiop;
+import domain.model.kfmiop.KfmiopSweep;
+import domain.model.kfzw.Kfzw;
+
+/**
+ * The calibration tables that follow from KFMIOP. KFMIRL is the inverse of the input KFMIOP, while KFZWOP and KFZW
+ * are rescaled onto the load axis of the output KFMIOP. A new KFMIOP that doesn't change the output load axis only
+ * recalculates KFMIRL.
+ */
+public class Calibration {
+
+    private static volatile Calibration instance;
+
+    private final CalibrationGraph graph = new CalibrationGraph();
+
+    public final CalibrationGraph.Source<Map3d> baseKfmiop = graph.source("KFMIOP (Input)");
+    public final CalibrationGraph.Source<Double> maxMapSensorPressure = graph.source("Maximum MAP Sensor Pressure");
+    public final CalibrationGraph.Source<Double> maxBoostPressure = graph.source("Maximum Boost Pressure");
+    public final CalibrationGraph.Source<Map3d> baseKfmirl = graph.source("KFMIRL (Input)");
+    public final CalibrationGraph.Source<Map3d> baseKfzwop = graph.source("KFZWOP (Input)");
+    public final CalibrationGraph.Source<Map3d> baseKfzw = graph.source("KFZW (Input)");
+
+    public final CalibrationGraph.Node<Kfmiop> kfmiop = graph.node("KFMIOP",
+            inputs -> KfmiopSweep.calculate(inputs.get(0), inputs.<Double>get(1), inputs.<Double>get(2)),
+            baseKfmiop, maxMapSensorPressure, maxBoostPressure);
+
+    public final CalibrationGraph.Node<Map3d> outputKfmiop = graph.node("KFMIOP (Output)",
+            inputs -> inputs.<Kfmiop>get(0).getOutputKfmiop(),
+            kfmiop);
+
+    public final CalibrationGraph.Node<Double[]> kfmiopXAxis = graph.node("KFMIOP X-Axis (Output)",
+            inputs -> inputs.<Map3d>get(0).xAxis,
+            outputKfmiop);
+
+    public final CalibrationGraph.Node<Map3d> kfmirl = graph.node("KFMIRL",
+            inputs -> calculateKfmirl(inputs.get(0), inputs.get(1)),
+            baseKfmiop, baseKfmirl);
+
+    public final CalibrationGraph.Node<Map3d> kfzwop = graph.node("KFZWOP",
+            inputs -> calculateKfzwop(inputs.get(0), inputs.get(1)),
+            baseKfzwop, kfmiopXAxis);
+
+    public final CalibrationGraph.Node<Map3d> kfzw = graph.node("KFZW",
+            inputs -> calculateKfzw(inputs.get(0), inputs.get(1)),
+            baseKfzw, kfmiopXAxis);
+
+    private Calibration() {}
+
+    public static Calibration getInstance() {
+        if (instance == null) {
+            synchronized (Calibration.class) {
+                if (instance == null) {
+                    instance = new Calibration();
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    public static Map3d calculateKfmirl(Map3d kfmiop, Map3d kfmirl) {
+        Map3d inverse = Inverse.calculateInverse(kfmiop, kfmirl);
+
+        // Don't change the first column
+        for (int i = 0; i < inverse.zAxis.length; i++) {
+            inverse.zAxis[i][0] = kfmirl.zAxis[i][0];
+        }
+
+        return inverse;
+    }
+
+    public static Map3d calculateKfzwop(Map3d kfzwop, Double[] kfmiopXAxis) {
+        return new Map3d(kfmiopXAxis, kfzwop.yAxis, Kfzw.generateKfzw(kfzwop.xAxis, kfzwop.zAxis, kfmiopXAxis));
+    }
+
+    public static Map3d calculateKfzw(Map3d kfzw, Double[] kfmiopXAxis) {
+        // KFZW may have more load breakpoints than KFMIOP, so its own axis is rescaled to the new maximum load
+        Double[] xAxis = RescaleAxis.rescaleAxis(kfzw.xAxis, kfmiopXAxis[kfmiopXAxis.length - 1]);
+
+        return new Map3d(xAxis, kfzw.yAxis, Kfzw.generateKfzw(kfzw.xAxis, kfzw.zAxis, xAxis));
+    }
+}
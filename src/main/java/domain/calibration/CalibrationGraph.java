@@ -0,0 +1,233 @@
+package domain.calibration;
+
+import io.reactivex.Observer;
+import io.reactivex.subjects.BehaviorSubject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * A dependency graph of calibration calculations. Sources hold the tables and settings the calculations start from
+ * and nodes calculate a value from other sources and nodes. Setting a source only recalculates the nodes downstream
+ * of it, in topological order. Nodes at the same depth are independent of each other and are calculated in parallel.
+ *
+ * Values are compared by content, so a source set to an equal value, or a node that recalculates to an equal value,
+ * doesn't propagate any further. A node with a missing input has no value.
+ *
+ * Calculations run on a single thread owned by the graph, so observers are notified off the EDT.
+ */
+public class CalibrationGraph {
+
+    private final List<Vertex<?>> vertices = new ArrayList<>();
+    private final List<List<Node<?>>> levels = new ArrayList<>();
+
+    // Sources set since the last propagation, so setting several sources at once only propagates once
+    private final Map<Source<?>, Object> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "calibration");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public synchronized <T> Source<T> source(String name) {
+        Source<T> source = new Source<>(name);
+        vertices.add(source);
+
+        return source;
+    }
+
+    /**
+     * Adds a node calculated from inputs, which must already be in this graph.
+     */
+    public synchronized <T> Node<T> node(String name, Function<Inputs, T> calculation, Vertex<?>... inputs) {
+        int depth = 0;
+        for (Vertex<?> input : inputs) {
+            if (!vertices.contains(input)) {
+                throw new IllegalArgumentException(input.name + " is not in this graph!");
+            }
+
+            depth = Math.max(depth, input.depth + 1);
+        }
+
+        Node<T> node = new Node<>(name, depth, calculation, inputs);
+        vertices.add(node);
+
+        while (levels.size() <= depth) {
+            levels.add(new ArrayList<>());
+        }
+        levels.get(depth).add(node);
+
+        return node;
+    }
+
+    private <T> void set(Source<T> source, T value) {
+        synchronized (pending) {
+            pending.put(source, value);
+
+            if (!scheduled) {
+                scheduled = true;
+                executor.execute(this::update);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void update() {
+        Map<Source<?>, Object> values;
+        synchronized (pending) {
+            values = new LinkedHashMap<>(pending);
+            pending.clear();
+            scheduled = false;
+        }
+
+        boolean changed = false;
+        for (Map.Entry<Source<?>, Object> entry : values.entrySet()) {
+            changed |= ((Source<Object>) entry.getKey()).publish(entry.getValue());
+        }
+
+        if (changed) {
+            propagate();
+        }
+    }
+
+    private void propagate() {
+        List<List<Node<?>>> levels;
+        synchronized (this) {
+            levels = new ArrayList<>(this.levels);
+        }
+
+        for (List<Node<?>> level : levels) {
+            List<Node<?>> dirty = level.stream().filter(Node::isDirty).toList();
+
+            // The nodes of a level only depend on earlier levels
+            dirty.parallelStream().forEach(Node::calculate);
+        }
+    }
+
+    /**
+     * The inputs of a node, in the order they were given to {@link #node(String, Function, Vertex[])}.
+     */
+    public static class Inputs {
+        private final Object[] values;
+
+        private Inputs(Object[] values) {
+            this.values = values;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T get(int index) {
+            return (T) values[index];
+        }
+    }
+
+    public abstract class Vertex<T> {
+        private final String name;
+        private final int depth;
+        private final BehaviorSubject<Optional<T>> subject = BehaviorSubject.createDefault(Optional.empty());
+
+        private volatile T value;
+        private volatile Content content = Content.of(null);
+        // Incremented whenever the content changes
+        private volatile long version;
+
+        private Vertex(String name, int depth) {
+            this.name = name;
+            this.depth = depth;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Optional<T> get() {
+            return Optional.ofNullable(value);
+        }
+
+        public void register(Observer<Optional<T>> observer) {
+            subject.subscribe(observer);
+        }
+
+        // Keeps the current value if the new one has the same content
+        boolean publish(T value) {
+            Content content = Content.of(value);
+
+            if (content.equals(this.content)) {
+                return false;
+            }
+
+            this.value = value;
+            this.content = content;
+            this.version++;
+            subject.onNext(Optional.ofNullable(value));
+
+            return true;
+        }
+    }
+
+    public class Source<T> extends Vertex<T> {
+        private Source(String name) {
+            super(name, 0);
+        }
+
+        /**
+         * Sets the value and recalculates the nodes that depend on it.
+         */
+        public void set(T value) {
+            CalibrationGraph.this.set(this, value);
+        }
+    }
+
+    public class Node<T> extends Vertex<T> {
+        private final Function<Inputs, T> calculation;
+        private final Vertex<?>[] inputs;
+        // The versions of the inputs that the value was calculated from
+        private final long[] inputVersions;
+
+        private Node(String name, int depth, Function<Inputs, T> calculation, Vertex<?>[] inputs) {
+            super(name, depth);
+            this.calculation = calculation;
+            this.inputs = inputs;
+            this.inputVersions = new long[inputs.length];
+        }
+
+        private boolean isDirty() {
+            for (int i = 0; i < inputs.length; i++) {
+                if (inputs[i].version != inputVersions[i]) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private void calculate() {
+            Object[] values = new Object[inputs.length];
+            boolean complete = true;
+
+            for (int i = 0; i < inputs.length; i++) {
+                inputVersions[i] = inputs[i].version;
+                values[i] = inputs[i].value;
+                complete &= values[i] != null;
+            }
+
+            T value = null;
+            if (complete) {
+                try {
+                    value = calculation.apply(new Inputs(values));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+
+            publish(value);
+        }
+    }
+}
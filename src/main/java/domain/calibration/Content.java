@@ -0,0 +1,53 @@
+package domain.calibration;
+
+import domain.math.map.Map3d;
+
+import java.util.Arrays;
+
+/**
+ * A snapshot of the content of a value that can be compared with the content of another value. Maps and arrays are
+ * copied, so editing them in place afterwards is seen as a change. Other values are compared with equals().
+ */
+final class Content {
+
+    private final Object value;
+    private final int hash;
+
+    private Content(Object value) {
+        this.value = value;
+        this.hash = Arrays.deepHashCode(new Object[]{value});
+    }
+
+    static Content of(Object value) {
+        if (value instanceof Map3d map) {
+            return new Content(new Object[]{copy(map.xAxis), copy(map.yAxis), copy(map.zAxis)});
+        } else if (value instanceof Object[] array) {
+            return new Content(copy(array));
+        } else {
+            return new Content(value);
+        }
+    }
+
+    private static Object[] copy(Object[] array) {
+        Object[] copy = array.clone();
+        for (int i = 0; i < copy.length; i++) {
+            if (copy[i] instanceof Object[] nested) {
+                copy[i] = copy(nested);
+            }
+        }
+
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Content content)) return false;
+        return hash == content.hash && Arrays.deepEquals(new Object[]{value}, new Object[]{content.value});
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,179 @@
+package domain.math;
+
+import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.transform.DftNormalization;
+import org.apache.commons.math3.transform.FastFourierTransformer;
+import org.apache.commons.math3.transform.TransformType;
+
+/**
+ * FFT based cross correlation of uniformly sampled signals.
+ */
+public class CrossCorrelation {
+
+    private static final FastFourierTransformer TRANSFORMER = new FastFourierTransformer(DftNormalization.STANDARD);
+
+    public record Lag(double lag, double correlation) {}
+
+    /**
+     * Finds the lag (in samples, with sub-sample precision) at which b best matches a, i.e. a[t + lag] ~ b[t].
+     * The score of a lag is the Pearson correlation over the overlapping samples only, so a short signal can
+     * be located inside a long one regardless of the local level and amplitude. The correlations of all
+     * channels are averaged, so channels with different units can be combined. Channels that are flat over the
+     * overlap (a throttle held wide open) don't take part in the average at that lag. NaN samples are treated as 0.
+     *
+     * @param a          channels of the first signal, all the same length.
+     * @param b          channels of the second signal, all the same length.
+     * @param minOverlap the minimum number of overlapping samples for a lag to be considered.
+     * @return the lag and the mean Pearson correlation of the channels at that lag.
+     */
+    public static Lag findLag(double[][] a, double[][] b, int minOverlap) {
+        int na = a[0].length;
+        int nb = b[0].length;
+        int size = Integer.highestOneBit(Math.max(1, na + nb - 1));
+        if (size < na + nb - 1) {
+            size <<= 1;
+        }
+
+        // Index i holds lag i for i < na and lag i - size for the negative lags
+        double[] score = new double[size];
+        // Number of channels that contributed to the score of each lag
+        int[] channels = new int[size];
+
+        for (int channel = 0; channel < a.length; channel++) {
+            double[] x = normalize(a[channel], size);
+            double[] y = normalize(b[channel], size);
+            double[] correlation = correlate(x, y);
+
+            double[][] xSums = prefixSums(x, na);
+            double[][] ySums = prefixSums(y, nb);
+
+            for (int i = 0; i < size; i++) {
+                int lag = i < na ? i : i - size;
+                int n = overlap(lag, na, nb);
+
+                if (n == 0 || lag <= -nb) {
+                    continue;
+                }
+
+                // Overlapping ranges of both signals
+                int xStart = Math.max(0, lag);
+                int yStart = Math.max(0, -lag);
+
+                double sx = xSums[0][xStart + n] - xSums[0][xStart];
+                double sxx = xSums[1][xStart + n] - xSums[1][xStart];
+                double sy = ySums[0][yStart + n] - ySums[0][yStart];
+                double syy = ySums[1][yStart + n] - ySums[1][yStart];
+
+                double varianceX = sxx - sx * sx / n;
+                double varianceY = syy - sy * sy / n;
+
+                if (varianceX > 1e-9 && varianceY > 1e-9) {
+                    score[i] += (correlation[i] - sx * sy / n) / Math.sqrt(varianceX * varianceY);
+                    channels[i]++;
+                }
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (channels[i] > 0) {
+                score[i] /= channels[i];
+            }
+        }
+
+        int bestIndex = -1;
+        for (int i = 0; i < size; i++) {
+            int lag = i < na ? i : i - size;
+            if (lag <= -nb || overlap(lag, na, nb) < minOverlap) {
+                continue;
+            }
+
+            if (bestIndex == -1 || score[i] > score[bestIndex]) {
+                bestIndex = i;
+            }
+        }
+
+        if (bestIndex == -1) {
+            return new Lag(0, 0);
+        }
+
+        int lag = bestIndex < na ? bestIndex : bestIndex - size;
+        double correlation = score[bestIndex];
+
+        // Parabolic interpolation between the neighbouring lags
+        double y0 = score[(bestIndex - 1 + size) % size];
+        double y1 = score[bestIndex];
+        double y2 = score[(bestIndex + 1) % size];
+        double denominator = y0 - 2 * y1 + y2;
+        double offset = denominator < 0 ? 0.5 * (y0 - y2) / denominator : 0;
+
+        return new Lag(lag + Math.max(-0.5, Math.min(0.5, offset)), Math.max(-1, Math.min(1, correlation)));
+    }
+
+    // Prefix sums of the values and the squared values
+    private static double[][] prefixSums(double[] values, int length) {
+        double[][] sums = new double[2][length + 1];
+
+        for (int i = 0; i < length; i++) {
+            sums[0][i + 1] = sums[0][i] + values[i];
+            sums[1][i + 1] = sums[1][i] + values[i] * values[i];
+        }
+
+        return sums;
+    }
+
+    // c[k] = sum(a[t + k] * b[t])
+    private static double[] correlate(double[] a, double[] b) {
+        Complex[] fa = TRANSFORMER.transform(a, TransformType.FORWARD);
+        Complex[] fb = TRANSFORMER.transform(b, TransformType.FORWARD);
+
+        for (int i = 0; i < fa.length; i++) {
+            fa[i] = fa[i].multiply(fb[i].conjugate());
+        }
+
+        Complex[] inverse = TRANSFORMER.transform(fa, TransformType.INVERSE);
+
+        double[] result = new double[inverse.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = inverse[i].getReal();
+        }
+
+        return result;
+    }
+
+    private static int overlap(int lag, int na, int nb) {
+        return Math.max(0, Math.min(na - lag, nb) - Math.max(0, -lag));
+    }
+
+    // z-normalized and zero padded, missing samples contribute nothing
+    private static double[] normalize(double[] values, int size) {
+        double sum = 0;
+        int count = 0;
+
+        for (double value : values) {
+            if (!Double.isNaN(value)) {
+                sum += value;
+                count++;
+            }
+        }
+
+        double mean = count == 0 ? 0 : sum / count;
+        double variance = 0;
+
+        for (double value : values) {
+            if (!Double.isNaN(value)) {
+                variance += (value - mean) * (value - mean);
+            }
+        }
+
+        double std = count == 0 ? 0 : Math.sqrt(variance / count);
+
+        double[] result = new double[size];
+        for (int i = 0; i < values.length; i++) {
+            if (!Double.isNaN(values[i]) && std > 0) {
+                result[i] = (values[i] - mean) / std;
+            }
+        }
+
+        return result;
+    }
+}
@@ -1,10 +1,12 @@
 package domain.math;
 
 import domain.math.map.Map3d;
+import domain.metrics.CalculationEvent;
 
 public class Inverse {
 
     public static Map3d calculateInverse(Map3d input, Map3d output) {
+        CalculationEvent event = CalculationEvent.begin("Inverse");
 
         Map3d inverse = new Map3d(output);
 
@@ -18,6 +20,8 @@ public class Inverse {
             }
         }
 
+        event.commit(0, CalculationEvent.cells(inverse.zAxis));
+
         return inverse;
     }
 }
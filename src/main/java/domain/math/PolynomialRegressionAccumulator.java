@@ -0,0 +1,117 @@
+package domain.math;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.QRDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+
+/**
+ * Streaming least squares polynomial fit. Only the sums of powers of x (up to 2 * degree) and the
+ * sums of x^k * y are kept, so memory is bounded by the degree rather than the number of points.
+ * Accumulators built on separate threads can be combined with {@link #merge(PolynomialRegressionAccumulator)}.
+ */
+public class PolynomialRegressionAccumulator {
+
+    private final int degree;
+    // sum(w * x^k) for k in [0, 2 * degree]
+    private final double[] xPowerSums;
+    // sum(w * x^k * y) for k in [0, degree]
+    private final double[] xyPowerSums;
+    // number of points added, independent of their weights
+    private long count;
+
+    public PolynomialRegressionAccumulator(int degree) {
+        if (degree < 0) {
+            throw new IllegalArgumentException("degree must be >= 0!");
+        }
+
+        this.degree = degree;
+        this.xPowerSums = new double[2 * degree + 1];
+        this.xyPowerSums = new double[degree + 1];
+    }
+
+    public int getDegree() {
+        return degree;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void add(double x, double y) {
+        add(x, y, 1);
+    }
+
+    public void add(double x, double y, double weight) {
+        if (Double.isNaN(x) || Double.isNaN(y)) {
+            return;
+        }
+
+        double power = weight;
+        for (int k = 0; k < xPowerSums.length; k++) {
+            xPowerSums[k] += power;
+            if (k < xyPowerSums.length) {
+                xyPowerSums[k] += power * y;
+            }
+            power *= x;
+        }
+
+        count++;
+    }
+
+    public PolynomialRegressionAccumulator merge(PolynomialRegressionAccumulator other) {
+        if (other.degree != degree) {
+            throw new IllegalArgumentException("Cannot merge accumulators of different degree!");
+        }
+
+        for (int k = 0; k < xPowerSums.length; k++) {
+            xPowerSums[k] += other.xPowerSums[k];
+        }
+
+        for (int k = 0; k < xyPowerSums.length; k++) {
+            xyPowerSums[k] += other.xyPowerSums[k];
+        }
+
+        count += other.count;
+
+        return this;
+    }
+
+    /**
+     * @return the polynomial coefficients, lowest order first (same layout as PolynomialFunction).
+     */
+    public double[] solve() {
+        int n = degree + 1;
+
+        if (getCount() < n) {
+            throw new IllegalStateException("At least " + n + " points are required for a degree " + degree + " fit!");
+        }
+
+        // Equilibrate the normal matrix so the higher powers don't swamp the QR decomposition
+        double[] scale = new double[n];
+        for (int i = 0; i < n; i++) {
+            double diagonal = xPowerSums[2 * i];
+            scale[i] = diagonal > 0 ? 1 / Math.sqrt(diagonal) : 1;
+        }
+
+        RealMatrix normal = new Array2DRowRealMatrix(n, n);
+        RealVector rhs = new ArrayRealVector(n);
+
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                normal.setEntry(i, j, xPowerSums[i + j] * scale[i] * scale[j]);
+            }
+            rhs.setEntry(i, xyPowerSums[i] * scale[i]);
+        }
+
+        RealVector solution = new QRDecomposition(normal).getSolver().solve(rhs);
+
+        double[] coefficients = new double[n];
+        for (int i = 0; i < n; i++) {
+            coefficients[i] = solution.getEntry(i) * scale[i];
+        }
+
+        return coefficients;
+    }
+}
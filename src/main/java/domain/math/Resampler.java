@@ -0,0 +1,315 @@
+package domain.math;
+
+import domain.math.map.Map3d;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Resamples tables onto new axes. Rows are resampled along the x-axis and then columns along the y-axis, so linear
+ * interpolation is bilinear. The weights of every new breakpoint are computed once per pair of axes and shared by all
+ * rows (or columns), which are processed in parallel.
+ *
+ * Monotone cubic interpolation uses Fritsch-Carlson tangents, so it never overshoots the breakpoints. Outside of the
+ * old axis values are extrapolated linearly from the outermost segment or held constant. Results are clamped to
+ * [min, max].
+ */
+public class Resampler {
+
+    public enum Interpolation {
+        LINEAR,
+        MONOTONE_CUBIC
+    }
+
+    public enum Extrapolation {
+        LINEAR,
+        CONSTANT
+    }
+
+    private final Interpolation interpolation;
+    private final Extrapolation extrapolation;
+    private final double min;
+    private final double max;
+
+    public Resampler(Interpolation interpolation, Extrapolation extrapolation) {
+        this(interpolation, extrapolation, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    public Resampler(Interpolation interpolation, Extrapolation extrapolation, double min, double max) {
+        if (min > max) {
+            throw new IllegalArgumentException("min must not be greater than max! -> min: " + min + " max: " + max);
+        }
+
+        this.interpolation = interpolation;
+        this.extrapolation = extrapolation;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @return the map resampled onto xAxis and yAxis.
+     */
+    public Map3d resample(Map3d map, Double[] xAxis, Double[] yAxis) {
+        double[][] z = resample(toPrimitive(map.xAxis), toPrimitive(map.yAxis), toPrimitive(map.zAxis), toPrimitive(xAxis), toPrimitive(yAxis));
+
+        return new Map3d(xAxis, yAxis, toObject(z));
+    }
+
+    /**
+     * @return the rows of z, indexed by [y][x], resampled from xAxis onto newXAxis.
+     */
+    public Double[][] resampleRows(Double[] xAxis, Double[][] z, Double[] newXAxis) {
+        return toObject(resampleRows(toPrimitive(xAxis), toPrimitive(z), toPrimitive(newXAxis)));
+    }
+
+    /**
+     * @return z, indexed by [y][x], resampled from xAxis and yAxis onto newXAxis and newYAxis.
+     */
+    public double[][] resample(double[] xAxis, double[] yAxis, double[][] z, double[] newXAxis, double[] newYAxis) {
+        if (z.length != yAxis.length) {
+            throw new IllegalArgumentException("z must have one row per y-axis value!");
+        }
+
+        double[][] rows = resampleRows(xAxis, z, newXAxis);
+
+        if (Arrays.equals(yAxis, newYAxis)) {
+            return rows;
+        }
+
+        Weights weights = new Weights(yAxis, newYAxis);
+        double[][] result = new double[newYAxis.length][newXAxis.length];
+
+        IntStream.range(0, newXAxis.length).parallel().forEach(j -> {
+            double[] column = new double[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                column[i] = rows[i][j];
+            }
+
+            double[] tangents = getTangents(yAxis, column);
+
+            for (int i = 0; i < newYAxis.length; i++) {
+                result[i][j] = clamp(weights.evaluate(i, column, tangents));
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * @return the rows of z, indexed by [y][x], resampled from xAxis onto newXAxis.
+     */
+    public double[][] resampleRows(double[] xAxis, double[][] z, double[] newXAxis) {
+        Weights weights = new Weights(xAxis, newXAxis);
+        double[][] result = new double[z.length][];
+
+        IntStream.range(0, z.length).parallel().forEach(i -> {
+            if (z[i].length != xAxis.length) {
+                throw new IllegalArgumentException("Every row of z must have one value per x-axis value!");
+            }
+
+            double[] tangents = getTangents(xAxis, z[i]);
+            double[] row = new double[newXAxis.length];
+
+            for (int j = 0; j < row.length; j++) {
+                row[j] = clamp(weights.evaluate(j, z[i], tangents));
+            }
+
+            result[i] = row;
+        });
+
+        return result;
+    }
+
+    /**
+     * @return values resampled from axis onto newAxis.
+     */
+    public double[] resample(double[] axis, double[] values, double[] newAxis) {
+        return resampleRows(axis, new double[][]{values}, newAxis)[0];
+    }
+
+    private double[] getTangents(double[] axis, double[] values) {
+        if (interpolation != Interpolation.MONOTONE_CUBIC || axis.length < 3) {
+            return null;
+        }
+
+        int n = axis.length;
+        double[] secants = new double[n - 1];
+        for (int k = 0; k < n - 1; k++) {
+            double h = axis[k + 1] - axis[k];
+            secants[k] = h == 0 ? 0 : (values[k + 1] - values[k]) / h;
+        }
+
+        double[] tangents = new double[n];
+        tangents[0] = secants[0];
+        tangents[n - 1] = secants[n - 2];
+        for (int k = 1; k < n - 1; k++) {
+            tangents[k] = secants[k - 1] * secants[k] <= 0 ? 0 : (secants[k - 1] + secants[k]) / 2;
+        }
+
+        // Limit the tangents so each segment stays monotone
+        for (int k = 0; k < n - 1; k++) {
+            if (secants[k] == 0) {
+                tangents[k] = 0;
+                tangents[k + 1] = 0;
+            } else {
+                double a = tangents[k] / secants[k];
+                double b = tangents[k + 1] / secants[k];
+                double s = a * a + b * b;
+
+                if (s > 9) {
+                    double tau = 3 / Math.sqrt(s);
+                    tangents[k] = tau * a * secants[k];
+                    tangents[k + 1] = tau * b * secants[k];
+                }
+            }
+        }
+
+        return tangents;
+    }
+
+    private double clamp(double value) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    // The segment and Hermite weights of every new breakpoint
+    private final class Weights {
+        private final int[] lower;
+        private final int[] upper;
+        private final double[] lowerWeight;
+        private final double[] upperWeight;
+        private final double[] lowerTangentWeight;
+        private final double[] upperTangentWeight;
+
+        private Weights(double[] axis, double[] newAxis) {
+            if (axis.length == 0) {
+                throw new IllegalArgumentException("The axis must not be empty!");
+            }
+
+            for (int k = 0; k < axis.length - 1; k++) {
+                if (axis[k + 1] < axis[k]) {
+                    throw new IllegalArgumentException("The axis must be sorted " + axis[k + 1] + " " + axis[k]);
+                }
+            }
+
+            int n = newAxis.length;
+            lower = new int[n];
+            upper = new int[n];
+            lowerWeight = new double[n];
+            upperWeight = new double[n];
+            lowerTangentWeight = new double[n];
+            upperTangentWeight = new double[n];
+
+            int last = axis.length - 1;
+
+            for (int j = 0; j < n; j++) {
+                double x = newAxis[j];
+
+                if (last == 0) {
+                    lowerWeight[j] = 1;
+                    continue;
+                }
+
+                // The segment containing x, or the outermost segment
+                int k = upperBound(axis, x) - 1;
+                k = Math.max(0, Math.min(last - 1, k));
+
+                double h = axis[k + 1] - axis[k];
+                double t = h == 0 ? 0 : (x - axis[k]) / h;
+
+                lower[j] = k;
+                upper[j] = k + 1;
+
+                if (t < 0 || t > 1) {
+                    if (extrapolation == Extrapolation.CONSTANT) {
+                        t = t < 0 ? 0 : 1;
+                    }
+
+                    lowerWeight[j] = 1 - t;
+                    upperWeight[j] = t;
+                } else if (interpolation == Interpolation.MONOTONE_CUBIC && last > 1) {
+                    double t2 = t * t;
+                    double t3 = t2 * t;
+                    lowerWeight[j] = 2 * t3 - 3 * t2 + 1;
+                    upperWeight[j] = -2 * t3 + 3 * t2;
+                    lowerTangentWeight[j] = (t3 - 2 * t2 + t) * h;
+                    upperTangentWeight[j] = (t3 - t2) * h;
+                } else {
+                    lowerWeight[j] = 1 - t;
+                    upperWeight[j] = t;
+                }
+            }
+        }
+
+        private double evaluate(int j, double[] values, double[] tangents) {
+            // Terms with no weight are skipped so a NaN neighbour doesn't leak into a breakpoint
+            double value = 0;
+
+            if (lowerWeight[j] != 0) {
+                value += lowerWeight[j] * values[lower[j]];
+            }
+
+            if (upperWeight[j] != 0) {
+                value += upperWeight[j] * values[upper[j]];
+            }
+
+            if (tangents != null) {
+                if (lowerTangentWeight[j] != 0) {
+                    value += lowerTangentWeight[j] * tangents[lower[j]];
+                }
+
+                if (upperTangentWeight[j] != 0) {
+                    value += upperTangentWeight[j] * tangents[upper[j]];
+                }
+            }
+
+            return value;
+        }
+    }
+
+    // Index of the first value > key
+    private static int upperBound(double[] sorted, double key) {
+        int low = 0;
+        int high = sorted.length;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    private static double[] toPrimitive(Double[] values) {
+        double[] result = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i] == null ? Double.NaN : values[i];
+        }
+
+        return result;
+    }
+
+    private static double[][] toPrimitive(Double[][] values) {
+        double[][] result = new double[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = toPrimitive(values[i]);
+        }
+
+        return result;
+    }
+
+    private static Double[][] toObject(double[][] values) {
+        Double[][] result = new Double[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = new Double[values[i].length];
+            for (int j = 0; j < values[i].length; j++) {
+                result[i][j] = values[i][j];
+            }
+        }
+
+        return result;
+    }
+}
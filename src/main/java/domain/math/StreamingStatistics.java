@@ -0,0 +1,183 @@
+package domain.math;
+
+import java.util.Arrays;
+
+/**
+ * Constant memory running statistics. The mean and variance are tracked with Welford's algorithm and the
+ * mode is estimated from a histogram with a fixed resolution over [min, max]. Samples outside of the
+ * histogram range still count towards the mean and variance but are left out of the histogram, so a few
+ * outliers can't produce a mode at the edge of the range that no sample had.
+ * Instances can be merged, so partial statistics can be computed independently and combined.
+ */
+public class StreamingStatistics {
+
+    private final double min;
+    private final double max;
+    private final double resolution;
+
+    private long count;
+    private double mean;
+    private double m2;
+
+    // Allocated with the first sample, most bins of a sparse table never see one
+    private int[] histogram;
+
+    public StreamingStatistics(double min, double max, double resolution) {
+        if (max <= min || resolution <= 0) {
+            throw new IllegalArgumentException("Invalid histogram range!");
+        }
+
+        this.min = min;
+        this.max = max;
+        this.resolution = resolution;
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+
+        if (histogram == null) {
+            histogram = new int[getBinCount()];
+        }
+
+        int bin = getBin(value);
+        if (bin >= 0) {
+            histogram[bin]++;
+        }
+    }
+
+    /**
+     * Removes a sample that was previously added, so a sliding selection of samples can be tracked without
+     * starting over.
+     */
+    public void remove(double value) {
+        if (Double.isNaN(value) || count == 0) {
+            return;
+        }
+
+        if (count == 1) {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+        } else {
+            double previousMean = (count * mean - value) / (count - 1);
+            m2 = Math.max(0, m2 - (value - previousMean) * (value - mean));
+            mean = previousMean;
+            count--;
+        }
+
+        int bin = getBin(value);
+        if (bin >= 0) {
+            histogram[bin]--;
+        }
+    }
+
+    public StreamingStatistics merge(StreamingStatistics other) {
+        if (other.min != min || other.max != max || other.resolution != resolution) {
+            throw new IllegalArgumentException("Cannot merge statistics with different histograms!");
+        }
+
+        if (other.count == 0) {
+            return this;
+        }
+
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            histogram = Arrays.copyOf(other.histogram, other.histogram.length);
+            return this;
+        }
+
+        // Chan et al. parallel combination of the running moments
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] += other.histogram[i];
+        }
+
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return the sample variance (bias corrected).
+     */
+    public double getVariance() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        return count == 1 ? 0 : m2 / (count - 1);
+    }
+
+    /**
+     * @return the centers of every histogram bin with the highest frequency in ascending order, similar to
+     * StatUtils.mode() at the resolution of the histogram.
+     */
+    public double[] getMode() {
+        if (count == 0) {
+            return new double[0];
+        }
+
+        int maxFrequency = 0;
+        int modeCount = 0;
+
+        for (int frequency : histogram) {
+            if (frequency == 0) {
+                continue;
+            }
+
+            if (frequency > maxFrequency) {
+                maxFrequency = frequency;
+                modeCount = 1;
+            } else if (frequency == maxFrequency) {
+                modeCount++;
+            }
+        }
+
+        if (maxFrequency == 0) {
+            // Every sample was outside of the histogram range
+            return new double[0];
+        }
+
+        double[] mode = new double[modeCount];
+        int index = 0;
+
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] == maxFrequency) {
+                mode[index++] = min + i * resolution;
+            }
+        }
+
+        return mode;
+    }
+
+    private int getBinCount() {
+        return (int) Math.round((max - min) / resolution) + 1;
+    }
+
+    // -1 for values outside of the histogram range
+    private int getBin(double value) {
+        int bin = (int) Math.round((value - min) / resolution);
+
+        return bin >= 0 && bin < histogram.length ? bin : -1;
+    }
+}
@@ -0,0 +1,86 @@
+package domain.math;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aligns a secondary time series onto the time base of a primary time series with a linear merge join.
+ * Both time series are expected to be in ascending order.
+ */
+public class TimeSeriesJoin {
+
+    /**
+     * Linearly interpolates the secondary values at every primary timestamp.
+     *
+     * @param maxGap the largest gap (in seconds) between two secondary samples that will be interpolated across.
+     * @return one value per primary timestamp, NaN where the secondary series has no coverage.
+     */
+    public static List<Double> interpolate(List<Double> primaryTimes, List<Double> secondaryTimes, List<Double> secondaryValues, double maxGap) {
+        if (secondaryTimes.size() != secondaryValues.size()) {
+            throw new IllegalStateException("Secondary times and values must have equal length!");
+        }
+
+        List<Double> result = new ArrayList<>(primaryTimes.size());
+
+        int size = secondaryTimes.size();
+        if (size == 0) {
+            for (int i = 0; i < primaryTimes.size(); i++) {
+                result.add(Double.NaN);
+            }
+
+            return result;
+        }
+
+        // Start the merge at the first primary timestamp rather than the start of the secondary series
+        int j = primaryTimes.isEmpty() ? 0 : lowerIndex(secondaryTimes, primaryTimes.get(0));
+        double lastTime = Double.NEGATIVE_INFINITY;
+
+        for (Double time : primaryTimes) {
+            if (time < lastTime) {
+                j = lowerIndex(secondaryTimes, time);
+            }
+            lastTime = time;
+
+            while (j < size - 1 && secondaryTimes.get(j + 1) <= time) {
+                j++;
+            }
+
+            double t0 = secondaryTimes.get(j);
+
+            if (time == t0) {
+                result.add(secondaryValues.get(j));
+            } else if (time < t0 || j == size - 1) {
+                result.add(Double.NaN);
+            } else {
+                double t1 = secondaryTimes.get(j + 1);
+
+                if (t1 - t0 > maxGap) {
+                    result.add(Double.NaN);
+                } else {
+                    double v0 = secondaryValues.get(j);
+                    double v1 = secondaryValues.get(j + 1);
+                    result.add(v0 + (v1 - v0) * ((time - t0) / (t1 - t0)));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    // Index of the last secondary timestamp <= time, or 0
+    private static int lowerIndex(List<Double> times, double time) {
+        int low = 0;
+        int high = times.size() - 1;
+
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (times.get(mid) <= time) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return low;
+    }
+}
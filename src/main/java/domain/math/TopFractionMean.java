@@ -0,0 +1,123 @@
+package domain.math;
+
+/**
+ * Constant memory estimate of the mean of the largest samples, e.g. the top 5%. Each histogram bin keeps the count
+ * and the sum of its samples over [min, max]. The result is exact except for the lowest bin that is only partly in
+ * the top fraction, which contributes its own mean, so the error is below the resolution. Samples outside of the
+ * range are clamped into the outermost bins, but their values still count at full precision. Instances can be merged,
+ * so sketches built from separate logs can be combined.
+ */
+public class TopFractionMean {
+
+    private final double min;
+    private final double max;
+    private final double resolution;
+    private final double fraction;
+
+    private long count;
+
+    // Allocated with the first sample
+    private long[] counts;
+    private double[] sums;
+
+    public TopFractionMean(double min, double max, double resolution, double fraction) {
+        if (max <= min || resolution <= 0) {
+            throw new IllegalArgumentException("Invalid histogram range!");
+        }
+
+        if (fraction <= 0 || fraction > 1) {
+            throw new IllegalArgumentException("fraction must be in (0, 1]!");
+        }
+
+        this.min = min;
+        this.max = max;
+        this.resolution = resolution;
+        this.fraction = fraction;
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+
+        if (counts == null) {
+            int bins = (int) Math.round((max - min) / resolution) + 1;
+            counts = new long[bins];
+            sums = new double[bins];
+        }
+
+        int bin = Math.max(0, Math.min(counts.length - 1, (int) Math.round((value - min) / resolution)));
+        counts[bin]++;
+        sums[bin] += value;
+        count++;
+    }
+
+    public TopFractionMean merge(TopFractionMean other) {
+        if (other.min != min || other.max != max || other.resolution != resolution || other.fraction != fraction) {
+            throw new IllegalArgumentException("Cannot merge sketches with different histograms!");
+        }
+
+        if (other.count == 0) {
+            return this;
+        }
+
+        if (counts == null) {
+            counts = other.counts.clone();
+            sums = other.sums.clone();
+        } else {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+                sums[i] += other.sums[i];
+            }
+        }
+
+        count += other.count;
+
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the mean of the largest max(1, (int) (count * fraction)) samples, NaN if there are none.
+     */
+    public double getMean() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        long remaining = (long) Math.max(1, count * fraction);
+        long taken = remaining;
+        double sum = 0;
+
+        for (int i = counts.length - 1; i >= 0 && remaining > 0; i--) {
+            if (counts[i] == 0) {
+                continue;
+            }
+
+            if (counts[i] <= remaining) {
+                sum += sums[i];
+                remaining -= counts[i];
+            } else {
+                sum += sums[i] / counts[i] * remaining;
+                remaining = 0;
+            }
+        }
+
+        return sum / taken;
+    }
+
+    public static TopFractionMean[] merge(TopFractionMean[] a, TopFractionMean[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("Cannot merge sketch arrays of different length!");
+        }
+
+        for (int i = 0; i < a.length; i++) {
+            a[i].merge(b[i]);
+        }
+
+        return a;
+    }
+}
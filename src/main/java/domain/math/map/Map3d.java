@@ -64,14 +64,14 @@ public class Map3d {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Map3d map3d = (Map3d) o;
-        return Arrays.equals(xAxis, map3d.xAxis) && Arrays.equals(yAxis, map3d.yAxis) && Arrays.equals(zAxis, map3d.zAxis);
+        return Arrays.equals(xAxis, map3d.xAxis) && Arrays.equals(yAxis, map3d.yAxis) && Arrays.deepEquals(zAxis, map3d.zAxis);
     }
 
     @Override
     public int hashCode() {
         int result = Arrays.hashCode(xAxis);
         result = 31 * result + Arrays.hashCode(yAxis);
-        result = 31 * result + Arrays.hashCode(zAxis);
+        result = 31 * result + Arrays.deepHashCode(zAxis);
         return result;
     }
 
@@ -0,0 +1,92 @@
+package domain.math.map;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Undo/redo stack of {@link MapVersion} revisions for a single table.
+ */
+public class MapHistory {
+    private static final int DEFAULT_CAPACITY = 500;
+
+    private final int capacity;
+    private final Deque<MapVersion> undoStack = new ArrayDeque<>();
+    private final Deque<MapVersion> redoStack = new ArrayDeque<>();
+
+    private MapVersion current;
+
+    public MapHistory(Map3d initial) {
+        this(initial, DEFAULT_CAPACITY);
+    }
+
+    public MapHistory(Map3d initial, int capacity) {
+        this.capacity = capacity;
+        this.current = MapVersion.of(initial);
+    }
+
+    public synchronized MapVersion getCurrent() {
+        return current;
+    }
+
+    /**
+     * Records map3d as the newest revision. Nothing is recorded if the contents did not change.
+     *
+     * @return true if a new revision was recorded.
+     */
+    public synchronized boolean commit(Map3d map3d) {
+        MapVersion next = current.with(map3d);
+
+        if (next == current) {
+            return false;
+        }
+
+        undoStack.push(current);
+        if (undoStack.size() > capacity) {
+            undoStack.removeLast();
+        }
+
+        redoStack.clear();
+        current = next;
+
+        return true;
+    }
+
+    /**
+     * Drops the history and starts over from map3d.
+     */
+    public synchronized void reset(Map3d map3d) {
+        undoStack.clear();
+        redoStack.clear();
+        current = MapVersion.of(map3d);
+    }
+
+    public synchronized boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    public synchronized boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    public synchronized MapVersion undo() {
+        if (!undoStack.isEmpty()) {
+            redoStack.push(current);
+            current = undoStack.pop();
+        }
+
+        return current;
+    }
+
+    public synchronized MapVersion redo() {
+        if (!redoStack.isEmpty()) {
+            undoStack.push(current);
+            current = redoStack.pop();
+        }
+
+        return current;
+    }
+
+    public synchronized int size() {
+        return undoStack.size() + redoStack.size() + 1;
+    }
+}
@@ -0,0 +1,122 @@
+package domain.math.map;
+
+import java.util.Arrays;
+
+/**
+ * An immutable revision of a {@link Map3d}. Revisions derived from one another share every row that
+ * was not touched, so keeping a long history of a large table only costs the edited rows plus one
+ * array of row references per revision.
+ */
+public final class MapVersion {
+    private final Double[] xAxis;
+    private final Double[] yAxis;
+    private final Double[][] rows;
+
+    private MapVersion(Double[] xAxis, Double[] yAxis, Double[][] rows) {
+        this.xAxis = xAxis;
+        this.yAxis = yAxis;
+        this.rows = rows;
+    }
+
+    public static MapVersion of(Map3d map3d) {
+        Double[][] rows = new Double[map3d.zAxis.length][];
+
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = Arrays.copyOf(map3d.zAxis[i], map3d.zAxis[i].length);
+        }
+
+        return new MapVersion(copy(map3d.xAxis), copy(map3d.yAxis), rows);
+    }
+
+    /**
+     * @return a revision holding the contents of map3d that reuses every axis and row which is unchanged
+     * from this revision, or this revision itself if nothing changed.
+     */
+    public MapVersion with(Map3d map3d) {
+        Double[] xAxis = Arrays.equals(this.xAxis, map3d.xAxis) ? this.xAxis : copy(map3d.xAxis);
+        Double[] yAxis = Arrays.equals(this.yAxis, map3d.yAxis) ? this.yAxis : copy(map3d.yAxis);
+
+        Double[][] rows = new Double[map3d.zAxis.length][];
+        boolean changed = xAxis != this.xAxis || yAxis != this.yAxis || rows.length != this.rows.length;
+
+        for (int i = 0; i < rows.length; i++) {
+            if (i < this.rows.length && Arrays.equals(this.rows[i], map3d.zAxis[i])) {
+                rows[i] = this.rows[i];
+            } else {
+                rows[i] = copy(map3d.zAxis[i]);
+                changed = true;
+            }
+        }
+
+        return changed ? new MapVersion(xAxis, yAxis, rows) : this;
+    }
+
+    public MapVersion withValue(int row, int column, Double value) {
+        if (value == null ? rows[row][column] == null : value.equals(rows[row][column])) {
+            return this;
+        }
+
+        Double[][] rows = Arrays.copyOf(this.rows, this.rows.length);
+        rows[row] = Arrays.copyOf(this.rows[row], this.rows[row].length);
+        rows[row][column] = value;
+
+        return new MapVersion(xAxis, yAxis, rows);
+    }
+
+    public MapVersion withRow(int row, Double[] values) {
+        if (Arrays.equals(rows[row], values)) {
+            return this;
+        }
+
+        Double[][] rows = Arrays.copyOf(this.rows, this.rows.length);
+        rows[row] = copy(values);
+
+        return new MapVersion(xAxis, yAxis, rows);
+    }
+
+    public Double get(int row, int column) {
+        return rows[row][column];
+    }
+
+    public int getRowCount() {
+        return rows.length;
+    }
+
+    public int getColumnCount() {
+        return rows.length == 0 ? 0 : rows[0].length;
+    }
+
+    /**
+     * @return true if the row is physically shared with the same row of the other revision.
+     */
+    public boolean sharesRow(MapVersion other, int row) {
+        return row < rows.length && row < other.rows.length && rows[row] == other.rows[row];
+    }
+
+    /**
+     * @return a mutable deep copy for code that works with {@link Map3d}.
+     */
+    public Map3d toMap3d() {
+        return new Map3d(xAxis, yAxis, rows);
+    }
+
+    private static Double[] copy(Double[] values) {
+        return values == null ? new Double[0] : Arrays.copyOf(values, values.length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MapVersion that = (MapVersion) o;
+        return Arrays.equals(xAxis, that.xAxis) && Arrays.equals(yAxis, that.yAxis) && Arrays.deepEquals(rows, that.rows);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(xAxis);
+        result = 31 * result + Arrays.hashCode(yAxis);
+        result = 31 * result + Arrays.deepHashCode(rows);
+        return result;
+    }
+}
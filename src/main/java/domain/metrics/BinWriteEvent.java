@@ -0,0 +1,22 @@
+package domain.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * A JFR event for writing a table to the bin.
+ */
+@Name("me7tuner.BinWrite")
+@Label("Bin Write")
+@Category({"ME7Tuner", "Bin"})
+@Description("Writing of a table to the bin")
+public class BinWriteEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Table")
+    public String table;
+
+    @Label("Cells")
+    public long cells;
+}
@@ -0,0 +1,51 @@
+package domain.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * A JFR event for a calibration calculation like KFMIOP, an inverse, LDRPID or an MLHFM correction.
+ *
+ * <pre>
+ * CalculationEvent event = CalculationEvent.begin("Kfmiop");
+ * ...
+ * event.commit(samples, cells);
+ * </pre>
+ */
+@Name("me7tuner.Calculation")
+@Label("Calculation")
+@Category({"ME7Tuner", "Calculation"})
+@Description("A calibration calculation")
+public class CalculationEvent extends Event {
+
+    @Label("Calculation")
+    public String calculation;
+
+    @Label("Samples")
+    @Description("Logged samples the calculation was given, 0 for table only calculations")
+    public long samples;
+
+    @Label("Cells")
+    @Description("Cells of the calculated table")
+    public long cells;
+
+    public static CalculationEvent begin(String calculation) {
+        CalculationEvent event = new CalculationEvent();
+        event.calculation = calculation;
+        event.begin();
+        return event;
+    }
+
+    public void commit(long samples, long cells) {
+        end();
+
+        if (shouldCommit()) {
+            this.samples = samples;
+            this.cells = cells;
+            commit();
+        }
+    }
+
+    public static long cells(Double[][] table) {
+        return table.length == 0 ? 0 : (long) table.length * table[0].length;
+    }
+}
@@ -0,0 +1,52 @@
+package domain.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the amount of work done, like bytes or rows. A counter tied to a stage reports its rate over the time
+ * spent in the stage.
+ */
+public class Counter {
+
+    private final Metrics metrics;
+    private final String name;
+    private final Stage stage;
+
+    private final LongAdder count = new LongAdder();
+
+    Counter(Metrics metrics, String name, Stage stage) {
+        this.metrics = metrics;
+        this.name = name;
+        this.stage = stage;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public void add(long amount) {
+        if (metrics.isEnabled()) {
+            count.add(amount);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the count per second spent in the stage, or 0 without a stage.
+     */
+    public double getRatePerSecond() {
+        long nanos = stage == null ? 0 : stage.getTotalNanos();
+        return nanos == 0 ? 0 : getCount() / (nanos / 1e9);
+    }
+
+    void reset() {
+        count.reset();
+    }
+}
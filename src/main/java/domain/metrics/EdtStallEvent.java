@@ -0,0 +1,15 @@
+package domain.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * A JFR event for a stall of the Swing event dispatch thread. The event spans the time a posted task waited for the
+ * EDT, so it lines up with the parse, decode and calculation events that were running at the time.
+ */
+@Name("me7tuner.EdtStall")
+@Label("EDT Stall")
+@Category({"ME7Tuner", "Swing"})
+@Description("The event dispatch thread did not run a posted task in time")
+@Threshold("100 ms")
+public class EdtStallEvent extends Event {
+}
@@ -0,0 +1,30 @@
+package domain.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * A JFR event for parsing an ME7Logger or Zeitronix log file.
+ */
+@Name("me7tuner.LogParse")
+@Label("Log Parse")
+@Category({"ME7Tuner", "Parsing"})
+@Description("Parsing of a log file")
+public class LogParseEvent extends Event {
+
+    @Label("Log Type")
+    public String logType;
+
+    @Label("File")
+    public String file;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Rejected Rows")
+    @Description("Rows that could not be parsed")
+    public long rejectedRows;
+}
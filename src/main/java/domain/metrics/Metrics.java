@@ -0,0 +1,124 @@
+package domain.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Registry of the pipeline stage timings and counters. Metrics are disabled by default and can be enabled from the
+ * diagnostics tab or with -Dme7tuner.metrics=true. While disabled, starting or stopping a stage and adding to a
+ * counter only read a volatile flag.
+ *
+ * Stages and counters are created once and held in static fields by the code they measure.
+ */
+public class Metrics {
+
+    private static volatile Metrics instance;
+
+    private final ConcurrentSkipListMap<String, Stage> stages = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Counter> counters = new ConcurrentSkipListMap<>();
+
+    private volatile boolean enabled = Boolean.getBoolean("me7tuner.metrics");
+
+    private Metrics() {}
+
+    public static Metrics getInstance() {
+        if (instance == null) {
+            synchronized (Metrics.class) {
+                if (instance == null) {
+                    instance = new Metrics();
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Stage stage(String name) {
+        return stages.computeIfAbsent(name, key -> new Stage(this, key));
+    }
+
+    /**
+     * @param stage the stage the rate of the counter is calculated against, or null.
+     */
+    public Counter counter(String name, Stage stage) {
+        return counters.computeIfAbsent(name, key -> new Counter(this, key, stage));
+    }
+
+    /**
+     * @return the stages sorted by name.
+     */
+    public List<Stage> getStages() {
+        return new ArrayList<>(stages.values());
+    }
+
+    /**
+     * @return the counters sorted by name.
+     */
+    public List<Counter> getCounters() {
+        return new ArrayList<>(counters.values());
+    }
+
+    public void reset() {
+        stages.values().forEach(Stage::reset);
+        counters.values().forEach(Counter::reset);
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"enabled\": ").append(enabled).append(",\n  \"stages\": [");
+
+        String separator = "\n";
+        for (Stage stage : stages.values()) {
+            json.append(separator).append("    {")
+                    .append("\"name\": \"").append(escape(stage.getName())).append("\", ")
+                    .append("\"count\": ").append(stage.getCount()).append(", ")
+                    .append("\"totalMillis\": ").append(millis(stage.getTotalNanos())).append(", ")
+                    .append("\"meanMillis\": ").append(millis(stage.getMeanNanos())).append(", ")
+                    .append("\"p50Millis\": ").append(millis(stage.getPercentileNanos(0.5))).append(", ")
+                    .append("\"p95Millis\": ").append(millis(stage.getPercentileNanos(0.95))).append(", ")
+                    .append("\"p99Millis\": ").append(millis(stage.getPercentileNanos(0.99))).append(", ")
+                    .append("\"maxMillis\": ").append(millis(stage.getMaxNanos()))
+                    .append("}");
+            separator = ",\n";
+        }
+
+        json.append("\n  ],\n  \"counters\": [");
+
+        separator = "\n";
+        for (Counter counter : counters.values()) {
+            json.append(separator).append("    {")
+                    .append("\"name\": \"").append(escape(counter.getName())).append("\", ")
+                    .append("\"count\": ").append(counter.getCount());
+
+            if (counter.getStage() != null) {
+                json.append(", \"stage\": \"").append(escape(counter.getStage().getName())).append("\", ")
+                        .append("\"perSecond\": ").append(String.format(Locale.ENGLISH, "%.1f", counter.getRatePerSecond()));
+            }
+
+            json.append("}");
+            separator = ",\n";
+        }
+
+        json.append("\n  ]\n}\n");
+
+        return json.toString();
+    }
+
+    private static String millis(double nanos) {
+        return String.format(Locale.ENGLISH, "%.3f", nanos / 1e6);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,115 @@
+package domain.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings of a pipeline stage. Durations are kept in a histogram of power of two buckets, so percentiles are exact
+ * to within a factor of two and recording never allocates.
+ *
+ * <pre>
+ * long start = STAGE.start();
+ * ...
+ * STAGE.stop(start);
+ * </pre>
+ */
+public class Stage {
+
+    private static final long DISABLED = Long.MIN_VALUE;
+    private static final int BUCKETS = 64;
+
+    private final Metrics metrics;
+    private final String name;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+    // Bucket i counts the durations of i significant bits, [2^(i-1), 2^i) nanoseconds
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    Stage(Metrics metrics, String name) {
+        this.metrics = metrics;
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the start of the stage to pass to {@link #stop(long)}.
+     */
+    public long start() {
+        return metrics.isEnabled() ? System.nanoTime() : DISABLED;
+    }
+
+    public void stop(long start) {
+        if (start != DISABLED) {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    public void record(long nanos) {
+        nanos = Math.max(0, nanos);
+
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos)));
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public double getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getTotalNanos() / count;
+    }
+
+    /**
+     * @param percentile between 0 and 1.
+     * @return the upper bound of the bucket holding the percentile, at most the longest duration.
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(getMaxNanos(), i == 0 ? 0 : (1L << i) - 1);
+            }
+        }
+
+        return getMaxNanos();
+    }
+
+    void reset() {
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package domain.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * A JFR event for decoding a table of the bin with its XDF definition.
+ */
+@Name("me7tuner.TableDecode")
+@Label("Table Decode")
+@Category({"ME7Tuner", "Bin"})
+@Description("Decoding of a table from the bin")
+public class TableDecodeEvent extends Event {
+
+    @Label("Table")
+    public String table;
+
+    @Label("Cells")
+    public long cells;
+
+    @Label("Equation")
+    public String equation;
+}
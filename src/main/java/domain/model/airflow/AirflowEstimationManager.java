@@ -1,10 +1,10 @@
 package domain.model.airflow;
 
-import data.contract.AfrLogFileContract;
 import data.contract.Me7LogFileContract;
 import domain.model.openloopfueling.util.AfrLogUtil;
+import domain.model.openloopfueling.util.LogAlignment;
 import domain.model.openloopfueling.util.Me7LogUtil;
-import domain.math.Index;
+import domain.util.Cancellation;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -47,8 +47,19 @@ public class AirflowEstimationManager {
     }
 
     public void estimate(Map<Me7LogFileContract.Header, List<Double>> me7LogMap, Map<String, List<Double>> afrLogMap) {
+        estimate(me7LogMap, afrLogMap, LogAlignment.estimate(me7LogMap, afrLogMap, minThrottleAngle, minRpm, minPointsMe7));
+    }
+
+    /**
+     * @param logAlignment the alignment of the AFR log, it must have been estimated with the same filters.
+     */
+    public void estimate(Map<Me7LogFileContract.Header, List<Double>> me7LogMap, Map<String, List<Double>> afrLogMap, LogAlignment logAlignment) {
         List<Map<Me7LogFileContract.Header, List<Double>>> me7LogList = Me7LogUtil.findMe7Logs(me7LogMap, minThrottleAngle, LAMBDA_CONTROL_ENABLED, minRpm, minPointsMe7);
-        List<Map<String, List<Double>>> afrLogList = AfrLogUtil.findAfrLogs(afrLogMap, minThrottleAngle, minRpm, maxAfr, minPointsAfr);
+
+        // Correct for the clock offset and drift between the two loggers
+        if (logAlignment.isConfident()) {
+            afrLogMap = logAlignment.apply(afrLogMap);
+        }
 
         List<List<Double>> dutyCycleLogs = new ArrayList<>();
 
@@ -64,17 +75,19 @@ public class AirflowEstimationManager {
         }
 
         for(int i = 0; i < dutyCycleLogs.size(); i++) {
+            Cancellation.throwIfCancelled();
+
             estimatedAirflowGramsPerSecondLogs.add(new ArrayList<>());
 
             List<Double> dutyCycleLog = dutyCycleLogs.get(i);
-            List<Double> me7RpmLog = me7LogList.get(i).get(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
-            List<Double> afrRpmLog = afrLogList.get(i).get(AfrLogFileContract.RPM_HEADER);
-            List<Double> afrLog = afrLogList.get(i).get(AfrLogFileContract.AFR_HEADER);
+            // The AFR logged at the same time as each ME7 sample
+            List<Double> afrLog = AfrLogUtil.getAlignedAfr(me7LogList.get(i), afrLogMap);
+            boolean covered = countValidAfr(afrLog) >= minPointsAfr;
+
             for(int j = 0; j < dutyCycleLogs.get(i).size(); j++) {
                 double totalFuelGramsPerSecond = ((dutyCycleLog.get(j) * totalFuelFlowGramsPerMinute))/60;
-                int afrIndex = Index.getInsertIndex(afrRpmLog, me7RpmLog.get(j));
-                double afr = afrLog.get(Math.min(afrIndex, afrLog.size() - 1));
-                double airflowGramsPerSecond = totalFuelGramsPerSecond*afr;
+                double afr = afrLog.get(j);
+                double airflowGramsPerSecond = covered && afr < maxAfr ? totalFuelGramsPerSecond*afr : Double.NaN;
                 estimatedAirflowGramsPerSecondLogs.get(i).add(airflowGramsPerSecond);
             }
         }
@@ -82,6 +95,18 @@ public class AirflowEstimationManager {
         airflowEstimation = new AirflowEstimation(estimatedAirflowGramsPerSecondLogs, measuredAirflowGramsPerSecondLogs, measuredRpmLogs);
     }
 
+    private int countValidAfr(List<Double> afrList) {
+        int count = 0;
+
+        for (Double afr : afrList) {
+            if (!afr.isNaN() && afr < maxAfr) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
     private List<Double> getInjectorDutyCycle(List<Double> rpm, List<Double> fuelInjectorOnTime) {
         List<Double> dutyCycle = new ArrayList<>();
 
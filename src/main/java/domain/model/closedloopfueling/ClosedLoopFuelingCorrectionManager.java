@@ -3,9 +3,12 @@ package domain.model.closedloopfueling;
 import data.contract.Me7LogFileContract;
 import domain.derivative.Derivative;
 import domain.math.Index;
+import domain.math.StreamingStatistics;
 import domain.math.map.Map3d;
+import domain.metrics.CalculationEvent;
+import domain.metrics.Metrics;
+import domain.metrics.Stage;
 import domain.util.Util;
-import org.apache.commons.math3.stat.StatUtils;
 import org.apache.commons.math3.stat.descriptive.moment.Mean;
 
 import java.util.*;
@@ -15,13 +18,17 @@ public class ClosedLoopFuelingCorrectionManager {
     private static final int MIN_SAMPLES_THRESHOLD = 5;
     private static final int LAMBDA_CONTROL_ENABLED = 1;
 
+    private static final Stage CALCULATE_CORRECTIONS = Metrics.getInstance().stage("closedloop.calculateCorrections");
+    private static final Stage PROCESS_CORRECTIONS = Metrics.getInstance().stage("closedloop.processCorrections");
+    private static final Stage SMOOTH = Metrics.getInstance().stage("closedloop.smooth");
+    private static final Stage APPLY_CORRECTIONS = Metrics.getInstance().stage("closedloop.applyCorrections");
+
     private final double minThrottleAngle;
     private final double minRpm;
     private final double maxDerivative;
+    private final boolean retainSamples;
 
     private final Map3d correctedMlhfm = new Map3d();
-    private final Map<Double, List<Double>> correctionsAfrMap = new HashMap<>();
-    private final Map<Double, List<Double>> filteredVoltageDt = new HashMap<>();
     private final Map<Double, Double> meanAfrMap = new HashMap<>();
     private final Map<Double, double[]> modeAfrMap = new HashMap<>();
     private final Map<Double, Double> correctedAfrMap = new HashMap<>();
@@ -29,9 +36,18 @@ public class ClosedLoopFuelingCorrectionManager {
     private ClosedLoopFuelingCorrection closedLoopFuelingCorrection;
 
     public ClosedLoopFuelingCorrectionManager(double minThrottleAngle, double minRpm, double maxDerivative) {
+        this(minThrottleAngle, minRpm, maxDerivative, false);
+    }
+
+    /**
+     * @param retainSamples keep every accepted sample in correctionsAfrMap and filteredVoltageDt for charting.
+     *                      Otherwise only constant memory statistics are kept per MLHFM voltage.
+     */
+    public ClosedLoopFuelingCorrectionManager(double minThrottleAngle, double minRpm, double maxDerivative, boolean retainSamples) {
         this.minThrottleAngle = minThrottleAngle;
         this.minRpm = minRpm;
         this.maxDerivative = maxDerivative;
+        this.retainSamples = retainSamples;
     }
 
     public ClosedLoopFuelingCorrection getClosedLoopMlhfmCorrection() {
@@ -39,33 +55,64 @@ public class ClosedLoopFuelingCorrectionManager {
     }
 
     public void correct(Map<Me7LogFileContract.Header, List<Double>> me7LogMap, Map3d mlhfm) {
-        Map<Double, List<Double>> correctionErrorMap = new HashMap<>();
+        correct(calculatePartial(me7LogMap, mlhfm), mlhfm);
+    }
+
+    /**
+     * Corrects MLHFM from a set of logs, one log per file. Each log is reduced to a partial on its own worker
+     * and the partials are merged.
+     */
+    public void correct(List<Map<Me7LogFileContract.Header, List<Double>>> me7Logs, Map3d mlhfm) {
+        ClosedLoopFuelingCorrectionPartial partial = me7Logs.parallelStream()
+                .map(me7LogMap -> calculatePartial(me7LogMap, mlhfm))
+                .reduce(ClosedLoopFuelingCorrectionPartial::merge)
+                .orElseGet(() -> new ClosedLoopFuelingCorrectionPartial(mlhfm.yAxis, retainSamples));
+
+        correct(partial, mlhfm);
+    }
+
+    /**
+     * Corrects MLHFM from already accumulated corrections. A new log can be added to an existing partial with
+     * {@link #calculatePartial(Map, Map3d)} and {@link ClosedLoopFuelingCorrectionPartial#merge(ClosedLoopFuelingCorrectionPartial)}.
+     */
+    public void correct(ClosedLoopFuelingCorrectionPartial partial, Map3d mlhfm) {
+        CalculationEvent event = CalculationEvent.begin("ClosedLoopMlhfmCorrection");
 
         for (Double voltage : mlhfm.yAxis) {
-            correctionErrorMap.put(voltage, new ArrayList<>());
-            filteredVoltageDt.put(voltage, new ArrayList<>());
-            correctionsAfrMap.put(voltage, new ArrayList<>());
             meanAfrMap.put(voltage, 0d);
             modeAfrMap.put(voltage, new double[0]);
             correctedAfrMap.put(voltage, 0d);
         }
 
-        calculateCorrections(correctionErrorMap, me7LogMap, mlhfm);
-
         List<Double> correctionErrorList = new ArrayList<>();
 
-        int maxCorrectionIndex = processCorrections(correctionErrorList, correctionErrorMap, mlhfm);
+        long start = PROCESS_CORRECTIONS.start();
+        int maxCorrectionIndex = processCorrections(correctionErrorList, partial, mlhfm);
 
         postProcessCorrections(correctionErrorList, maxCorrectionIndex);
+        PROCESS_CORRECTIONS.stop(start);
 
+        start = SMOOTH.start();
         smooth(correctionErrorList);
+        SMOOTH.stop(start);
 
+        start = APPLY_CORRECTIONS.start();
         applyCorrections(correctionErrorList, mlhfm);
+        APPLY_CORRECTIONS.stop(start);
 
-        closedLoopFuelingCorrection = new ClosedLoopFuelingCorrection(mlhfm, correctedMlhfm, correctedMlhfm, filteredVoltageDt, correctionsAfrMap, meanAfrMap, modeAfrMap, correctedAfrMap);
+        closedLoopFuelingCorrection = new ClosedLoopFuelingCorrection(mlhfm, correctedMlhfm, correctedMlhfm, partial.getFilteredVoltageDt(), partial.getCorrectionsAfrMap(), meanAfrMap, modeAfrMap, correctedAfrMap);
+
+        long samples = 0;
+        for (Double voltage : mlhfm.yAxis) {
+            samples += partial.getStatistics(voltage).getCount();
+        }
+        event.commit(samples, CalculationEvent.cells(correctedMlhfm.zAxis));
     }
 
-    private void calculateCorrections(Map<Double, List<Double>> correctionError, Map<Me7LogFileContract.Header, List<Double>> me7LogMap, Map3d mlhfm) {
+    public ClosedLoopFuelingCorrectionPartial calculatePartial(Map<Me7LogFileContract.Header, List<Double>> me7LogMap, Map3d mlhfm) {
+        long start = CALCULATE_CORRECTIONS.start();
+        ClosedLoopFuelingCorrectionPartial partial = new ClosedLoopFuelingCorrectionPartial(mlhfm.yAxis, retainSamples);
+
         List<Double> me7Voltages = me7LogMap.get(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER);
         List<Double> me7Timestamps = me7LogMap.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER);
         List<Double> me7voltageDt = Derivative.getDt(me7Voltages, me7Timestamps);
@@ -74,6 +121,7 @@ public class ClosedLoopFuelingCorrectionManager {
         List<Double> lambdaControl = me7LogMap.get(Me7LogFileContract.Header.LAMBDA_CONTROL_ACTIVE_HEADER);
         List<Double> throttleAngle = me7LogMap.get(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER);
         List<Double> rpm = me7LogMap.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
+        List<Double> mlhfmVoltages = Arrays.asList(mlhfm.yAxis);
 
         for (int i = 0; i < me7voltageDt.size(); i++) {
             // Closed loop only and not idle
@@ -81,7 +129,7 @@ public class ClosedLoopFuelingCorrectionManager {
                 // Get every logged voltage
                 double me7Voltage = me7Voltages.get(i + 1);
                 // Look up the corresponding voltage from MLHFM
-                int mlhfmVoltageIndex = Index.getInsertIndex(Arrays.asList(mlhfm.yAxis), me7Voltage);
+                int mlhfmVoltageIndex = Index.getInsertIndex(mlhfmVoltages, me7Voltage);
 
                 double mlhfmVoltageKey = mlhfm.yAxis[mlhfmVoltageIndex];
 
@@ -92,28 +140,27 @@ public class ClosedLoopFuelingCorrectionManager {
                 double ltftValue = (ltft.get(i + 1) - 1)*voltageScaler;
                 double afrCorrectionError = stftValue + ltftValue;
 
-                // Record the correction.
-                correctionError.get(mlhfmVoltageKey).add(afrCorrectionError);
-
-                // Keep track of the dt of the logged voltages relative to the MLHFM voltages
-                filteredVoltageDt.get(mlhfmVoltageKey).add(me7voltageDt.get(i));
-                correctionsAfrMap.get(mlhfmVoltageKey).add(afrCorrectionError);
+                // Record the correction and the dt of the logged voltages relative to the MLHFM voltages
+                partial.add(mlhfmVoltageKey, afrCorrectionError, me7voltageDt.get(i));
             }
         }
+
+        CALCULATE_CORRECTIONS.stop(start);
+
+        return partial;
     }
 
-    private int processCorrections(List<Double> correctionErrorList, Map<Double, List<Double>> correctionErrorMap, Map3d mlhfm) {
+    private int processCorrections(List<Double> correctionErrorList, ClosedLoopFuelingCorrectionPartial partial, Map3d mlhfm) {
         int maxCorrectionIndex = 0;
         int index = 0;
-        Mean mean = new Mean();
         for (Double voltage : mlhfm.yAxis) {
-            List<Double> corrections = correctionErrorMap.get(voltage);
+            StreamingStatistics corrections = partial.getStatistics(voltage);
 
-            if (corrections.size() > MIN_SAMPLES_THRESHOLD) {
+            if (corrections.getCount() > MIN_SAMPLES_THRESHOLD) {
                 // Get the mean of the correction set
-                double meanValue = mean.evaluate(Util.toDoubleArray(corrections.toArray(new Double[0])), 0, corrections.size());
+                double meanValue = corrections.getMean();
                 // Get the mode of the correction set
-                double[] mode = StatUtils.mode(Util.toDoubleArray(corrections.toArray(new Double[0])));
+                double[] mode = corrections.getMode();
 
                 meanAfrMap.put(voltage, meanValue);
                 modeAfrMap.put(voltage, mode);
@@ -0,0 +1,88 @@
+package domain.model.closedloopfueling;
+
+import domain.math.StreamingStatistics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The corrections accumulated from one or more logs, keyed by MLHFM voltage. Partials computed from
+ * separate logs are combined with {@link #merge(ClosedLoopFuelingCorrectionPartial)}.
+ */
+public class ClosedLoopFuelingCorrectionPartial {
+
+    // Histogram used to find the mode of the corrections, +/- 50% at 0.1% resolution
+    private static final double MIN_CORRECTION = -0.5;
+    private static final double MAX_CORRECTION = 0.5;
+    private static final double CORRECTION_RESOLUTION = 0.001;
+
+    private final Double[] voltages;
+    private final boolean retainSamples;
+
+    private final Map<Double, StreamingStatistics> correctionErrorMap = new HashMap<>();
+    private final Map<Double, List<Double>> correctionsAfrMap = new HashMap<>();
+    private final Map<Double, List<Double>> filteredVoltageDt = new HashMap<>();
+
+    public ClosedLoopFuelingCorrectionPartial(Double[] voltages, boolean retainSamples) {
+        this.voltages = voltages;
+        this.retainSamples = retainSamples;
+
+        for (Double voltage : voltages) {
+            correctionErrorMap.put(voltage, createStatistics());
+            correctionsAfrMap.put(voltage, new ArrayList<>());
+            filteredVoltageDt.put(voltage, new ArrayList<>());
+        }
+    }
+
+    static StreamingStatistics createStatistics() {
+        return new StreamingStatistics(MIN_CORRECTION, MAX_CORRECTION, CORRECTION_RESOLUTION);
+    }
+
+    public void add(double voltage, double correction, double voltageDt) {
+        correctionErrorMap.get(voltage).add(correction);
+
+        if (retainSamples) {
+            correctionsAfrMap.get(voltage).add(correction);
+            filteredVoltageDt.get(voltage).add(voltageDt);
+        }
+    }
+
+    // Records a sample for charting that is already accounted for in the statistics
+    void retain(double voltage, double correction, double voltageDt) {
+        if (retainSamples) {
+            correctionsAfrMap.get(voltage).add(correction);
+            filteredVoltageDt.get(voltage).add(voltageDt);
+        }
+    }
+
+    public ClosedLoopFuelingCorrectionPartial merge(ClosedLoopFuelingCorrectionPartial other) {
+        for (Double voltage : voltages) {
+            correctionErrorMap.get(voltage).merge(other.correctionErrorMap.get(voltage));
+
+            if (retainSamples) {
+                correctionsAfrMap.get(voltage).addAll(other.correctionsAfrMap.get(voltage));
+                filteredVoltageDt.get(voltage).addAll(other.filteredVoltageDt.get(voltage));
+            }
+        }
+
+        return this;
+    }
+
+    public Double[] getVoltages() {
+        return voltages;
+    }
+
+    public StreamingStatistics getStatistics(double voltage) {
+        return correctionErrorMap.get(voltage);
+    }
+
+    public Map<Double, List<Double>> getCorrectionsAfrMap() {
+        return correctionsAfrMap;
+    }
+
+    public Map<Double, List<Double>> getFilteredVoltageDt() {
+        return filteredVoltageDt;
+    }
+}
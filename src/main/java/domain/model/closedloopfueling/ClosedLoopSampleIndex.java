@@ -0,0 +1,318 @@
+package domain.model.closedloopfueling;
+
+import data.contract.Me7LogFileContract;
+import domain.derivative.Derivative;
+import domain.math.Index;
+import domain.math.StreamingStatistics;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The closed loop samples of a set of logs, indexed once so the filter thresholds can be re-tuned without going
+ * back to the logs. Every sample is reduced to its MLHFM voltage and correction up front and is kept in sorted
+ * order for each filtered channel. A threshold change is resolved with a binary search and only the samples
+ * between the old and the new threshold are added to or removed from the running statistics.
+ */
+public class ClosedLoopSampleIndex {
+
+    private static final int LAMBDA_CONTROL_ENABLED = 1;
+
+    private final Double[] voltages;
+    private final boolean retainSamples;
+
+    // One entry per closed loop sample in log order
+    private final int[] voltageIndex;
+    private final double[] correction;
+    private final double[] throttleAngle;
+    private final double[] rpm;
+    private final double[] voltageDt;
+
+    // Sample indices sorted by each channel, and the channel values in that order
+    private final int[] byThrottleAngle;
+    private final int[] byRpm;
+    private final int[] byVoltageDt;
+    private final double[] sortedThrottleAngle;
+    private final double[] sortedRpm;
+    private final double[] sortedVoltageDt;
+
+    private final StreamingStatistics[] statistics;
+    private final boolean[] included;
+    private int includedCount;
+
+    private boolean filtered;
+    private double minThrottleAngle;
+    private double minRpm;
+    private double maxVoltageDt;
+
+    public ClosedLoopSampleIndex(List<Map<Me7LogFileContract.Header, List<Double>>> me7Logs, Double[] voltages, boolean retainSamples) {
+        this.voltages = voltages;
+        this.retainSamples = retainSamples;
+
+        int capacity = 0;
+        for (Map<Me7LogFileContract.Header, List<Double>> me7Log : me7Logs) {
+            capacity += Math.max(0, me7Log.get(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER).size() - 1);
+        }
+
+        int[] voltageIndex = new int[capacity];
+        double[] correction = new double[capacity];
+        double[] throttleAngle = new double[capacity];
+        double[] rpm = new double[capacity];
+        double[] voltageDt = new double[capacity];
+
+        List<Double> mlhfmVoltages = Arrays.asList(voltages);
+        int size = 0;
+
+        for (Map<Me7LogFileContract.Header, List<Double>> me7Log : me7Logs) {
+            List<Double> me7Voltages = me7Log.get(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER);
+            List<Double> me7voltageDt = Derivative.getDt(me7Voltages, me7Log.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER));
+            List<Double> stft = me7Log.get(Me7LogFileContract.Header.STFT_COLUMN_HEADER);
+            List<Double> ltft = me7Log.get(Me7LogFileContract.Header.LTFT_COLUMN_HEADER);
+            List<Double> lambdaControl = me7Log.get(Me7LogFileContract.Header.LAMBDA_CONTROL_ACTIVE_HEADER);
+            List<Double> throttleAngles = me7Log.get(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER);
+            List<Double> rpms = me7Log.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
+
+            for (int i = 0; i < me7voltageDt.size(); i++) {
+                double throttle = throttleAngles.get(i + 1);
+                double engineSpeed = rpms.get(i + 1);
+                double dt = me7voltageDt.get(i);
+
+                // Open loop samples and samples that can never pass a filter are not indexed
+                if (lambdaControl.get(i + 1) != LAMBDA_CONTROL_ENABLED || Double.isNaN(throttle) || Double.isNaN(engineSpeed) || Double.isNaN(dt)) {
+                    continue;
+                }
+
+                // Same correction as ClosedLoopFuelingCorrectionManager.calculatePartial()
+                double me7Voltage = me7Voltages.get(i + 1);
+                int mlhfmVoltageIndex = Index.getInsertIndex(mlhfmVoltages, me7Voltage);
+                double voltageScaler = me7Voltage / voltages[mlhfmVoltageIndex];
+
+                double stftValue = (stft.get(i + 1) - 1) * voltageScaler;
+                double ltftValue = (ltft.get(i + 1) - 1) * voltageScaler;
+
+                voltageIndex[size] = mlhfmVoltageIndex;
+                correction[size] = stftValue + ltftValue;
+                throttleAngle[size] = throttle;
+                rpm[size] = engineSpeed;
+                voltageDt[size] = dt;
+                size++;
+            }
+        }
+
+        this.voltageIndex = Arrays.copyOf(voltageIndex, size);
+        this.correction = Arrays.copyOf(correction, size);
+        this.throttleAngle = Arrays.copyOf(throttleAngle, size);
+        this.rpm = Arrays.copyOf(rpm, size);
+        this.voltageDt = Arrays.copyOf(voltageDt, size);
+
+        this.byThrottleAngle = sort(this.throttleAngle);
+        this.byRpm = sort(this.rpm);
+        this.byVoltageDt = sort(this.voltageDt);
+        this.sortedThrottleAngle = permute(this.throttleAngle, byThrottleAngle);
+        this.sortedRpm = permute(this.rpm, byRpm);
+        this.sortedVoltageDt = permute(this.voltageDt, byVoltageDt);
+
+        this.statistics = new StreamingStatistics[voltages.length];
+        for (int i = 0; i < voltages.length; i++) {
+            statistics[i] = ClosedLoopFuelingCorrectionPartial.createStatistics();
+        }
+
+        this.included = new boolean[size];
+    }
+
+    public int size() {
+        return included.length;
+    }
+
+    public Double[] getVoltages() {
+        return voltages;
+    }
+
+    /**
+     * Selects the samples with throttleAngle > minThrottleAngle, rpm > minRpm and voltageDt < maxVoltageDt, the
+     * same filter as {@link ClosedLoopFuelingCorrectionManager#calculatePartial(Map, domain.math.map.Map3d)}. The
+     * selected samples and their counts are the same, but after incremental updates the running mean and variance
+     * may differ from a fresh calculation by floating point rounding.
+     *
+     * @return the corrections of the selected samples.
+     */
+    public synchronized ClosedLoopFuelingCorrectionPartial filter(double minThrottleAngle, double minRpm, double maxVoltageDt) {
+        int throttleAngleChanges = filtered ? Math.abs(upperBound(sortedThrottleAngle, minThrottleAngle) - upperBound(sortedThrottleAngle, this.minThrottleAngle)) : Integer.MAX_VALUE;
+        int rpmChanges = filtered ? Math.abs(upperBound(sortedRpm, minRpm) - upperBound(sortedRpm, this.minRpm)) : Integer.MAX_VALUE;
+        int voltageDtChanges = filtered ? Math.abs(lowerBound(sortedVoltageDt, maxVoltageDt) - lowerBound(sortedVoltageDt, this.maxVoltageDt)) : Integer.MAX_VALUE;
+        long changes = (long) throttleAngleChanges + rpmChanges + voltageDtChanges;
+
+        // Large moves are cheaper to select from scratch, which also resets any drift of the running statistics
+        if (changes > Math.max(includedCount, included.length / 8)) {
+            select(minThrottleAngle, minRpm, maxVoltageDt);
+        } else {
+            // Move one threshold at a time, so every sample in the moved range is tested against the others
+            updateThrottleAngle(minThrottleAngle);
+            updateRpm(minRpm);
+            updateVoltageDt(maxVoltageDt);
+        }
+
+        return getPartial();
+    }
+
+    private void select(double minThrottleAngle, double minRpm, double maxVoltageDt) {
+        Arrays.fill(included, false);
+        includedCount = 0;
+
+        for (int i = 0; i < statistics.length; i++) {
+            statistics[i] = ClosedLoopFuelingCorrectionPartial.createStatistics();
+        }
+
+        this.minThrottleAngle = minThrottleAngle;
+        this.minRpm = minRpm;
+        this.maxVoltageDt = maxVoltageDt;
+        this.filtered = true;
+
+        // Walk the channel with the fewest passing samples and test the others
+        int throttleAngleStart = upperBound(sortedThrottleAngle, minThrottleAngle);
+        int rpmStart = upperBound(sortedRpm, minRpm);
+        int voltageDtEnd = lowerBound(sortedVoltageDt, maxVoltageDt);
+
+        int throttleAngleCount = included.length - throttleAngleStart;
+        int rpmCount = included.length - rpmStart;
+
+        if (throttleAngleCount <= rpmCount && throttleAngleCount <= voltageDtEnd) {
+            selectRange(byThrottleAngle, throttleAngleStart, included.length);
+        } else if (rpmCount <= voltageDtEnd) {
+            selectRange(byRpm, rpmStart, included.length);
+        } else {
+            selectRange(byVoltageDt, 0, voltageDtEnd);
+        }
+    }
+
+    private void selectRange(int[] order, int from, int to) {
+        for (int k = from; k < to; k++) {
+            int sample = order[k];
+            if (passes(sample)) {
+                include(sample);
+            }
+        }
+    }
+
+    private void updateThrottleAngle(double minThrottleAngle) {
+        int from = upperBound(sortedThrottleAngle, this.minThrottleAngle);
+        int to = upperBound(sortedThrottleAngle, minThrottleAngle);
+        this.minThrottleAngle = minThrottleAngle;
+        update(byThrottleAngle, Math.min(from, to), Math.max(from, to));
+    }
+
+    private void updateRpm(double minRpm) {
+        int from = upperBound(sortedRpm, this.minRpm);
+        int to = upperBound(sortedRpm, minRpm);
+        this.minRpm = minRpm;
+        update(byRpm, Math.min(from, to), Math.max(from, to));
+    }
+
+    private void updateVoltageDt(double maxVoltageDt) {
+        int from = lowerBound(sortedVoltageDt, this.maxVoltageDt);
+        int to = lowerBound(sortedVoltageDt, maxVoltageDt);
+        this.maxVoltageDt = maxVoltageDt;
+        update(byVoltageDt, Math.min(from, to), Math.max(from, to));
+    }
+
+    // Re-tests the samples whose filter result may have changed
+    private void update(int[] order, int from, int to) {
+        for (int k = from; k < to; k++) {
+            int sample = order[k];
+            boolean passes = passes(sample);
+
+            if (passes && !included[sample]) {
+                include(sample);
+            } else if (!passes && included[sample]) {
+                exclude(sample);
+            }
+        }
+    }
+
+    private boolean passes(int sample) {
+        return throttleAngle[sample] > minThrottleAngle && rpm[sample] > minRpm && voltageDt[sample] < maxVoltageDt;
+    }
+
+    private void include(int sample) {
+        included[sample] = true;
+        includedCount++;
+        statistics[voltageIndex[sample]].add(correction[sample]);
+    }
+
+    private void exclude(int sample) {
+        included[sample] = false;
+        includedCount--;
+        statistics[voltageIndex[sample]].remove(correction[sample]);
+    }
+
+    private ClosedLoopFuelingCorrectionPartial getPartial() {
+        ClosedLoopFuelingCorrectionPartial partial = new ClosedLoopFuelingCorrectionPartial(voltages, retainSamples);
+
+        for (int i = 0; i < voltages.length; i++) {
+            partial.getStatistics(voltages[i]).merge(statistics[i]);
+        }
+
+        if (retainSamples) {
+            for (int sample = 0; sample < included.length; sample++) {
+                if (included[sample]) {
+                    partial.retain(voltages[voltageIndex[sample]], correction[sample], voltageDt[sample]);
+                }
+            }
+        }
+
+        return partial;
+    }
+
+    private static int[] sort(double[] values) {
+        return IntStream.range(0, values.length).parallel().boxed()
+                .sorted(Comparator.comparingDouble(i -> values[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static double[] permute(double[] values, int[] order) {
+        double[] result = new double[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = values[order[i]];
+        }
+
+        return result;
+    }
+
+    // Index of the first value > key
+    private static int upperBound(double[] sorted, double key) {
+        int low = 0;
+        int high = sorted.length;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    // Index of the first value >= key
+    private static int lowerBound(double[] sorted, double key) {
+        int low = 0;
+        int high = sorted.length;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+}
@@ -2,6 +2,7 @@ package domain.model.kfmiop;
 
 import domain.math.RescaleAxis;
 import domain.math.map.Map3d;
+import domain.metrics.CalculationEvent;
 import domain.model.plsol.Plsol;
 
 import java.util.Arrays;
@@ -43,6 +44,8 @@ public class Kfmiop {
     }
 
     public static Kfmiop calculateKfmiop(Map3d baseKfmiop, double maxMapSensorLoad, double maxBoostPressureLoad) {
+        CalculationEvent event = CalculationEvent.begin("Kfmiop");
+
         Double[] xAxis = baseKfmiop.xAxis;
         Double[] yAxis = baseKfmiop.yAxis;
         Double[][] zAxis = baseKfmiop.zAxis;
@@ -103,6 +106,8 @@ public class Kfmiop {
         Map3d outputBoostMap = new Map3d(rescaledXAxis, yAxis, outputBoost);
         double maxMap = Plsol.plsol(1013, maxBoost, 0, 96, 0.106, currentMaxLoad);
 
+        event.commit(0, CalculationEvent.cells(kfmiop));
+
         return new Kfmiop(outputKfmiopMap, inputBoostMap, outputBoostMap, maxMap, maxBoost);
     }
 }
@@ -0,0 +1,188 @@
+package domain.model.kfmiop;
+
+import domain.math.map.Map3d;
+import domain.model.rlsol.Rlsol;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Evaluates KFMIOP over a grid of maximum MAP sensor and boost pressures. Every evaluation is memoized by the content
+ * of the base KFMIOP and the pressures, so revisiting a pair of pressures doesn't recalculate anything.
+ */
+public class KfmiopSweep {
+
+    private static final int MAX_CACHED_RESULTS = 2048;
+
+    // Least recently used results, keyed by the content of the base map and the pressures
+    private static final Map<Key, Kfmiop> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Kfmiop> eldest) {
+            return size() > MAX_CACHED_RESULTS;
+        }
+    };
+
+    private final double[] mapSensorPressures;
+    private final double[] boostPressures;
+    private final Kfmiop[][] results;
+
+    private KfmiopSweep(double[] mapSensorPressures, double[] boostPressures, Kfmiop[][] results) {
+        this.mapSensorPressures = mapSensorPressures;
+        this.boostPressures = boostPressures;
+        this.results = results;
+    }
+
+    /**
+     * Calculates KFMIOP for a maximum MAP sensor pressure and a maximum boost pressure (mbar), or returns the memoized
+     * result of an earlier call with the same base map and pressures.
+     */
+    public static Kfmiop calculate(Map3d baseKfmiop, double maxMapSensorPressure, double maxBoostPressure) {
+        return calculate(new MapContent(baseKfmiop), baseKfmiop, maxMapSensorPressure, maxBoostPressure);
+    }
+
+    /**
+     * Calculates KFMIOP for every combination of maximum MAP sensor pressure and maximum boost pressure in parallel.
+     */
+    public static KfmiopSweep sweep(Map3d baseKfmiop, double[] mapSensorPressures, double[] boostPressures) {
+        // Hash the base map once for the whole sweep
+        MapContent content = new MapContent(baseKfmiop);
+        Kfmiop[][] results = new Kfmiop[mapSensorPressures.length][boostPressures.length];
+
+        IntStream.range(0, mapSensorPressures.length * boostPressures.length).parallel().forEach(index -> {
+            int i = index / boostPressures.length;
+            int j = index % boostPressures.length;
+            results[i][j] = calculate(content, baseKfmiop, mapSensorPressures[i], boostPressures[j]);
+        });
+
+        return new KfmiopSweep(mapSensorPressures.clone(), boostPressures.clone(), results);
+    }
+
+    private static Kfmiop calculate(MapContent content, Map3d baseKfmiop, double maxMapSensorPressure, double maxBoostPressure) {
+        Key key = new Key(content, maxMapSensorPressure, maxBoostPressure);
+
+        synchronized (cache) {
+            Kfmiop kfmiop = cache.get(key);
+            if (kfmiop != null) {
+                return kfmiop;
+            }
+        }
+
+        double maxMapSensorLoad = Rlsol.rlsol(1030, maxMapSensorPressure, 0, 96, 0.106, maxMapSensorPressure);
+        double maxBoostPressureLoad = Rlsol.rlsol(1030, maxBoostPressure, 0, 96, 0.106, maxBoostPressure);
+        Kfmiop kfmiop = Kfmiop.calculateKfmiop(baseKfmiop, maxMapSensorLoad, maxBoostPressureLoad);
+
+        synchronized (cache) {
+            cache.put(key, kfmiop);
+        }
+
+        return kfmiop;
+    }
+
+    public double[] getMapSensorPressures() {
+        return mapSensorPressures;
+    }
+
+    public double[] getBoostPressures() {
+        return boostPressures;
+    }
+
+    /**
+     * @return the KFMIOP indexed by [mapSensorPressure][boostPressure].
+     */
+    public Kfmiop[][] getResults() {
+        return results;
+    }
+
+    /**
+     * @return the largest load of the output KFMIOP indexed by [mapSensorPressure][boostPressure].
+     */
+    public double[][] getMaxLoad() {
+        double[][] maxLoad = new double[results.length][];
+        for (int i = 0; i < results.length; i++) {
+            maxLoad[i] = Arrays.stream(results[i]).mapToDouble(kfmiop -> max(kfmiop.getOutputKfmiop())).toArray();
+        }
+
+        return maxLoad;
+    }
+
+    /**
+     * @return the largest boost (psi) of the output boost map indexed by [mapSensorPressure][boostPressure].
+     */
+    public double[][] getMaxBoost() {
+        double[][] maxBoost = new double[results.length][];
+        for (int i = 0; i < results.length; i++) {
+            maxBoost[i] = Arrays.stream(results[i]).mapToDouble(kfmiop -> max(kfmiop.getOutputBoost())).toArray();
+        }
+
+        return maxBoost;
+    }
+
+    /**
+     * Writes the sweep as CSV with one row per pair of pressures.
+     */
+    public void export(Appendable out) throws IOException {
+        double[][] maxLoad = getMaxLoad();
+        double[][] maxBoost = getMaxBoost();
+
+        try (CSVPrinter printer = new CSVPrinter(out, CSVFormat.DEFAULT)) {
+            printer.printRecord("Max MAP Sensor Pressure (mbar)", "Max Boost Pressure (mbar)", "Max Load (%)", "Max Boost (psi)");
+
+            for (int i = 0; i < mapSensorPressures.length; i++) {
+                for (int j = 0; j < boostPressures.length; j++) {
+                    printer.printRecord(mapSensorPressures[i], boostPressures[j], maxLoad[i][j], maxBoost[i][j]);
+                }
+            }
+        }
+    }
+
+    private static double max(Map3d map) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (Double[] row : map.zAxis) {
+            for (Double value : row) {
+                if (value != null && !value.isNaN()) {
+                    max = Math.max(max, value);
+                }
+            }
+        }
+
+        return max;
+    }
+
+    private record Key(MapContent content, double maxMapSensorPressure, double maxBoostPressure) {}
+
+    // A snapshot of the map content so later edits to the map can't alias a cached result
+    private static final class MapContent {
+        private final Double[] xAxis;
+        private final Double[] yAxis;
+        private final Double[][] zAxis;
+        private final int hash;
+
+        private MapContent(Map3d map) {
+            this.xAxis = map.xAxis.clone();
+            this.yAxis = map.yAxis.clone();
+            this.zAxis = new Double[map.zAxis.length][];
+            for (int i = 0; i < zAxis.length; i++) {
+                zAxis[i] = map.zAxis[i].clone();
+            }
+
+            this.hash = 31 * (31 * Arrays.hashCode(xAxis) + Arrays.hashCode(yAxis)) + Arrays.deepHashCode(zAxis);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof MapContent other)) return false;
+            return hash == other.hash && Arrays.equals(xAxis, other.xAxis) && Arrays.equals(yAxis, other.yAxis) && Arrays.deepEquals(zAxis, other.zAxis);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
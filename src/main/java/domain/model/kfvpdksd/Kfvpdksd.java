@@ -1,20 +1,35 @@
 package domain.model.kfvpdksd;
 
 import data.contract.Me7LogFileContract;
+import domain.math.TopFractionMean;
 
 import java.util.*;
 
 public record Kfvpdksd(Double[][] kfvpdksd) {
 
+    // Relative boost pressure (hPa) histogram used to find the top 5% of the samples
+    private static final double MIN_PRESSURE = -1100;
+    private static final double MAX_PRESSURE = 4000;
+    private static final double PRESSURE_RESOLUTION = 0.5;
+    private static final double TOP_FRACTION = 0.05;
+
     public Double[][] getKfvpdksd() {
         return kfvpdksd;
     }
 
     public static Double[] parsePressure(Map<Me7LogFileContract.Header, List<Double>> log, Double[] rpmAxis) {
-        List<List<Double>> boostValues = new ArrayList<>();
+        return getMaxPressure(parsePressureSketches(log, rpmAxis));
+    }
+
+    /**
+     * Sketches the WOT boost pressure of a log per RPM bin. Sketches of separate logs can be combined with
+     * {@link TopFractionMean#merge(TopFractionMean[], TopFractionMean[])}.
+     */
+    public static TopFractionMean[] parsePressureSketches(Map<Me7LogFileContract.Header, List<Double>> log, Double[] rpmAxis) {
+        TopFractionMean[] boostValues = new TopFractionMean[rpmAxis.length];
 
         for (int i = 0; i < rpmAxis.length; i++) {
-            boostValues.add(new ArrayList<>());
+            boostValues[i] = new TopFractionMean(MIN_PRESSURE, MAX_PRESSURE, PRESSURE_RESOLUTION, TOP_FRACTION);
         }
 
         List<Double> timestamps = log.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER);
@@ -34,28 +49,21 @@ public record Kfvpdksd(Double[][] kfvpdksd) {
 
                 index = Math.min(index, rpmAxis.length - 1);
 
-                boostValues.get(index).add(absolutePressure.get(i) - barometricPressure.get(i));
+                boostValues[index].add(absolutePressure.get(i) - barometricPressure.get(i));
             }
         }
 
-        Double[] maxPressure = new Double[rpmAxis.length];
-
-        for (int i = 0; i < rpmAxis.length; i++) {
-            Collections.sort(boostValues.get(i));
-            Collections.reverse(boostValues.get(i));
-
-            int numElements = boostValues.get(i).size() > 0 ? (int) Math.max(1, boostValues.get(i).size() * 0.05) : 0;
+        return boostValues;
+    }
 
-            double sum = 0;
-            for (int j = 0; j < numElements; j++) {
-                sum += boostValues.get(i).get(j);
-            }
+    /**
+     * @return the mean of the top 5% of the boost pressures of each RPM bin, 0 for bins without samples.
+     */
+    public static Double[] getMaxPressure(TopFractionMean[] boostValues) {
+        Double[] maxPressure = new Double[boostValues.length];
 
-            if (numElements > 0) {
-                maxPressure[i] = sum / numElements;
-            } else {
-                maxPressure[i] = 0.0;
-            }
+        for (int i = 0; i < boostValues.length; i++) {
+            maxPressure[i] = boostValues[i].getCount() > 0 ? boostValues[i].getMean() : 0.0;
         }
 
         return maxPressure;
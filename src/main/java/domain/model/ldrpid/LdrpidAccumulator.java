@@ -0,0 +1,87 @@
+package domain.model.ldrpid;
+
+import data.contract.Me7LogFileContract;
+import domain.math.Index;
+import domain.math.map.Map3d;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bins the wide open throttle samples of LDRPID logs by RPM and wastegate duty cycle in a single pass. Only a sum and
+ * a count are kept per cell, so memory does not grow with the logs. Logs can be binned on separate threads and merged.
+ */
+public class LdrpidAccumulator {
+
+    private static final double MIN_THROTTLE_ANGLE = 80;
+    private static final double HPA_TO_PSI = 0.0145038;
+
+    private final List<Double> rpmAxis;
+    private final List<Double> dutyCycleAxis;
+
+    // Relative boost pressure sum and sample count per cell (rpmIndex * columns + dutyCycleIndex)
+    private final double[] pressureSums;
+    private final long[] counts;
+
+    public LdrpidAccumulator(Map3d kfldrlMap) {
+        this.rpmAxis = Arrays.asList(kfldrlMap.yAxis);
+        this.dutyCycleAxis = Arrays.asList(kfldrlMap.xAxis);
+        this.pressureSums = new double[rpmAxis.size() * dutyCycleAxis.size()];
+        this.counts = new long[pressureSums.length];
+    }
+
+    public LdrpidAccumulator add(Map<Me7LogFileContract.Header, List<Double>> values) {
+        List<Double> throttlePlateAngles = values.get(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER);
+        List<Double> rpms = values.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
+        List<Double> dutyCycles = values.get(Me7LogFileContract.Header.WASTEGATE_DUTY_CYCLE_HEADER);
+        List<Double> barometricPressures = values.get(Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER);
+        List<Double> absoluteBoostPressures = values.get(Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER);
+
+        for (int i = 0; i < throttlePlateAngles.size(); i++) {
+            if (throttlePlateAngles.get(i) >= MIN_THROTTLE_ANGLE) {
+                double relativeBoostPressure = absoluteBoostPressures.get(i) - barometricPressures.get(i);
+
+                if (relativeBoostPressure > 0) {
+                    int rpmIndex = Index.getInsertIndex(rpmAxis, rpms.get(i));
+                    int dutyCycleIndex = Index.getInsertIndex(dutyCycleAxis, dutyCycles.get(i));
+                    int cell = rpmIndex * dutyCycleAxis.size() + dutyCycleIndex;
+
+                    pressureSums[cell] += relativeBoostPressure;
+                    counts[cell]++;
+                }
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds the sums and counts of other, which must be binned on the same KFLDRL axes.
+     */
+    public LdrpidAccumulator merge(LdrpidAccumulator other) {
+        for (int i = 0; i < pressureSums.length; i++) {
+            pressureSums[i] += other.pressureSums[i];
+            counts[i] += other.counts[i];
+        }
+
+        return this;
+    }
+
+    /**
+     * @return the mean relative boost pressure (psi) of every RPM x duty cycle cell, 0 for empty cells.
+     */
+    public Double[][] getNonLinearTable() {
+        int columns = dutyCycleAxis.size();
+        Double[][] nonLinearTable = new Double[rpmAxis.size()][columns];
+
+        for (int i = 0; i < nonLinearTable.length; i++) {
+            for (int j = 0; j < columns; j++) {
+                int cell = i * columns + j;
+                nonLinearTable[i][j] = counts[cell] != 0 ? (pressureSums[cell] / counts[cell]) * HPA_TO_PSI : 0.0;
+            }
+        }
+
+        return nonLinearTable;
+    }
+}
@@ -1,9 +1,9 @@
 package domain.model.ldrpid;
 
 import data.contract.Me7LogFileContract;
-import domain.math.Index;
 import domain.math.map.Map3d;
 import domain.math.LinearInterpolation;
+import domain.metrics.CalculationEvent;
 
 import java.util.*;
 
@@ -24,49 +24,23 @@ public class LdrpidCalculator {
     }
 
     public static Map3d calculateNonLinearTable(Map<Me7LogFileContract.Header, List<Double>> values, Map3d kfldrlMap) {
-        List<Double> throttlePlateAngles = values.get(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER);
-        List<Double> rpms = values.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
-        List<Double> dutyCycles = values.get(Me7LogFileContract.Header.WASTEGATE_DUTY_CYCLE_HEADER);
-        List<Double> barometricPressures = values.get(Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER);
-        List<Double> absoluteBoostPressures = values.get(Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER);
-
-        Double[][] nonLinearTable = new Double[kfldrlMap.yAxis.length][kfldrlMap.xAxis.length];
-
-        for(Double[] array:nonLinearTable) {
-            Arrays.fill(array, 0.0);
-        }
-
-        double[][] pressure = new double[kfldrlMap.yAxis.length][kfldrlMap.xAxis.length];
-        double[][] count = new double[kfldrlMap.yAxis.length][kfldrlMap.xAxis.length];
+        return calculateNonLinearTable(new LdrpidAccumulator(kfldrlMap).add(values), kfldrlMap);
+    }
 
-        for(int i = 0; i < throttlePlateAngles.size(); i++) {
-            double throttlePlateAngle = throttlePlateAngles.get(i);
-            if(throttlePlateAngle >= 80) {
-                double rpm = rpms.get(i);
-                double dutyCycle = dutyCycles.get(i);
-                double barometricPressure = barometricPressures.get(i);
-                double absoluteBoostPressure = absoluteBoostPressures.get(i);
-                double relativeBoostPressure = absoluteBoostPressure - barometricPressure;
+    /**
+     * Calculates the non linear table from one log per file. The logs are binned in parallel.
+     */
+    public static Map3d calculateNonLinearTable(List<Map<Me7LogFileContract.Header, List<Double>>> logs, Map3d kfldrlMap) {
+        LdrpidAccumulator accumulator = logs.parallelStream()
+                .map(log -> new LdrpidAccumulator(kfldrlMap).add(log))
+                .reduce(LdrpidAccumulator::merge)
+                .orElseGet(() -> new LdrpidAccumulator(kfldrlMap));
 
-                int rpmIndex = Index.getInsertIndex(Arrays.asList(kfldrlMap.yAxis), rpm);
-                int dutyCycleIndex = Index.getInsertIndex(Arrays.asList(kfldrlMap.xAxis), dutyCycle);
+        return calculateNonLinearTable(accumulator, kfldrlMap);
+    }
 
-                if(relativeBoostPressure > 0) {
-                    pressure[rpmIndex][dutyCycleIndex] += relativeBoostPressure;
-                    count[rpmIndex][dutyCycleIndex] += 1;
-                }
-
-                for(int j = 0; j < nonLinearTable.length; j++) {
-                    for(int k = 0; k < nonLinearTable[j].length; k++) {
-                        if(count[j][k] != 0) {
-                            nonLinearTable[j][k] = (pressure[j][k] / count[j][k]) * 0.0145038;
-                        } else {
-                            nonLinearTable[j][k] = pressure[j][k] * 0.0145038;
-                        }
-                    }
-                }
-            }
-        }
+    private static Map3d calculateNonLinearTable(LdrpidAccumulator accumulator, Map3d kfldrlMap) {
+        Double[][] nonLinearTable = accumulator.getNonLinearTable();
 
         for(Double[] array: nonLinearTable) {
             Arrays.sort(array);
@@ -169,8 +143,27 @@ public class LdrpidCalculator {
     }
 
     public static LdrpidResult caclulateLdrpid(Map<Me7LogFileContract.Header, List<Double>> values, Map3d kfldrlMap, Map3d kfldimxMap) {
+        CalculationEvent event = CalculationEvent.begin("LdrpidCalculator");
+        LdrpidResult result = caclulateLdrpid(calculateNonLinearTable(values, kfldrlMap), kfldrlMap, kfldimxMap);
+        event.commit(values.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER).size(), CalculationEvent.cells(result.kfldrl.zAxis));
+
+        return result;
+    }
+
+    public static LdrpidResult caclulateLdrpid(List<Map<Me7LogFileContract.Header, List<Double>>> logs, Map3d kfldrlMap, Map3d kfldimxMap) {
+        CalculationEvent event = CalculationEvent.begin("LdrpidCalculator");
+        LdrpidResult result = caclulateLdrpid(calculateNonLinearTable(logs, kfldrlMap), kfldrlMap, kfldimxMap);
+
+        long samples = 0;
+        for (Map<Me7LogFileContract.Header, List<Double>> log : logs) {
+            samples += log.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER).size();
+        }
+        event.commit(samples, CalculationEvent.cells(result.kfldrl.zAxis));
+
+        return result;
+    }
 
-        Map3d nonLinearTable = calculateNonLinearTable(values, kfldrlMap);
+    private static LdrpidResult caclulateLdrpid(Map3d nonLinearTable, Map3d kfldrlMap, Map3d kfldimxMap) {
         Map3d linearTable = calculateLinearTable(nonLinearTable.zAxis, kfldrlMap);
         Map3d kfldrl = calculateKfldrl(nonLinearTable.zAxis, linearTable.zAxis, kfldrlMap);
         Map3d kfldimxMap3d = calculateKfldimx(nonLinearTable.zAxis, linearTable.zAxis, kfldrlMap, kfldimxMap);
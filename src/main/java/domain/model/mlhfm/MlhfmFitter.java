@@ -1,24 +1,24 @@
 package domain.model.mlhfm;
 
 import domain.math.CurveFitter;
+import domain.math.PolynomialRegressionAccumulator;
 import domain.math.map.Map3d;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 public class MlhfmFitter {
     public static Map3d fitMlhfm(Map3d mlhfmMap, int degree) {
         List<Double> y = Arrays.asList(mlhfmMap.yAxis);
-        List<Double> z = new ArrayList<>();
+        PolynomialRegressionAccumulator accumulator = new PolynomialRegressionAccumulator(degree);
 
         for(int i = 0; i < mlhfmMap.zAxis.length; i++) {
-            z.add(mlhfmMap.zAxis[i][0]);
+            accumulator.add(mlhfmMap.yAxis[i], mlhfmMap.zAxis[i][0]);
         }
 
-        double[] coeff = CurveFitter.fitCurve(y, z, degree);
+        double[] coeff = accumulator.solve();
 
-        Double[][] zOut = new Double[z.size()][1];
+        Double[][] zOut = new Double[mlhfmMap.zAxis.length][1];
 
         List<Double> fit = CurveFitter.buildCurve(coeff, y);
 
@@ -1,6 +1,7 @@
 package domain.model.openloopfueling.correction;
 
 import domain.math.map.Map3d;
+import domain.model.openloopfueling.util.LogAlignment;
 
 import java.util.List;
 import java.util.Map;
@@ -13,8 +14,9 @@ public class OpenLoopMlhfmCorrection {
     public final Map<Double, Double> meanAfrMap;
     public final Map<Double, double[]> modeAfrMap;
     public final Map<Double, Double> correctedAfrMap;
+    public final LogAlignment logAlignment;
 
-    public OpenLoopMlhfmCorrection(Map3d inputMlhfm, Map3d correctedMlhfm, Map3d fitMlhfm, Map<Double, List<Double>> correctionsAfrMap, Map<Double, Double> meanAfrMap, Map<Double, double[]> modeAfrMap, Map<Double, Double> correctedAfrMap) {
+    public OpenLoopMlhfmCorrection(Map3d inputMlhfm, Map3d correctedMlhfm, Map3d fitMlhfm, Map<Double, List<Double>> correctionsAfrMap, Map<Double, Double> meanAfrMap, Map<Double, double[]> modeAfrMap, Map<Double, Double> correctedAfrMap, LogAlignment logAlignment) {
         this.inputMlhfm = inputMlhfm;
         this.correctedMlhfm = correctedMlhfm;
         this.fitMlhfm = fitMlhfm;
@@ -22,5 +24,6 @@ public class OpenLoopMlhfmCorrection {
         this.meanAfrMap = meanAfrMap;
         this.modeAfrMap = modeAfrMap;
         this.correctedAfrMap = correctedAfrMap;
+        this.logAlignment = logAlignment;
     }
 }
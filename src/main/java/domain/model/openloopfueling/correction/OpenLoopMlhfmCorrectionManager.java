@@ -1,10 +1,12 @@
 package domain.model.openloopfueling.correction;
 
-import data.contract.AfrLogFileContract;
 import data.contract.Me7LogFileContract;
-import domain.math.Index;
 import domain.math.map.Map3d;
+import domain.metrics.CalculationEvent;
+import domain.metrics.Metrics;
+import domain.metrics.Stage;
 import domain.model.openloopfueling.util.AfrLogUtil;
+import domain.model.openloopfueling.util.LogAlignment;
 import domain.model.openloopfueling.util.Me7LogUtil;
 import org.apache.commons.math3.stat.StatUtils;
 import org.apache.commons.math3.stat.descriptive.moment.Mean;
@@ -14,6 +16,11 @@ import java.util.*;
 public class OpenLoopMlhfmCorrectionManager {
     private static final int LAMBDA_CONTROL_ENABLED = 0;
 
+    private static final Stage CALCULATE_CORRECTIONS = Metrics.getInstance().stage("openloop.calculateCorrections");
+    private static final Stage PROCESS_CORRECTIONS = Metrics.getInstance().stage("openloop.processCorrections");
+    private static final Stage SMOOTH = Metrics.getInstance().stage("openloop.smooth");
+    private static final Stage APPLY_CORRECTIONS = Metrics.getInstance().stage("openloop.applyCorrections");
+
     private final int minPointsMe7;
     private final int minPointsAfr;
     private final double minThrottleAngle;
@@ -38,31 +45,58 @@ public class OpenLoopMlhfmCorrectionManager {
     }
 
     public void correct(Map<Me7LogFileContract.Header, List<Double>> me7Log, Map<String, List<Double>> afrLog, Map3d mlhfm) {
+        correct(me7Log, afrLog, mlhfm, LogAlignment.estimate(me7Log, afrLog, minThrottleAngle, minRpm, minPointsMe7));
+    }
 
+    /**
+     * @param logAlignment the alignment of the AFR log, it must have been estimated with the same filters.
+     */
+    public void correct(Map<Me7LogFileContract.Header, List<Double>> me7Log, Map<String, List<Double>> afrLog, Map3d mlhfm, LogAlignment logAlignment) {
+        CalculationEvent event = CalculationEvent.begin("OpenLoopMlhfmCorrection");
         List<Map<Me7LogFileContract.Header, List<Double>>> me7LogList = Me7LogUtil.findMe7Logs(me7Log, minThrottleAngle, LAMBDA_CONTROL_ENABLED, minRpm, minPointsMe7);
-        List<Map<String, List<Double>>> afrLogList = AfrLogUtil.findAfrLogs(afrLog, minThrottleAngle, minRpm, maxAfr, minPointsAfr);
+
+        // Correct for the clock offset and drift between the two loggers
+        if (logAlignment.isConfident()) {
+            afrLog = logAlignment.apply(afrLog);
+        }
+
+        // Align the AFR log onto the time base of each pull
+        List<List<Double>> afrLogList = new ArrayList<>();
+        for (Map<Me7LogFileContract.Header, List<Double>> log : me7LogList) {
+            afrLogList.add(AfrLogUtil.getAlignedAfr(log, afrLog));
+        }
 
         generateMlhfm(mlhfm, me7LogList, afrLogList);
 
-        openLoopMlhfmCorrection = new OpenLoopMlhfmCorrection(mlhfm, correctedMlhfm, correctedMlhfm ,correctionsAfrMap, meanAfrMap, modeAfrMap, correctedAfrMap);
+        openLoopMlhfmCorrection = new OpenLoopMlhfmCorrection(mlhfm, correctedMlhfm, correctedMlhfm ,correctionsAfrMap, meanAfrMap, modeAfrMap, correctedAfrMap, logAlignment);
+
+        event.commit(me7Log.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER).size(), CalculationEvent.cells(correctedMlhfm.zAxis));
     }
 
     public OpenLoopMlhfmCorrection getOpenLoopCorrection() {
         return openLoopMlhfmCorrection;
     }
 
-    private void generateMlhfm(Map3d mlhfm, List<Map<Me7LogFileContract.Header, List<Double>>> me7LogList, List<Map<String, List<Double>>> afrLogList) {
+    private void generateMlhfm(Map3d mlhfm, List<Map<Me7LogFileContract.Header, List<Double>>> me7LogList, List<List<Double>> afrLogList) {
         List<Double> mlhfmVoltage = Arrays.asList(mlhfm.yAxis);
 
         // Calculate the initial corrections sets
+        long start = CALCULATE_CORRECTIONS.start();
         calculateCorrections(me7LogList, afrLogList, mlhfmVoltage);
+        CALCULATE_CORRECTIONS.stop(start);
         // Process the corrections sets into a single correction
+        start = PROCESS_CORRECTIONS.start();
         ArrayList<Double> correctedAfrList = processCorrections(mlhfmVoltage);
         // Clean up the corrections
         postProcessCorrections(correctedAfrList);
+        PROCESS_CORRECTIONS.stop(start);
         // Smooth the corrections
+        start = SMOOTH.start();
         smooth(correctedAfrList, 5);
+        SMOOTH.stop(start);
+        start = APPLY_CORRECTIONS.start();
         applyCorrections(mlhfm, correctedAfrList);
+        APPLY_CORRECTIONS.stop(start);
     }
 
     private void applyCorrections(Map3d mlhfm, ArrayList<Double> correctedAfrList) {
@@ -153,42 +187,46 @@ public class OpenLoopMlhfmCorrectionManager {
         return correctedAfrList;
     }
 
-    private void calculateCorrections(List<Map<Me7LogFileContract.Header, List<Double>>> me7LogList, List<Map<String, List<Double>>> afrLogList, List<Double> mlhfmVoltageList) {
+    private void calculateCorrections(List<Map<Me7LogFileContract.Header, List<Double>>> me7LogList, List<List<Double>> afrLogList, List<Double> mlhfmVoltageList) {
 
-       int size = Math.min(me7LogList.size(), afrLogList.size());
+        for (Double mlhfmVoltage : mlhfmVoltageList) {
+            correctionsAfrMap.put(mlhfmVoltage, new ArrayList<>());
+        }
 
-        // Loop over each log
-        for (int i = 0; i < size; i++) {
+        // Loop over each log, the corrections accumulate across every pull
+        for (int i = 0; i < me7LogList.size(); i++) {
             Map<Me7LogFileContract.Header, List<Double>> me7Log = me7LogList.get(i);
-            Map<String, List<Double>> afrLog = afrLogList.get(i);
-
-            // For each log, loop over the voltages in MLHFM and attempt to calculate a correction
-            for (int j = 0; j < mlhfmVoltageList.size(); j++) {
+            List<Double> afrList = afrLogList.get(i);
 
-                double mlhfmVoltage = mlhfmVoltageList.get(j);
+            // Skip pulls the AFR log doesn't cover
+            if (countValidAfr(afrList) < minPointsAfr) {
+                continue;
+            }
 
-                correctionsAfrMap.put(mlhfmVoltage, new ArrayList<>());
+            // Get the measured MAF voltages in the log
+            List<Double> me7VoltageList = me7Log.get(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER);
 
-                // Get the measured MAF voltages in the log
-                List<Double> me7VoltageList = me7Log.get(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER);
+            // Assign every logged voltage to the MLHFM voltages it can correct in a single pass
+            List<List<Integer>> me7VoltageIndices = getVoltageToMatchIndices(mlhfmVoltageList, me7VoltageList);
 
-                // Attempt to find the mlhfm voltages in the log.
-                List<Integer> me7VoltageIndices = getVoltageToMatchIndices(j, mlhfmVoltageList, me7VoltageList);
+            for (int j = 0; j < mlhfmVoltageList.size(); j++) {
+                double mlhfmVoltage = mlhfmVoltageList.get(j);
 
                 // Calculate a corrected AFR for each index that is found
-                for (int me7Index : me7VoltageIndices) {
+                for (int me7Index : me7VoltageIndices.get(j)) {
                     if (me7Index != 1 && me7Index != me7VoltageList.size() - 1) {
                         double stft = me7Log.get(Me7LogFileContract.Header.STFT_COLUMN_HEADER).get(me7Index) - 1;
                         double ltft = me7Log.get(Me7LogFileContract.Header.LTFT_COLUMN_HEADER).get(me7Index) - 1;
-                        double rpm = me7Log.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER).get(me7Index);
                         double targetAfr = me7Log.get(Me7LogFileContract.Header.REQUESTED_LAMBDA_HEADER).get(me7Index);
 
-                        // Find the RPM from the ME7 log in the AFR log
-                        int afrIndex = Index.getInsertIndex(afrLog.get(AfrLogFileContract.RPM_HEADER), rpm);
-                        List<Double> afrList = afrLog.get(AfrLogFileContract.AFR_HEADER);
+                        // The AFR logged at the same time as the ME7 sample
+                        double alignedAfr = afrList.get(me7Index);
+
+                        if (Double.isNaN(alignedAfr) || alignedAfr >= maxAfr) {
+                            continue;
+                        }
 
-                        // Now find the AFR that corresponds to the RPM in the AFR Log
-                        double afr = afrList.get(Math.min(afrIndex, afrList.size() - 1)) / 14.7;
+                        double afr = alignedAfr / 14.7;
 
                         // Calculate a correction accounting for STFT and LTFT
                         double rawAfr = afr / (1 - (stft + ltft));
@@ -203,26 +241,60 @@ public class OpenLoopMlhfmCorrectionManager {
         }
     }
 
-    private List<Integer> getVoltageToMatchIndices(int mlhfmVoltageToMatchIndex, List<Double> mlhfmVoltageList, List<Double> me7VoltageList) {
-        int previousIndex = mlhfmVoltageToMatchIndex - 1;
-        int nextIndex = mlhfmVoltageToMatchIndex + 1;
+    /**
+     * A logged voltage belongs to every MLHFM voltage whose neighbouring MLHFM voltages bracket it (exclusive).
+     * Since MLHFM is sorted only the few MLHFM voltages around the insertion point of a sample can match.
+     *
+     * @return the indices of the matching logged voltages for each MLHFM voltage, in log order.
+     */
+    private List<List<Integer>> getVoltageToMatchIndices(List<Double> mlhfmVoltageList, List<Double> me7VoltageList) {
+        int size = mlhfmVoltageList.size();
+
+        double[] lowValues = new double[size];
+        double[] highValues = new double[size];
+
+        for (int j = 0; j < size; j++) {
+            lowValues[j] = j > 0 ? mlhfmVoltageList.get(j - 1) : mlhfmVoltageList.get(j) - 0.0001;
+            highValues[j] = j < size - 1 ? mlhfmVoltageList.get(j + 1) : mlhfmVoltageList.get(j) + 0.0001;
+        }
 
-        double lowValue = previousIndex >= 0 ? mlhfmVoltageList.get(previousIndex) : mlhfmVoltageList.get(mlhfmVoltageToMatchIndex) - 0.0001;
-        double highValue = nextIndex <= mlhfmVoltageList.size() - 1 ? mlhfmVoltageList.get(nextIndex) : mlhfmVoltageList.get(mlhfmVoltageToMatchIndex) + 0.0001;
+        double[] mlhfmVoltages = toDoubleArray(mlhfmVoltageList.toArray(new Double[0]));
 
-        ArrayList<Integer> indices = new ArrayList<>();
+        List<List<Integer>> indices = new ArrayList<>(size);
+        for (int j = 0; j < size; j++) {
+            indices.add(new ArrayList<>());
+        }
 
         for (int i = 0; i < me7VoltageList.size(); i++) {
             double voltage = me7VoltageList.get(i);
 
-            if (voltage > lowValue && voltage < highValue) {
-                indices.add(i);
+            int insertIndex = Arrays.binarySearch(mlhfmVoltages, voltage);
+            if (insertIndex < 0) {
+                insertIndex = -(insertIndex + 1);
+            }
+
+            for (int j = Math.max(0, insertIndex - 2); j <= Math.min(size - 1, insertIndex + 1); j++) {
+                if (voltage > lowValues[j] && voltage < highValues[j]) {
+                    indices.get(j).add(i);
+                }
             }
         }
 
         return indices;
     }
 
+    private int countValidAfr(List<Double> afrList) {
+        int count = 0;
+
+        for (Double afr : afrList) {
+            if (!afr.isNaN() && afr < maxAfr) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
     private double[] toDoubleArray(Double[] array) {
         double[] result = new double[array.length];
 
@@ -1,6 +1,8 @@
 package domain.model.openloopfueling.util;
 
 import data.contract.AfrLogFileContract;
+import data.contract.Me7LogFileContract;
+import domain.math.TimeSeriesJoin;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -8,6 +10,9 @@ import java.util.List;
 import java.util.Map;
 
 public class AfrLogUtil {
+    // Don't interpolate the AFR across gaps in the log longer than this (seconds)
+    private static final double MAX_SAMPLE_GAP = 1;
+
     public static List<Map<String, List<Double>>> findAfrLogs(Map<String, List<Double>> afrLog, double minThrottleAngle, double minRpm, double maxAfr, int minPointsAfr) {
         ArrayList<Map<String, List<Double>>> logList = new ArrayList<>();
 
@@ -29,6 +34,57 @@ public class AfrLogUtil {
         return logList;
     }
 
+    /**
+     * Aligns the AFR log onto the time base of an ME7 log (START_TIME plus the per row time).
+     *
+     * @return the AFR at every row of the ME7 log, NaN where the AFR log has no coverage.
+     */
+    public static List<Double> getAlignedAfr(Map<Me7LogFileContract.Header, List<Double>> me7Log, Map<String, List<Double>> afrLog) {
+        List<Double> me7Timestamps = me7Log.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER);
+        List<Double> me7StartTime = me7Log.get(Me7LogFileContract.Header.START_TIME_HEADER);
+        double startTime = me7StartTime == null || me7StartTime.isEmpty() ? 0 : me7StartTime.get(0);
+
+        List<Double> afrTimestamps = afrLog.get(AfrLogFileContract.TIMESTAMP);
+        List<Double> afr = afrLog.get(AfrLogFileContract.AFR_HEADER);
+
+        List<Double> times = new ArrayList<>(me7Timestamps.size());
+
+        double hourOffset = afrTimestamps.isEmpty() || me7Timestamps.isEmpty() ? 0 : getHourOffset(
+                startTime + me7Timestamps.get(0), startTime + me7Timestamps.get(me7Timestamps.size() - 1),
+                afrTimestamps.get(0), afrTimestamps.get(afrTimestamps.size() - 1));
+
+        for (Double timestamp : me7Timestamps) {
+            times.add(startTime + timestamp + hourOffset);
+        }
+
+        return TimeSeriesJoin.interpolate(times, afrTimestamps, afr, MAX_SAMPLE_GAP);
+    }
+
+    /**
+     * Both clocks only record minutes and seconds, so the logs may have started on either side of an hour.
+     *
+     * @return the hour (0 or +/-3600 seconds) to add to the ME7 times so they overlap the AFR times the most.
+     * The hour is only applied when it actually increases the overlap.
+     */
+    public static double getHourOffset(double me7Start, double me7End, double afrStart, double afrEnd) {
+        double hourOffset = 0;
+        double bestOverlap = getOverlap(me7Start, me7End, afrStart, afrEnd);
+
+        for (double candidate : new double[]{-3600, 3600}) {
+            double overlap = getOverlap(me7Start + candidate, me7End + candidate, afrStart, afrEnd);
+            if (overlap > bestOverlap) {
+                bestOverlap = overlap;
+                hourOffset = candidate;
+            }
+        }
+
+        return hourOffset;
+    }
+
+    private static double getOverlap(double start0, double end0, double start1, double end1) {
+        return Math.max(0, Math.min(end0, end1) - Math.max(start0, start1));
+    }
+
     private static Map<String, List<Double>> getAfrLog(int start, int end, Map<String, List<Double>> afrLog) {
         List<Double> rpm = afrLog.get(AfrLogFileContract.RPM_HEADER);
         List<Double> afr = afrLog.get(AfrLogFileContract.AFR_HEADER);
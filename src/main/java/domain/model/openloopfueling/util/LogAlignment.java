@@ -0,0 +1,189 @@
+package domain.model.openloopfueling.util;
+
+import data.contract.AfrLogFileContract;
+import data.contract.Me7LogFileContract;
+import domain.math.CrossCorrelation;
+import domain.math.PolynomialRegressionAccumulator;
+import domain.math.TimeSeriesJoin;
+import domain.util.Cancellation;
+import org.apache.commons.math3.stat.descriptive.rank.Median;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the clock offset and skew between a wideband AFR log and an ME7 log by cross correlating the
+ * RPM and throttle traces of every pull. The AFR clock maps onto the ME7 clock as
+ * me7Time = afrTime + offset + skew * me7Time.
+ */
+public record LogAlignment(double offset, double skew, double confidence, int pulls) {
+
+    // Resolution of the resampled traces (seconds)
+    private static final double SAMPLE_PERIOD = 0.1;
+    // Pulls that correlate worse than this are ignored
+    private static final double MIN_PULL_CONFIDENCE = 0.5;
+    // Pulls whose offset is further than this from the median offset are ignored (seconds)
+    private static final double MAX_OFFSET_DEVIATION = 2;
+    // Below this the logs are left as they are
+    public static final double MIN_CONFIDENCE = 0.6;
+
+    public static final LogAlignment NONE = new LogAlignment(0, 0, 0, 0);
+
+    private static final int LAMBDA_CONTROL_ENABLED = 0;
+
+    /**
+     * Estimates the alignment from the open loop pulls of the ME7 log that pass the filters.
+     */
+    public static LogAlignment estimate(Map<Me7LogFileContract.Header, List<Double>> me7Log, Map<String, List<Double>> afrLog, double minThrottleAngle, double minRpm, int minPointsMe7) {
+        return estimate(Me7LogUtil.findMe7Logs(me7Log, minThrottleAngle, LAMBDA_CONTROL_ENABLED, minRpm, minPointsMe7), afrLog);
+    }
+
+    public static LogAlignment estimate(List<Map<Me7LogFileContract.Header, List<Double>>> me7Pulls, Map<String, List<Double>> afrLog) {
+        List<Double> afrTimes = afrLog.get(AfrLogFileContract.TIMESTAMP);
+
+        if (afrTimes == null || afrTimes.size() < 2 || me7Pulls.isEmpty()) {
+            return NONE;
+        }
+
+        double afrStart = afrTimes.get(0);
+        int afrLength = (int) ((afrTimes.get(afrTimes.size() - 1) - afrStart) / SAMPLE_PERIOD) + 1;
+        double[][] afrTraces = new double[][]{
+                resample(afrTimes, afrLog.get(AfrLogFileContract.RPM_HEADER), afrStart, afrLength),
+                resample(afrTimes, afrLog.get(AfrLogFileContract.TPS_HEADER), afrStart, afrLength)
+        };
+
+        List<double[]> estimates = new ArrayList<>();
+
+        double afrEnd = afrTimes.get(afrTimes.size() - 1);
+
+        for (Map<Me7LogFileContract.Header, List<Double>> pull : me7Pulls) {
+            Cancellation.throwIfCancelled();
+
+            List<Double> me7Times = getAbsoluteTimes(pull, afrStart, afrEnd);
+
+            if (me7Times.size() < 2) {
+                continue;
+            }
+
+            double me7Start = me7Times.get(0);
+            int me7Length = (int) ((me7Times.get(me7Times.size() - 1) - me7Start) / SAMPLE_PERIOD) + 1;
+            double[][] me7Traces = new double[][]{
+                    resample(me7Times, pull.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER), me7Start, me7Length),
+                    resample(me7Times, pull.get(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER), me7Start, me7Length)
+            };
+
+            // The whole pull has to fall inside the AFR log
+            CrossCorrelation.Lag lag = CrossCorrelation.findLag(me7Traces, afrTraces, Math.min(me7Length, afrLength));
+
+            if (lag.correlation() >= MIN_PULL_CONFIDENCE) {
+                // me7Traces[t + lag] ~ afrTraces[t]
+                double offset = (me7Start - afrStart) + lag.lag() * SAMPLE_PERIOD;
+                estimates.add(new double[]{me7Start, offset, lag.correlation()});
+            }
+        }
+
+        if (estimates.isEmpty()) {
+            return NONE;
+        }
+
+        // Ignore pulls that locked onto the wrong part of the AFR log
+        double[] offsets = new double[estimates.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = estimates.get(i)[1];
+        }
+        double median = new Median().evaluate(offsets);
+
+        PolynomialRegressionAccumulator accumulator = new PolynomialRegressionAccumulator(1);
+        double confidenceSum = 0;
+        double lastOffset = 0;
+        int pulls = 0;
+
+        for (double[] estimate : estimates) {
+            if (Math.abs(estimate[1] - median) <= MAX_OFFSET_DEVIATION) {
+                accumulator.add(estimate[0], estimate[1], estimate[2]);
+                confidenceSum += estimate[2];
+                lastOffset = estimate[1];
+                pulls++;
+            }
+        }
+
+        // Pulls that disagree with the others lower the confidence
+        double agreement = (double) pulls / estimates.size();
+
+        if (pulls == 1) {
+            return new LogAlignment(lastOffset, 0, confidenceSum * agreement, 1);
+        }
+
+        // A drifting clock shows up as an offset that changes linearly with the time of the pull
+        double[] coefficients = accumulator.solve();
+
+        return new LogAlignment(coefficients[0], coefficients[1], confidenceSum / pulls * agreement, pulls);
+    }
+
+    /**
+     * @return a copy of the AFR log with its timestamps moved onto the ME7 clock.
+     */
+    public Map<String, List<Double>> apply(Map<String, List<Double>> afrLog) {
+        Map<String, List<Double>> log = new HashMap<>(afrLog);
+        List<Double> timestamps = new ArrayList<>(afrLog.get(AfrLogFileContract.TIMESTAMP).size());
+
+        for (Double timestamp : afrLog.get(AfrLogFileContract.TIMESTAMP)) {
+            timestamps.add((timestamp + offset) / (1 - skew));
+        }
+
+        log.put(AfrLogFileContract.TIMESTAMP, timestamps);
+
+        List<Double> startTime = new ArrayList<>();
+        if (!timestamps.isEmpty()) {
+            startTime.add(timestamps.get(0));
+        }
+        log.put(AfrLogFileContract.START_TIME, startTime);
+
+        return log;
+    }
+
+    public boolean isConfident() {
+        return confidence >= MIN_CONFIDENCE;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AFR log offset: %.2f s, skew: %.0f ppm, confidence: %.2f (%d pulls)", offset, skew * 1e6, confidence, pulls);
+    }
+
+    // ME7 times on the same hour as the AFR log, see AfrLogUtil.getHourOffset()
+    private static List<Double> getAbsoluteTimes(Map<Me7LogFileContract.Header, List<Double>> me7Log, double afrStart, double afrEnd) {
+        List<Double> timestamps = me7Log.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER);
+        List<Double> startTime = me7Log.get(Me7LogFileContract.Header.START_TIME_HEADER);
+        double start = startTime == null || startTime.isEmpty() ? 0 : startTime.get(0);
+
+        if (!timestamps.isEmpty()) {
+            start += AfrLogUtil.getHourOffset(start + timestamps.get(0), start + timestamps.get(timestamps.size() - 1), afrStart, afrEnd);
+        }
+
+        List<Double> times = new ArrayList<>(timestamps.size());
+        for (Double timestamp : timestamps) {
+            times.add(start + timestamp);
+        }
+
+        return times;
+    }
+
+    private static double[] resample(List<Double> times, List<Double> values, double start, int length) {
+        List<Double> grid = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            grid.add(start + i * SAMPLE_PERIOD);
+        }
+
+        List<Double> resampled = TimeSeriesJoin.interpolate(grid, times, values, Double.MAX_VALUE);
+
+        double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = resampled.get(i);
+        }
+
+        return result;
+    }
+}
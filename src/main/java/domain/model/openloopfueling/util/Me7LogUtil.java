@@ -40,6 +40,8 @@ public class Me7LogUtil {
         List<Double> onTime = me7Log.get(Me7LogFileContract.Header.FUEL_INJECTOR_ON_TIME_HEADER);
         List<Double> gsec = me7Log.get(Me7LogFileContract.Header.MAF_GRAMS_PER_SECOND_HEADER);
         List<Double> afr = me7Log.get(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER);
+        List<Double> timestamps = me7Log.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER);
+        List<Double> startTime = me7Log.get(Me7LogFileContract.Header.START_TIME_HEADER);
 
         Map<Me7LogFileContract.Header, List<Double>> log = new HashMap<>();
         log.put(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER, voltages.subList(start, end));
@@ -51,6 +53,8 @@ public class Me7LogUtil {
         log.put(Me7LogFileContract.Header.RPM_COLUMN_HEADER, rpm.subList(start, end));
         log.put(Me7LogFileContract.Header.FUEL_INJECTOR_ON_TIME_HEADER, onTime.subList(start, end));
         log.put(Me7LogFileContract.Header.MAF_GRAMS_PER_SECOND_HEADER, gsec.subList(start, end));
+        log.put(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER, timestamps.subList(start, end));
+        log.put(Me7LogFileContract.Header.START_TIME_HEADER, startTime);
         // Wide band O2 is optional for ME7.5+
         if(!afr.isEmpty()) {
             log.put(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER, afr.subList(start, end));
@@ -2,9 +2,16 @@ package domain.model.plsol;
 
 import java.awt.geom.Point2D;
 import java.util.List;
+import java.util.stream.IntStream;
 
 public class Plsol {
 
+    private static final double TMOT = 96;
+    private static final double KFPRG = 70.0;
+    private static final double FPBRKDS = 1.016; // VE
+    private static final double KFFWTBR = 0.02;
+    private static final double VPSSPLS = 1.016; // pressure drop over the throttle plate
+
     private final Point2D.Double[] points;
 
     /**
@@ -17,7 +24,7 @@ public class Plsol {
 
         for(int i = 0; i < points.length; i++) {
             double x = i;
-            double y = plsol(pu, ps, tans, 96, kfurl, x);
+            double y = plsol(pu, ps, tans, TMOT, kfurl, x);
             ps = y;
 
             points[i] = new Point2D.Double(x,y);
@@ -30,7 +37,7 @@ public class Plsol {
 
         for(int i = 0; i < points.length; i++) {
             double x = load.get(i);
-            double y = plsol(pu, ps, tans, 96, kfurl, x);
+            double y = plsol(pu, ps, tans, TMOT, kfurl, x);
             ps = y;
 
             points[i] = new Point2D.Double(x,y);
@@ -42,6 +49,43 @@ public class Plsol {
         return points;
     }
 
+    /**
+     * Evaluates the PLSOL curve of every barometric pressure and intake air temperature combination. Each curve
+     * follows the constructors, feeding each result back in as the manifold pressure of the next load. The curves are
+     * evaluated in parallel and the temperature correction is computed once per curve.
+     *
+     * @param pu   barometric pressures
+     * @param tans intake air temperatures
+     * @param load requested loads in ascending order
+     * @return the requested absolute pressure indexed by [pu][tans][load].
+     */
+    public static double[][][] plsol(double[] pu, double[] tans, double kfurl, double[] load) {
+        double[][][] pressure = new double[pu.length][tans.length][];
+
+        IntStream.range(0, pu.length * tans.length).parallel().forEach(curve -> {
+            int puIndex = curve / tans.length;
+            int tansIndex = curve % tans.length;
+            pressure[puIndex][tansIndex] = plsol(pu[puIndex], tans[tansIndex], kfurl, load);
+        });
+
+        return pressure;
+    }
+
+    private static double[] plsol(double pu, double tans, double kfurl, double[] load) {
+        // The temperature correction doesn't depend on ps or rlsol, so it is computed once per curve
+        double fupsrl = fupsrl(tans, TMOT, kfurl);
+
+        double[] pressure = new double[load.length];
+        double ps = pu;
+
+        for (int i = 0; i < load.length; i++) {
+            ps = plsol(pu, ps, fupsrl, load[i]);
+            pressure[i] = ps;
+        }
+
+        return pressure;
+    }
+
     /**
      *
      * @param pu barometric pressure
@@ -52,11 +96,10 @@ public class Plsol {
      * @return
      */
     public static double plsol(double pu, double ps, double tans, double tmot, double kfurl, double rlsol) {
-        final double KFPRG = 70.0;
-        final double FPBRKDS = 1.016; // VE
-        final double KFFWTBR = 0.02;
-        final double VPSSPLS = 1.016; // pressure drop over the throttle plate
+        return plsol(pu, ps, fupsrl(tans, tmot, kfurl), rlsol);
+    }
 
+    private static double plsol(double pu, double ps, double fupsrl, double rlsol) {
         double fho = pu/1013.0;
 
         double pirg = fho*KFPRG;
@@ -64,16 +107,19 @@ public class Plsol {
         double pbr = ps * FPBRKDS;
         double psagr = 250; // ?
 
-        double evtmod = tans + (tmot - tans) * KFFWTBR;
-        double fwft = (tans+673.425)/731.334;
-        double ftbr = 273.0/(evtmod+273.0)*fwft;
-
-        double fupsrl = kfurl * ftbr; // correct for air temperature (pressure)
-
         double rfagr = Math.max(pbr-pirg, 0)*fupsrl* psagr/ps; // correct for residual cylinder pressure
 
         double pssol = (rlsol + rfagr)/fupsrl/FPBRKDS;
 
         return pssol/VPSSPLS;
     }
+
+    // Correct for air temperature (pressure)
+    private static double fupsrl(double tans, double tmot, double kfurl) {
+        double evtmod = tans + (tmot - tans) * KFFWTBR;
+        double fwft = (tans+673.425)/731.334;
+        double ftbr = 273.0/(evtmod+273.0)*fwft;
+
+        return kfurl * ftbr;
+    }
 }
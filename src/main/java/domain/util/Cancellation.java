@@ -0,0 +1,21 @@
+package domain.util;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Lets long computations stop early once the worker running them is interrupted because their result is no longer
+ * needed.
+ */
+public class Cancellation {
+
+    private Cancellation() {}
+
+    /**
+     * @throws CancellationException if the computation running on this thread has been superseded.
+     */
+    public static void throwIfCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+    }
+}
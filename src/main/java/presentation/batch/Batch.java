@@ -0,0 +1,115 @@
+package presentation.batch;
+
+import domain.metrics.Metrics;
+import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Headless entry point that runs the calibrations of many bins on a bounded number of threads and prints the
+ * timings of each job as it finishes. Nothing in this package may load AWT or Swing.
+ */
+public class Batch {
+
+    public static final String ARGUMENT = "--batch";
+
+    public static void main(String[] args) {
+        Locale.setDefault(Locale.ENGLISH);
+        System.exit(run(args));
+    }
+
+    /**
+     * @return the exit code, 0 if every job succeeded, 1 if a job failed and 2 if the arguments are invalid.
+     */
+    public static int run(String[] args) {
+        BatchOptions options;
+        List<BatchJob> jobs;
+
+        try {
+            options = BatchOptions.parse(args);
+
+            if (options.isHelp()) {
+                System.out.println(BatchOptions.USAGE);
+                return 0;
+            }
+
+            jobs = options.getJobs();
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println(e.getMessage());
+            System.err.println(BatchOptions.USAGE);
+            return 2;
+        }
+
+        if (!options.getOut().isDirectory() && !options.getOut().mkdirs()) {
+            System.err.println("Can't create " + options.getOut());
+            return 2;
+        }
+
+        if (options.getMetrics() != null) {
+            Metrics.getInstance().setEnabled(true);
+        }
+
+        System.out.println("Running " + jobs.size() + " jobs on " + Math.min(options.getThreads(), jobs.size()) + " threads");
+
+        long start = System.nanoTime();
+
+        List<BatchJob.Result> results = Observable.fromIterable(jobs)
+                .flatMap(job -> Observable.fromCallable(job).subscribeOn(Schedulers.io()), options.getThreads())
+                .doOnNext(Batch::print)
+                .toList()
+                .blockingGet();
+
+        int failed = 0;
+        for (BatchJob.Result result : results) {
+            if (result.error() != null) {
+                failed++;
+            }
+        }
+
+        System.out.println(String.format("%d jobs, %d failed in %d ms", results.size(), failed, millis(System.nanoTime() - start)));
+
+        if (options.getMetrics() != null) {
+            writeMetrics(options.getMetrics());
+        }
+
+        return failed == 0 ? 0 : 1;
+    }
+
+    private static void print(BatchJob.Result result) {
+        StringBuilder stages = new StringBuilder();
+        for (Map.Entry<String, Long> entry : result.timings().entrySet()) {
+            if (stages.length() > 0) {
+                stages.append(' ');
+            }
+            stages.append(entry.getKey()).append('=').append(millis(entry.getValue())).append("ms");
+        }
+
+        if (result.error() == null) {
+            System.out.println(String.format("%s ok %d ms [%s] %s", result.name(), millis(result.totalNanos()), stages, String.join(",", result.tables())));
+        } else {
+            System.err.println(String.format("%s failed %d ms [%s] %s", result.name(), millis(result.totalNanos()), stages, result.error().getMessage()));
+            if (!(result.error() instanceof IllegalArgumentException) && !(result.error() instanceof IllegalStateException)) {
+                result.error().printStackTrace();
+            }
+        }
+    }
+
+    private static void writeMetrics(File file) {
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(Metrics.getInstance().toJson());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
@@ -0,0 +1,280 @@
+package presentation.batch;
+
+import data.contract.Me7LogFileContract;
+import data.parser.afrLog.AfrLogParser;
+import data.parser.bin.BinDecoder;
+import data.parser.me7log.Me7LogParser;
+import data.parser.xdf.TableDefinition;
+import data.parser.xdf.XdfParser;
+import data.writer.BinWriter;
+import domain.math.RescaleAxis;
+import domain.math.TopFractionMean;
+import domain.math.map.Map3d;
+import domain.model.closedloopfueling.ClosedLoopFuelingCorrection;
+import domain.model.closedloopfueling.ClosedLoopFuelingCorrectionManager;
+import domain.model.kfvpdksd.Kfvpdksd;
+import domain.model.ldrpid.LdrpidCalculator;
+import domain.model.openloopfueling.correction.OpenLoopMlhfmCorrection;
+import domain.model.openloopfueling.correction.OpenLoopMlhfmCorrectionManager;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs the calibrations of one bin without touching the UI or the preferences. The corrected tables are written to
+ * a copy of the bin in the output directory, or exported as CSV.
+ */
+public class BatchJob implements Callable<BatchJob.Result> {
+
+    private static final Me7LogParser.ProgressCallback NO_PROGRESS = (value, max) -> {};
+
+    private final BatchOptions options;
+    private final File bin;
+    private final File xdf;
+    private final File closedLoop;
+    private final File openLoop;
+    private final File afr;
+    private final File ldrpid;
+    private final File kfvpdksd;
+
+    private final Map<String, Long> timings = new LinkedHashMap<>();
+
+    /**
+     * @throws IllegalArgumentException if both closed loop and open loop logs are given. Both correct the same MLHFM,
+     *                                  so one result would silently replace the other.
+     */
+    BatchJob(BatchOptions options, File bin, File xdf, File closedLoop, File openLoop, File afr, File ldrpid, File kfvpdksd) {
+        if (closedLoop != null && openLoop != null) {
+            throw new IllegalArgumentException(bin.getName() + ": MLHFM is corrected from either closed loop or open loop logs, not both");
+        }
+
+        this.options = options;
+        this.bin = bin;
+        this.xdf = xdf;
+        this.closedLoop = closedLoop;
+        this.openLoop = openLoop;
+        this.afr = afr;
+        this.ldrpid = ldrpid;
+        this.kfvpdksd = kfvpdksd;
+    }
+
+    public String getName() {
+        return bin.getName();
+    }
+
+    /**
+     * Never throws, a failed job is reported through {@link Result#error()}.
+     */
+    @Override
+    public Result call() {
+        long start = System.nanoTime();
+        List<String> tables = new ArrayList<>();
+
+        try {
+            List<TableDefinition> tableDefinitions = time("xdf", () -> {
+                try (InputStream inputStream = new FileInputStream(xdf)) {
+                    return XdfParser.parseTableDefinitions(inputStream);
+                }
+            });
+
+            byte[] bytes = time("bin", () -> Files.readAllBytes(bin.toPath()));
+
+            // Only the tables that are calibrated are decoded
+            Map<String, TableDefinition> definitions = new LinkedHashMap<>();
+            if (closedLoop != null || openLoop != null) {
+                definitions.put(options.mlhfmTable, find(tableDefinitions, options.mlhfmTable));
+            }
+            if (ldrpid != null) {
+                definitions.put(options.kfldrlTable, find(tableDefinitions, options.kfldrlTable));
+                definitions.put(options.kfldimxTable, find(tableDefinitions, options.kfldimxTable));
+            }
+            if (kfvpdksd != null) {
+                definitions.put(options.kfvpdksdTable, find(tableDefinitions, options.kfvpdksdTable));
+            }
+
+            Map<String, Map3d> maps = time("decode", () -> {
+                BinDecoder binDecoder = new BinDecoder();
+                Map<String, Map3d> decoded = new HashMap<>();
+                for (Map.Entry<String, TableDefinition> entry : definitions.entrySet()) {
+                    decoded.put(entry.getKey(), binDecoder.decode(bytes, entry.getValue()));
+                }
+                return decoded;
+            });
+
+            Map<TableDefinition, Map3d> corrected = new LinkedHashMap<>();
+
+            // The constructor makes sure that only one of them corrects MLHFM
+            if (closedLoop != null) {
+                corrected.put(definitions.get(options.mlhfmTable), correctClosedLoop(maps.get(options.mlhfmTable)));
+            } else if (openLoop != null) {
+                corrected.put(definitions.get(options.mlhfmTable), correctOpenLoop(maps.get(options.mlhfmTable)));
+            }
+
+            if (ldrpid != null) {
+                LdrpidCalculator.LdrpidResult result = calculateLdrpid(maps.get(options.kfldrlTable), maps.get(options.kfldimxTable));
+                corrected.put(definitions.get(options.kfldrlTable), result.kfldrl);
+                corrected.put(definitions.get(options.kfldimxTable), result.kfldimx);
+            }
+
+            if (kfvpdksd != null) {
+                corrected.put(definitions.get(options.kfvpdksdTable), calculateKfvpdksd(maps.get(options.kfvpdksdTable)));
+            }
+
+            if (options.isExport()) {
+                time("export", () -> {
+                    export(corrected);
+                    return null;
+                });
+            } else {
+                time("write", () -> {
+                    write(corrected);
+                    return null;
+                });
+            }
+
+            for (TableDefinition tableDefinition : corrected.keySet()) {
+                tables.add(tableDefinition.getTableName());
+            }
+
+            return new Result(getName(), timings, System.nanoTime() - start, tables, null);
+        } catch (Exception e) {
+            return new Result(getName(), timings, System.nanoTime() - start, tables, e);
+        }
+    }
+
+    private Map3d correctClosedLoop(Map3d mlhfm) throws Exception {
+        List<Map<Me7LogFileContract.Header, List<Double>>> logs = time("closed-loop.logs", () -> new Me7LogParser().parseLogFiles(Me7LogParser.LogType.CLOSED_LOOP, closedLoop, NO_PROGRESS));
+
+        return time("closed-loop", () -> {
+            ClosedLoopFuelingCorrectionManager manager = new ClosedLoopFuelingCorrectionManager(options.closedLoopMinThrottleAngle, options.closedLoopMinRpm, options.closedLoopMaxDerivative);
+            manager.correct(logs, mlhfm);
+            ClosedLoopFuelingCorrection correction = manager.getClosedLoopMlhfmCorrection();
+
+            if (correction == null) {
+                throw new IllegalStateException("No closed loop correction for " + closedLoop);
+            }
+
+            return correction.fitMlhfm;
+        });
+    }
+
+    private Map3d correctOpenLoop(Map3d mlhfm) throws Exception {
+        Map<Me7LogFileContract.Header, List<Double>> me7Log = time("open-loop.logs", () -> new Me7LogParser().parseLogFile(Me7LogParser.LogType.OPEN_LOOP, openLoop));
+        Map<String, List<Double>> afrLog = time("open-loop.afr", () -> afr == null ? AfrLogParser.getInstance().parseLog(me7Log) : AfrLogParser.getInstance().parseLogFile(afr));
+
+        if (afrLog.isEmpty()) {
+            throw new IllegalStateException(openLoop + " has no wideband, an --afr log is needed");
+        }
+
+        return time("open-loop", () -> {
+            OpenLoopMlhfmCorrectionManager manager = new OpenLoopMlhfmCorrectionManager(options.openLoopMinThrottleAngle, options.openLoopMinRpm, options.openLoopMinPointsMe7, options.openLoopMinPointsAfr, options.openLoopMaxAfr);
+            manager.correct(me7Log, afrLog, mlhfm);
+            OpenLoopMlhfmCorrection correction = manager.getOpenLoopCorrection();
+
+            if (correction == null) {
+                throw new IllegalStateException("No open loop correction for " + openLoop);
+            }
+
+            return correction.fitMlhfm;
+        });
+    }
+
+    private LdrpidCalculator.LdrpidResult calculateLdrpid(Map3d kfldrl, Map3d kfldimx) throws Exception {
+        List<Map<Me7LogFileContract.Header, List<Double>>> logs = time("ldrpid.logs", () -> new Me7LogParser().parseLogFiles(Me7LogParser.LogType.LDRPID, ldrpid, NO_PROGRESS));
+
+        return time("ldrpid", () -> LdrpidCalculator.caclulateLdrpid(logs, kfldrl, kfldimx));
+    }
+
+    private Map3d calculateKfvpdksd(Map3d table) throws Exception {
+        Double[] rpmAxis = table.yAxis;
+
+        // The logs are reduced to pressure sketches as they are parsed, so this is timed as one stage
+        return time("kfvpdksd", () -> {
+            TopFractionMean[] sketches = new Me7LogParser().reduceLogFiles(Me7LogParser.LogType.KFVPDKSD, kfvpdksd, log -> Kfvpdksd.parsePressureSketches(log, rpmAxis), TopFractionMean::merge, NO_PROGRESS);
+
+            if (sketches == null) {
+                throw new IllegalStateException("No logs in " + kfvpdksd);
+            }
+
+            Double[] maxPressure = Kfvpdksd.getMaxPressure(sketches);
+            Double[] pressureRatio = RescaleAxis.rescaleAxis(table.xAxis, (1000 + Collections.max(Arrays.asList(maxPressure))) / 1000d);
+
+            return new Map3d(pressureRatio, rpmAxis, Kfvpdksd.generate(maxPressure, rpmAxis, pressureRatio).getKfvpdksd());
+        });
+    }
+
+    private void write(Map<TableDefinition, Map3d> corrected) throws Exception {
+        File file = new File(options.getOut(), bin.getName());
+        Files.copy(bin.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        for (Map.Entry<TableDefinition, Map3d> entry : corrected.entrySet()) {
+            BinWriter.getInstance().writeTable(file, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Writes each table to {@code <bin>_<table>.csv} with the x axis in the first row and the y axis in the first
+     * column.
+     */
+    private void export(Map<TableDefinition, Map3d> corrected) throws Exception {
+        String name = bin.getName().replaceFirst("\\.[^.]*$", "");
+
+        for (Map.Entry<TableDefinition, Map3d> entry : corrected.entrySet()) {
+            Map3d map = entry.getValue();
+            File file = new File(options.getOut(), name + "_" + entry.getKey().getTableName() + ".csv");
+
+            try (Writer writer = new FileWriter(file); CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT)) {
+                List<Object> header = new ArrayList<>();
+                header.add("");
+                header.addAll(Arrays.asList(map.xAxis));
+                printer.printRecord(header);
+
+                for (int i = 0; i < map.zAxis.length; i++) {
+                    List<Object> row = new ArrayList<>();
+                    row.add(i < map.yAxis.length ? map.yAxis[i] : "");
+                    row.addAll(Arrays.asList(map.zAxis[i]));
+                    printer.printRecord(row);
+                }
+            }
+        }
+    }
+
+    private static TableDefinition find(List<TableDefinition> tableDefinitions, String tableName) {
+        for (TableDefinition tableDefinition : tableDefinitions) {
+            if (tableName.equals(tableDefinition.getTableName())) {
+                return tableDefinition;
+            }
+        }
+
+        throw new IllegalArgumentException("No table " + tableName + " in the xdf");
+    }
+
+    private <T> T time(String stage, Step<T> step) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return step.run();
+        } finally {
+            timings.merge(stage, System.nanoTime() - start, Long::sum);
+        }
+    }
+
+    private interface Step<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * @param timings the nanoseconds spent per stage, in the order the stages ran.
+     * @param tables  the names of the tables that were written or exported.
+     * @param error   null if the job succeeded.
+     */
+    public record Result(String name, Map<String, Long> timings, long totalNanos, List<String> tables, Exception error) {}
+}
@@ -0,0 +1,247 @@
+package presentation.batch;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The command line of a batch run. Options given on the command line apply to every job, and a jobs file can
+ * override the bin, XDF and logs per job.
+ */
+public class BatchOptions {
+
+    public static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -jar ME7Tuner.jar --batch [options]",
+            "",
+            "Jobs",
+            "  --bin <file>                  bin to calibrate",
+            "  --xdf <file>                  table definitions of the bin",
+            "  --jobs <csv>                  one job per row with the columns bin, xdf, closed-loop, open-loop, afr,",
+            "                                ldrpid and kfvpdksd. Empty columns fall back to the options below",
+            "  --out <dir>                   directory for the corrected bins (required)",
+            "  --export                      write the corrected tables as CSV instead of writing bins",
+            "  --threads <n>                 jobs to run concurrently (default " + defaultThreads() + ")",
+            "  --metrics <file>              write the pipeline stage timings as JSON",
+            "",
+            "Calibrations",
+            "  --closed-loop <dir>           correct MLHFM from the closed loop logs in the directory",
+            "  --open-loop <file>            correct MLHFM from an open loop log",
+            "  --afr <file>                  Zeitronix log for --open-loop, otherwise the wideband of the ME7 log is used",
+            "  --ldrpid <dir>                calculate KFLDRL and KFLDIMX from the logs in the directory",
+            "  --kfvpdksd <dir>              calculate KFVPDKSD from the logs in the directory",
+            "",
+            "Parameters",
+            "  --closed-loop-min-throttle <deg>   (default 0)",
+            "  --closed-loop-min-rpm <rpm>        (default 0)",
+            "  --closed-loop-max-dmafv <V/s>      (default 1)",
+            "  --open-loop-min-throttle <deg>     (default 80)",
+            "  --open-loop-min-rpm <rpm>          (default 2000)",
+            "  --open-loop-min-me7-points <n>     (default 75)",
+            "  --open-loop-min-afr-points <n>     (default 150)",
+            "  --open-loop-max-afr <afr>          (default 16)",
+            "  --mlhfm-table <title>              (default MLHFM)",
+            "  --kfldrl-table <title>             (default KFLDRL)",
+            "  --kfldimx-table <title>            (default KFLDIMX)",
+            "  --kfvpdksd-table <title>           (default KFVPDKSD)");
+
+    private File bin;
+    private File xdf;
+    private File jobs;
+    private File out;
+    private File metrics;
+    private boolean export;
+    private boolean help;
+    private int threads = defaultThreads();
+
+    private File closedLoop;
+    private File openLoop;
+    private File afr;
+    private File ldrpid;
+    private File kfvpdksd;
+
+    double closedLoopMinThrottleAngle = 0;
+    double closedLoopMinRpm = 0;
+    double closedLoopMaxDerivative = 1;
+
+    double openLoopMinThrottleAngle = 80;
+    double openLoopMinRpm = 2000;
+    int openLoopMinPointsMe7 = 75;
+    int openLoopMinPointsAfr = 150;
+    double openLoopMaxAfr = 16;
+
+    String mlhfmTable = "MLHFM";
+    String kfldrlTable = "KFLDRL";
+    String kfldimxTable = "KFLDIMX";
+    String kfvpdksdTable = "KFVPDKSD";
+
+    private BatchOptions() {}
+
+    /**
+     * @throws IllegalArgumentException if an option is unknown or is missing its value.
+     */
+    public static BatchOptions parse(String[] args) {
+        BatchOptions options = new BatchOptions();
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+
+            switch (option) {
+                case "--help", "-h" -> options.help = true;
+                case "--export" -> options.export = true;
+                case "--bin" -> options.bin = new File(value(args, ++i, option));
+                case "--xdf" -> options.xdf = new File(value(args, ++i, option));
+                case "--jobs" -> options.jobs = new File(value(args, ++i, option));
+                case "--out" -> options.out = new File(value(args, ++i, option));
+                case "--metrics" -> options.metrics = new File(value(args, ++i, option));
+                case "--threads" -> options.threads = Math.max(1, parseInt(value(args, ++i, option), option));
+                case "--closed-loop" -> options.closedLoop = new File(value(args, ++i, option));
+                case "--open-loop" -> options.openLoop = new File(value(args, ++i, option));
+                case "--afr" -> options.afr = new File(value(args, ++i, option));
+                case "--ldrpid" -> options.ldrpid = new File(value(args, ++i, option));
+                case "--kfvpdksd" -> options.kfvpdksd = new File(value(args, ++i, option));
+                case "--closed-loop-min-throttle" -> options.closedLoopMinThrottleAngle = parseDouble(value(args, ++i, option), option);
+                case "--closed-loop-min-rpm" -> options.closedLoopMinRpm = parseDouble(value(args, ++i, option), option);
+                case "--closed-loop-max-dmafv" -> options.closedLoopMaxDerivative = parseDouble(value(args, ++i, option), option);
+                case "--open-loop-min-throttle" -> options.openLoopMinThrottleAngle = parseDouble(value(args, ++i, option), option);
+                case "--open-loop-min-rpm" -> options.openLoopMinRpm = parseDouble(value(args, ++i, option), option);
+                case "--open-loop-min-me7-points" -> options.openLoopMinPointsMe7 = parseInt(value(args, ++i, option), option);
+                case "--open-loop-min-afr-points" -> options.openLoopMinPointsAfr = parseInt(value(args, ++i, option), option);
+                case "--open-loop-max-afr" -> options.openLoopMaxAfr = parseDouble(value(args, ++i, option), option);
+                case "--mlhfm-table" -> options.mlhfmTable = value(args, ++i, option);
+                case "--kfldrl-table" -> options.kfldrlTable = value(args, ++i, option);
+                case "--kfldimx-table" -> options.kfldimxTable = value(args, ++i, option);
+                case "--kfvpdksd-table" -> options.kfvpdksdTable = value(args, ++i, option);
+                default -> throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+
+        if (!options.help && options.out == null) {
+            throw new IllegalArgumentException("--out is required");
+        }
+
+        return options;
+    }
+
+    public boolean isHelp() {
+        return help;
+    }
+
+    public boolean isExport() {
+        return export;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public File getOut() {
+        return out;
+    }
+
+    public File getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return one job per row of the jobs file, or a single job of the command line options.
+     * @throws IllegalArgumentException if a job is incomplete or two jobs would write the same bin.
+     */
+    public List<BatchJob> getJobs() throws IOException {
+        List<BatchJob> jobList = new ArrayList<>();
+
+        if (jobs == null) {
+            jobList.add(createJob(bin, xdf, closedLoop, openLoop, afr, ldrpid, kfvpdksd));
+        } else {
+            File directory = jobs.getAbsoluteFile().getParentFile();
+
+            try (Reader reader = new FileReader(jobs);
+                 CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().withTrim().parse(reader)) {
+                for (CSVRecord record : parser) {
+                    jobList.add(createJob(
+                            column(record, "bin", directory, bin),
+                            column(record, "xdf", directory, xdf),
+                            column(record, "closed-loop", directory, closedLoop),
+                            column(record, "open-loop", directory, openLoop),
+                            column(record, "afr", directory, afr),
+                            column(record, "ldrpid", directory, ldrpid),
+                            column(record, "kfvpdksd", directory, kfvpdksd)));
+                }
+            }
+        }
+
+        Set<String> names = new HashSet<>();
+        for (BatchJob job : jobList) {
+            if (!names.add(job.getName())) {
+                throw new IllegalArgumentException("More than one job calibrates a bin named " + job.getName());
+            }
+        }
+
+        return jobList;
+    }
+
+    private BatchJob createJob(File bin, File xdf, File closedLoop, File openLoop, File afr, File ldrpid, File kfvpdksd) throws IOException {
+        if (bin == null || xdf == null) {
+            throw new IllegalArgumentException("Every job needs a bin and an xdf");
+        }
+
+        if (closedLoop == null && openLoop == null && ldrpid == null && kfvpdksd == null) {
+            throw new IllegalArgumentException(bin.getName() + ": no calibration to run");
+        }
+
+        if (!export && new File(out, bin.getName()).getCanonicalFile().equals(bin.getCanonicalFile())) {
+            throw new IllegalArgumentException("Refusing to overwrite " + bin + ", choose another --out");
+        }
+
+        return new BatchJob(this, bin, xdf, closedLoop, openLoop, afr, ldrpid, kfvpdksd);
+    }
+
+    private static File column(CSVRecord record, String name, File directory, File defaultFile) {
+        String value = record.isMapped(name) ? record.get(name) : "";
+
+        if (value.isEmpty()) {
+            return defaultFile;
+        }
+
+        // Paths in the jobs file are relative to the jobs file
+        File file = new File(value);
+        return file.isAbsolute() ? file : new File(directory, value);
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+
+        return args[index];
+    }
+
+    private static double parseDouble(String value, String option) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + " needs a number, got " + value);
+        }
+    }
+
+    private static int parseInt(String value, String option) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + " needs an integer, got " + value);
+        }
+    }
+
+    // Each job also parses its logs in parallel, so only half of the cores run jobs
+    private static int defaultThreads() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+}
@@ -0,0 +1,419 @@
+package presentation.chart;
+
+import domain.metrics.Counter;
+import domain.metrics.Metrics;
+import domain.metrics.Stage;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.event.AxisChangeEvent;
+import org.jfree.chart.event.AxisChangeListener;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.data.DomainInfo;
+import org.jfree.data.Range;
+import org.jfree.data.RangeInfo;
+import org.jfree.data.xy.AbstractXYDataset;
+import org.jfree.data.xy.XYDomainInfo;
+import org.jfree.data.xy.XYRangeInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * An XYDataset for plots of whole logs. The samples are kept in primitive arrays, sorted by x like an XYSeries, and
+ * only a decimated subset of the visible samples is handed to the renderer, so the number of drawn points has a
+ * fixed ceiling however large the logs are. Lines are decimated with Largest-Triangle-Three-Buckets and scatter
+ * plots keep one sample per cell of a grid over the visible area. Once attached to a plot the subset is recalculated
+ * whenever the axes are zoomed or panned.
+ *
+ * The bounds reported for auto-ranging always cover all of the samples.
+ */
+public class DecimatedXYDataset extends AbstractXYDataset implements DomainInfo, RangeInfo, XYDomainInfo, XYRangeInfo, AxisChangeListener {
+
+    public enum Mode {
+        LINE,
+        SCATTER
+    }
+
+    private static final int MAX_LINE_POINTS = 2000;
+    private static final int GRID_COLUMNS = 400;
+    private static final int GRID_ROWS = 250;
+
+    private static final Stage ADD_SERIES = Metrics.getInstance().stage("chart.addSeries");
+    private static final Stage DECIMATE = Metrics.getInstance().stage("chart.decimate");
+    private static final Counter SERIES_POINTS = Metrics.getInstance().counter("chart.addSeries.points", ADD_SERIES);
+
+    private final Mode mode;
+    private final List<Series> series = new ArrayList<>();
+
+    private ValueAxis domainAxis;
+    private ValueAxis rangeAxis;
+
+    private Range visibleDomain;
+    private Range visibleRange;
+
+    public DecimatedXYDataset(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Recalculates the drawn samples whenever the axes of the plot change.
+     */
+    public void attach(XYPlot plot) {
+        domainAxis = plot.getDomainAxis();
+        rangeAxis = plot.getRangeAxis();
+        domainAxis.addChangeListener(this);
+        rangeAxis.addChangeListener(this);
+    }
+
+    public void addSeries(String key, double[] x, double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("x and y must be the same length!");
+        }
+
+        long start = ADD_SERIES.start();
+        Series s = new Series(key, x, y);
+        decimate(s);
+        ADD_SERIES.stop(start);
+        SERIES_POINTS.add(x.length);
+
+        series.add(s);
+        fireDatasetChanged();
+    }
+
+    public void addSeries(String key, List<Double> x, List<Double> y) {
+        addSeries(key, toPrimitive(x), toPrimitive(y));
+    }
+
+    public void removeAllSeries() {
+        series.clear();
+        fireDatasetChanged();
+    }
+
+    @Override
+    public void axisChanged(AxisChangeEvent event) {
+        Range visibleDomain = domainAxis.isAutoRange() ? null : domainAxis.getRange();
+        Range visibleRange = rangeAxis.isAutoRange() || mode == Mode.LINE ? null : rangeAxis.getRange();
+
+        if (!Objects.equals(visibleDomain, this.visibleDomain) || !Objects.equals(visibleRange, this.visibleRange)) {
+            this.visibleDomain = visibleDomain;
+            this.visibleRange = visibleRange;
+
+            long start = DECIMATE.start();
+            series.forEach(this::decimate);
+            DECIMATE.stop(start);
+
+            fireDatasetChanged();
+        }
+    }
+
+    @Override
+    public int getSeriesCount() {
+        return series.size();
+    }
+
+    @Override
+    public Comparable<?> getSeriesKey(int series) {
+        return this.series.get(series).key;
+    }
+
+    @Override
+    public int getItemCount(int series) {
+        return this.series.get(series).drawn.length;
+    }
+
+    @Override
+    public Number getX(int series, int item) {
+        return getXValue(series, item);
+    }
+
+    @Override
+    public Number getY(int series, int item) {
+        return getYValue(series, item);
+    }
+
+    @Override
+    public double getXValue(int series, int item) {
+        Series s = this.series.get(series);
+        return s.x[s.drawn[item]];
+    }
+
+    @Override
+    public double getYValue(int series, int item) {
+        Series s = this.series.get(series);
+        return s.y[s.drawn[item]];
+    }
+
+    @Override
+    public double getDomainLowerBound(boolean includeInterval) {
+        Range bounds = getDomainBounds(includeInterval);
+        return bounds == null ? Double.NaN : bounds.getLowerBound();
+    }
+
+    @Override
+    public double getDomainUpperBound(boolean includeInterval) {
+        Range bounds = getDomainBounds(includeInterval);
+        return bounds == null ? Double.NaN : bounds.getUpperBound();
+    }
+
+    @Override
+    public Range getDomainBounds(boolean includeInterval) {
+        return getDomainBounds(null, includeInterval);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Range getDomainBounds(List visibleSeriesKeys, boolean includeInterval) {
+        Range bounds = null;
+        for (Series s : series) {
+            if (s.x.length > 0 && (visibleSeriesKeys == null || visibleSeriesKeys.contains(s.key))) {
+                bounds = Range.combine(bounds, new Range(s.x[0], s.x[s.x.length - 1]));
+            }
+        }
+
+        return bounds;
+    }
+
+    @Override
+    public double getRangeLowerBound(boolean includeInterval) {
+        Range bounds = getRangeBounds(includeInterval);
+        return bounds == null ? Double.NaN : bounds.getLowerBound();
+    }
+
+    @Override
+    public double getRangeUpperBound(boolean includeInterval) {
+        Range bounds = getRangeBounds(includeInterval);
+        return bounds == null ? Double.NaN : bounds.getUpperBound();
+    }
+
+    @Override
+    public Range getRangeBounds(boolean includeInterval) {
+        return getRangeBounds(null, null, includeInterval);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Range getRangeBounds(List visibleSeriesKeys, Range xRange, boolean includeInterval) {
+        Range bounds = null;
+        for (Series s : series) {
+            if (visibleSeriesKeys == null || visibleSeriesKeys.contains(s.key)) {
+                bounds = Range.combine(bounds, s.getRangeBounds(xRange));
+            }
+        }
+
+        return bounds;
+    }
+
+    private void decimate(Series s) {
+        int from = visibleDomain == null ? 0 : lowerBound(s.x, visibleDomain.getLowerBound());
+        int to = visibleDomain == null ? s.x.length : upperBound(s.x, visibleDomain.getUpperBound());
+
+        if (mode == Mode.LINE) {
+            // Keep a sample on either side so the lines run to the edges of the plot
+            s.drawn = largestTriangleThreeBuckets(s, Math.max(0, from - 1), Math.min(s.x.length, to + 1), MAX_LINE_POINTS);
+        } else {
+            s.drawn = densityGrid(s, from, to);
+        }
+    }
+
+    private static int[] largestTriangleThreeBuckets(Series s, int from, int to, int threshold) {
+        int n = to - from;
+
+        if (n <= threshold) {
+            return IntStream.range(from, to).toArray();
+        }
+
+        int[] sampled = new int[threshold];
+        double every = (double) (n - 2) / (threshold - 2);
+
+        int a = from;
+        sampled[0] = a;
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // The average of the next bucket is the third point of the triangle
+            int averageStart = from + (int) Math.floor((i + 1) * every) + 1;
+            int averageEnd = Math.min(from + (int) Math.floor((i + 2) * every) + 1, to);
+
+            double averageX = 0;
+            double averageY = 0;
+            for (int j = averageStart; j < averageEnd; j++) {
+                averageX += s.x[j];
+                averageY += s.y[j];
+            }
+            averageX /= (averageEnd - averageStart);
+            averageY /= (averageEnd - averageStart);
+
+            int rangeStart = from + (int) Math.floor(i * every) + 1;
+            int rangeEnd = from + (int) Math.floor((i + 1) * every) + 1;
+
+            double pointAX = s.x[a];
+            double pointAY = s.y[a];
+
+            double maxArea = -1;
+            int next = rangeStart;
+
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((pointAX - averageX) * (s.y[j] - pointAY) - (pointAX - s.x[j]) * (averageY - pointAY));
+
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+
+            sampled[i + 1] = next;
+            a = next;
+        }
+
+        sampled[threshold - 1] = to - 1;
+
+        return sampled;
+    }
+
+    private int[] densityGrid(Series s, int from, int to) {
+        if (to <= from) {
+            return new int[0];
+        }
+
+        double minX = s.x[from];
+        double maxX = s.x[to - 1];
+
+        double minY;
+        double maxY;
+        if (visibleRange != null) {
+            minY = visibleRange.getLowerBound();
+            maxY = visibleRange.getUpperBound();
+        } else {
+            Range bounds = s.getRangeBounds(visibleDomain);
+            if (bounds == null) {
+                return new int[0];
+            }
+
+            minY = bounds.getLowerBound();
+            maxY = bounds.getUpperBound();
+        }
+
+        double columnScale = maxX > minX ? GRID_COLUMNS / (maxX - minX) : 0;
+        double rowScale = maxY > minY ? GRID_ROWS / (maxY - minY) : 0;
+
+        boolean[] occupied = new boolean[GRID_COLUMNS * GRID_ROWS];
+        int[] drawn = new int[Math.min(to - from, occupied.length)];
+        int count = 0;
+
+        for (int i = from; i < to && count < drawn.length; i++) {
+            double y = s.y[i];
+
+            if (Double.isNaN(y) || y < minY || y > maxY) {
+                continue;
+            }
+
+            int column = Math.min(GRID_COLUMNS - 1, (int) ((s.x[i] - minX) * columnScale));
+            int row = Math.min(GRID_ROWS - 1, (int) ((y - minY) * rowScale));
+            int cell = row * GRID_COLUMNS + column;
+
+            if (!occupied[cell]) {
+                occupied[cell] = true;
+                drawn[count++] = i;
+            }
+        }
+
+        return Arrays.copyOf(drawn, count);
+    }
+
+    // Index of the first value >= key
+    private static int lowerBound(double[] sorted, double key) {
+        int low = 0;
+        int high = sorted.length;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    // Index of the first value > key
+    private static int upperBound(double[] sorted, double key) {
+        int low = 0;
+        int high = sorted.length;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    private static double[] toPrimitive(List<Double> values) {
+        double[] result = new double[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            Double value = values.get(i);
+            result[i] = value == null ? Double.NaN : value;
+        }
+
+        return result;
+    }
+
+    private static class Series {
+        private final String key;
+        private final double[] x;
+        private final double[] y;
+        private final Range yBounds;
+
+        // Indices of the samples handed to the renderer
+        private int[] drawn = new int[0];
+
+        private Series(String key, double[] x, double[] y) {
+            // Sorted by x like an XYSeries, samples with the same x keep their order
+            int[] order = IntStream.range(0, x.length).parallel().filter(i -> !Double.isNaN(x[i])).boxed()
+                    .sorted(Comparator.comparingDouble(i -> x[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            this.key = key;
+            this.x = new double[order.length];
+            this.y = new double[order.length];
+
+            for (int i = 0; i < order.length; i++) {
+                this.x[i] = x[order[i]];
+                this.y[i] = y[order[i]];
+            }
+
+            this.yBounds = getRangeBounds(0, this.y.length);
+        }
+
+        private Range getRangeBounds(Range xRange) {
+            if (xRange == null || (x.length > 0 && xRange.getLowerBound() <= x[0] && xRange.getUpperBound() >= x[x.length - 1])) {
+                return yBounds;
+            }
+
+            return getRangeBounds(lowerBound(x, xRange.getLowerBound()), upperBound(x, xRange.getUpperBound()));
+        }
+
+        private Range getRangeBounds(int from, int to) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+
+            for (int i = from; i < to; i++) {
+                if (!Double.isNaN(y[i])) {
+                    min = Math.min(min, y[i]);
+                    max = Math.max(max, y[i]);
+                }
+            }
+
+            return min <= max ? new Range(min, max) : null;
+        }
+    }
+}
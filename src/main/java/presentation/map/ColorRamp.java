@@ -0,0 +1,33 @@
+package presentation.map;
+
+import java.awt.*;
+
+/**
+ * The red (0) to green (1) hue ramp used to shade table cells. The colours are created once per bucket instead of
+ * once per painted cell.
+ */
+public class ColorRamp {
+
+    private static final int BUCKETS = 256;
+
+    private static final Color[] colors = new Color[BUCKETS + 1];
+
+    static {
+        for (int i = 0; i <= BUCKETS; i++) {
+            double H = ((double) i / BUCKETS) * 0.4; // Hue (note 0.4 = Green)
+            double S = 0.9; // Saturation
+            double B = 0.9; // Brightness
+
+            colors[i] = Color.getHSBColor((float) H, (float) S, (float) B);
+        }
+    }
+
+    /**
+     * @param value normalised to [0, 1], values outside of the range are clamped.
+     */
+    public static Color getColor(double value) {
+        int bucket = (int) Math.round(value * BUCKETS);
+
+        return colors[Math.max(0, Math.min(BUCKETS, bucket))];
+    }
+}
@@ -0,0 +1,220 @@
+package presentation.map;
+
+import javax.swing.table.AbstractTableModel;
+import java.text.DecimalFormat;
+import java.util.Arrays;
+
+/**
+ * A table model backed by a primitive grid. Missing values are kept as NaN and read back as null. Replacing the data
+ * only fires a structure change when the shape of the table changes, otherwise the rows that changed are updated in
+ * place. The range of the values and the formatted text of every cell are cached for the renderers.
+ */
+public class DoubleTableModel extends AbstractTableModel {
+
+    private final DecimalFormat formatter;
+
+    private int rows;
+    private int columns;
+    private double[] values = new double[0];
+    private Object[] columnNames = new Object[0];
+
+    // Formatted lazily, null until a cell is painted
+    private String[] text = new String[0];
+
+    private double minValue;
+    private double maxValue;
+
+    private boolean editable = true;
+
+    public DoubleTableModel(String pattern) {
+        this.formatter = new DecimalFormat(pattern);
+    }
+
+    public void setEditable(boolean editable) {
+        this.editable = editable;
+    }
+
+    /**
+     * Replaces the data and the column names. Rows may be null, which leaves them empty.
+     */
+    public void setData(Double[][] data, Object[] columnNames) {
+        int rows = data == null ? 0 : data.length;
+        int columns = columnNames == null ? 0 : columnNames.length;
+
+        if (rows != this.rows || columns != this.columns) {
+            this.rows = rows;
+            this.columns = columns;
+            this.values = new double[rows * columns];
+            this.text = new String[values.length];
+            this.columnNames = columnNames == null ? new Object[0] : columnNames.clone();
+            Arrays.fill(values, Double.NaN);
+            copy(data);
+            updateRange();
+
+            fireTableStructureChanged();
+            return;
+        }
+
+        this.columnNames = columnNames.clone();
+
+        int firstRow = rows;
+        int lastRow = -1;
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                int cell = i * columns + j;
+                double value = getValue(data, i, j);
+
+                if (Double.doubleToLongBits(value) != Double.doubleToLongBits(values[cell])) {
+                    values[cell] = value;
+                    text[cell] = null;
+                    firstRow = Math.min(firstRow, i);
+                    lastRow = Math.max(lastRow, i);
+                }
+            }
+        }
+
+        if (lastRow < 0) {
+            return;
+        }
+
+        double minValue = this.minValue;
+        double maxValue = this.maxValue;
+        updateRange();
+
+        // The colours of every cell depend on the range
+        if (minValue != this.minValue || maxValue != this.maxValue) {
+            fireTableRowsUpdated(0, rows - 1);
+        } else {
+            fireTableRowsUpdated(firstRow, lastRow);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        Object name = columnNames[column];
+
+        return name == null ? super.getColumnName(column) : name.toString();
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return Double.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return editable;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        double value = values[row * columns + column];
+
+        return Double.isNaN(value) ? null : value;
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        int cell = row * columns + column;
+        double previous = values[cell];
+
+        values[cell] = value instanceof Number number ? number.doubleValue() : Double.NaN;
+        text[cell] = null;
+
+        // Only a new extreme, or a change to the old one, moves the range
+        if (values[cell] > maxValue || values[cell] < minValue || previous == maxValue || previous == minValue) {
+            updateRange();
+            fireTableRowsUpdated(0, rows - 1);
+        } else {
+            fireTableCellUpdated(row, column);
+        }
+    }
+
+    /**
+     * @return the value of the cell, NaN if it is empty.
+     */
+    public double getDouble(int row, int column) {
+        return values[row * columns + column];
+    }
+
+    /**
+     * @return the formatted value of the cell, "0.0" if it is empty.
+     */
+    public String getText(int row, int column) {
+        int cell = row * columns + column;
+
+        if (text[cell] == null) {
+            text[cell] = Double.isNaN(values[cell]) ? "0.0" : formatter.format(values[cell]);
+        }
+
+        return text[cell];
+    }
+
+    /**
+     * @return the value normalised so the smallest value is 1 and the largest is 0, NaN if all of the values are
+     * the same.
+     */
+    public double getNormalizedValue(int row, int column) {
+        if (maxValue - minValue == 0) {
+            return Double.NaN;
+        }
+
+        return 1 - (values[row * columns + column] - minValue) / (maxValue - minValue);
+    }
+
+    public Double[][] toArray() {
+        Double[][] data = new Double[rows][columns];
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                data[i][j] = (Double) getValueAt(i, j);
+            }
+        }
+
+        return data;
+    }
+
+    private void copy(Double[][] data) {
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                values[i * columns + j] = getValue(data, i, j);
+            }
+        }
+    }
+
+    private static double getValue(Double[][] data, int row, int column) {
+        Double[] values = data[row];
+
+        if (values == null || column >= values.length || values[column] == null) {
+            return Double.NaN;
+        }
+
+        return values[column];
+    }
+
+    private void updateRange() {
+        double max = Double.NEGATIVE_INFINITY;
+        double min = Double.POSITIVE_INFINITY;
+
+        for (double value : values) {
+            if (!Double.isNaN(value)) {
+                max = Math.max(max, value);
+                min = Math.min(min, value);
+            }
+        }
+
+        this.maxValue = max;
+        this.minValue = min;
+    }
+}
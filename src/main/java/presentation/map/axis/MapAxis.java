@@ -4,32 +4,28 @@ package presentation.map.axis;
 import io.reactivex.subjects.PublishSubject;
 import domain.util.Debouncer;
 import domain.util.Util;
+import presentation.map.ColorRamp;
+import presentation.map.DoubleTableModel;
 
 import javax.swing.*;
 import javax.swing.event.TableModelEvent;
 import javax.swing.event.TableModelListener;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableColumn;
 import java.awt.*;
-import java.text.DecimalFormat;
 import java.util.concurrent.TimeUnit;
 
 public class MapAxis {
 
     private final JTable table;
     private final JScrollPane scrollPane;
-    private DefaultTableModel tableModel;
+    private final DecimalFormatRenderer cellRenderer = new DecimalFormatRenderer();
+    private DoubleTableModel tableModel;
     private Double[][] data;
 
     private final PublishSubject<Double[][]> publishSubject;
     private final Debouncer debouncer;
 
-    private boolean editable = true;
-
-    private double maxValue;
-    private double minValue;
-
     private MapAxis(Double[][] data) {
         this.table = this.createAxis(data);
         // Handle Copy/Paste
@@ -53,7 +49,7 @@ public class MapAxis {
     }
 
     public void setEditable(boolean editable) {
-        this.editable = editable;
+        tableModel.setEditable(editable);
     }
 
     public PublishSubject<Double[][]> getPublishSubject() {
@@ -66,27 +62,14 @@ public class MapAxis {
         }
 
         this.data = data;
-        setRange(data);
-        tableModel.setDataVector(this.data, new Double[data[0].length]);
+        tableModel.setData(this.data, new Double[data[0].length]);
         enforceTableColumnWidth(this.table);
         updateHeight();
     }
 
     private JTable createAxis(final Double[][] data) {
-        setRange(data);
-
-        tableModel = new DefaultTableModel(data, data[0]) {
-            @Override
-            public Class<?> getColumnClass(int column) {
-                return Double.class;
-            }
-
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                //all cells false
-                return editable;
-            }
-        };
+        tableModel = new DoubleTableModel("#.00");
+        tableModel.setData(data, data[0]);
 
         final JTable table = new JTable(tableModel);
 
@@ -101,14 +84,7 @@ public class MapAxis {
 
         table.getModel().addTableModelListener(new TableModelListener() {
             public void tableChanged(TableModelEvent e) {
-                Double[][] values = new Double[MapAxis.this.data.length][];
-
-                for (int i = 0; i < MapAxis.this.data.length; i++) {
-                    values[i] = new Double[MapAxis.this.data[i].length];
-                    for (int j = 0; j < MapAxis.this.data[i].length; j++) {
-                        values[i][j] = (Double) table.getModel().getValueAt(i, j);
-                    }
-                }
+                Double[][] values = tableModel.toArray();
 
                 MapAxis.this.data = values;
 
@@ -146,95 +122,37 @@ public class MapAxis {
             column = table.getColumnModel().getColumn(i);
             column.setPreferredWidth(55);
             column.setMaxWidth(55);
-
-            DefaultTableCellRenderer centerRenderer = new DecimalFormatRenderer();
-            centerRenderer.setHorizontalAlignment(JLabel.CENTER);
-            column.setCellRenderer(centerRenderer);
+            column.setCellRenderer(cellRenderer);
         }
     }
 
     private class DecimalFormatRenderer extends DefaultTableCellRenderer {
 
-        private final DecimalFormat formatter = new DecimalFormat("#.00");
+        private final Color selectionColor = Util.newColorWithAlpha(Color.CYAN, 50);
+
+        DecimalFormatRenderer() {
+            setHorizontalAlignment(JLabel.CENTER);
+        }
 
         public Component getTableCellRendererComponent(
                 JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+            setForeground(Color.WHITE);
 
-            Component c = super.getTableCellRendererComponent(table,value,isSelected,hasFocus,row,column);
-            c.setForeground(Color.WHITE);
+            ListSelectionModel rowSelection = table.getSelectionModel();
+            ListSelectionModel columnSelection = table.getColumnModel().getSelectionModel();
 
-            if (value != null) {
-                value = formatter.format(value);
-            } else {
-                value = 0.0;
-            }
+            boolean hasSelection = !columnSelection.isSelectionEmpty();
 
-            boolean hasSelection = table.getSelectedColumns().length > 0;
-
-            if (hasSelection) {
-                if (column >= table.getSelectedColumns()[0] && column <= table.getSelectedColumns()[table.getSelectedColumns().length - 1] && row >= table.getSelectedRows()[0] && row <= table.getSelectedRows()[table.getSelectedRows().length - 1]) {
-                    setBackground(Util.newColorWithAlpha(Color.CYAN, 50));
-                } else {
-                    if (value instanceof String) {
-                        double v = Double.parseDouble((String) value);
-                        double norm;
-                        if (maxValue - minValue != 0) {
-                            norm = 1-(v-minValue)/(maxValue - minValue);
-                            setBackground(getColor(norm));
-                        } else {
-                            setBackground(Color.GREEN);
-                        }
-                    } else {
-                        setBackground(null);
-                    }
-                }
+            if (hasSelection && column >= columnSelection.getMinSelectionIndex() && column <= columnSelection.getMaxSelectionIndex() && row >= rowSelection.getMinSelectionIndex() && row <= rowSelection.getMaxSelectionIndex()) {
+                setBackground(selectionColor);
+            } else if (Double.isNaN(tableModel.getDouble(row, column))) {
+                setBackground(null);
             } else {
-                if (value instanceof String) {
-                    double v = Double.parseDouble((String) value);
-                    double norm;
-                    if (maxValue - minValue != 0) {
-                        norm = 1-(v-minValue)/(maxValue - minValue);
-                        setBackground(getColor(norm));
-                    } else {
-                        setBackground(Color.GREEN);
-                    }
-                } else {
-                    setBackground(null);
-                }
-            }
-
-            return super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-        }
-
-        private Color getColor(double value) {
-            double H = value * 0.4; // Hue (note 0.4 = Green, see huge chart below)
-            double S = 0.9; // Saturation
-            double B = 0.9; // Brightness
-
-            return Color.getHSBColor((float) H, (float) S, (float) B);
-        }
-    }
-
-    private void setRange(Double[][] data) {
-        if (data != null) {
-            double max = Double.MIN_VALUE;
-            double min = Double.MAX_VALUE;
-            for (Double[] doubles : data) {
-                if(doubles != null) {
-                    for (Double value : doubles) {
-                        if (value != null) {
-                            max = Math.max(max, value);
-                            min = Math.min(min, value);
-                        }
-                    }
-                }
+                double norm = tableModel.getNormalizedValue(row, column);
+                setBackground(Double.isNaN(norm) ? Color.GREEN : ColorRamp.getColor(norm));
             }
 
-            this.maxValue = max;
-            this.minValue = min;
-        } else {
-            this.minValue = 0;
-            this.maxValue = 0;
+            return super.getTableCellRendererComponent(table, tableModel.getText(row, column), isSelected, hasFocus, row, column);
         }
     }
 }
@@ -1,9 +1,15 @@
 package presentation.map.map;
 
+import data.parser.xdf.TableDefinition;
+import io.reactivex.annotations.Nullable;
 import io.reactivex.subjects.PublishSubject;
 import domain.math.map.Map3d;
+import domain.math.map.MapHistory;
+import domain.math.map.MapVersion;
 import domain.util.Debouncer;
 import domain.util.Util;
+import presentation.map.ColorRamp;
+import presentation.map.DoubleTableModel;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
@@ -11,26 +17,35 @@ import javax.swing.event.TableModelEvent;
 import javax.swing.event.TableModelListener;
 import javax.swing.table.*;
 import java.awt.*;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
 import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 public class MapTable extends JList implements TableModelListener {
+    private final DecimalFormatRenderer cellRenderer = new DecimalFormatRenderer();
     private final JTable table;
     private Double[] rowHeaders;
     private Object[] columnHeaders;
     private Double[][] data;
-    private DefaultTableModel tableModel;
+    private DoubleTableModel tableModel;
     private final JScrollPane scrollPane;
 
     private final PublishSubject<Map3d> publishSubject;
     private final Debouncer debouncer;
 
     private Map3d map3d;
+    private final MapHistory history;
+    // The table and map last given to loadMap(), the table shows a copy of the map with the user's edits
+    private TableDefinition definition;
+    private Map3d source;
+    // False until a map replaces the empty one the table was created with
+    private boolean loaded;
 
-    private double maxValue;
-    private double minValue;
-
-    private boolean editable = true;
+    // Set while the table is loaded from code, so the table model changes aren't published as edits
+    private boolean loading;
 
     @SuppressWarnings("unchecked")
     private MapTable(Double[] rowHeaders, Object[] columnHeaders, Double[][] data) {
@@ -49,6 +64,7 @@ public class MapTable extends JList implements TableModelListener {
         map3d.yAxis = rowHeaders;
         map3d.zAxis = data;
 
+        this.history = new MapHistory(map3d);
         this.publishSubject = PublishSubject.create();
 
         setAutoscrolls(false);
@@ -64,9 +80,18 @@ public class MapTable extends JList implements TableModelListener {
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
         scrollPane.setOpaque(false);
         scrollPane.getViewport().setOpaque(false);
+        registerUndoRedo();
         updateHeight();
     }
 
+    private void registerUndoRedo() {
+        int mask = System.getProperty("os.name").toLowerCase().contains("mac") ? InputEvent.META_DOWN_MASK : InputEvent.CTRL_DOWN_MASK;
+
+        table.registerKeyboardAction(e -> undo(), "Undo", KeyStroke.getKeyStroke(KeyEvent.VK_Z, mask, false), JComponent.WHEN_FOCUSED);
+        table.registerKeyboardAction(e -> redo(), "Redo", KeyStroke.getKeyStroke(KeyEvent.VK_Y, mask, false), JComponent.WHEN_FOCUSED);
+        table.registerKeyboardAction(e -> redo(), "Redo", KeyStroke.getKeyStroke(KeyEvent.VK_Z, mask | InputEvent.SHIFT_DOWN_MASK, false), JComponent.WHEN_FOCUSED);
+    }
+
     private void updateHeight() {
         table.setPreferredScrollableViewportSize(
                 new Dimension(
@@ -75,7 +100,7 @@ public class MapTable extends JList implements TableModelListener {
     }
 
     public void setEditable(boolean editable) {
-        this.editable = editable;
+        tableModel.setEditable(editable);
     }
 
     public PublishSubject<Map3d> getPublishSubject() {
@@ -105,13 +130,79 @@ public class MapTable extends JList implements TableModelListener {
         return rowHeaders;
     }
 
+    /**
+     * Shows new content for the same table, e.g. a recalculated output. The change is recorded in the history so it
+     * can be undone.
+     */
     public void setMap(Map3d map3d) {
-        this.map3d = map3d;
+        setMap(map3d, !loaded);
+    }
+
+    private void setMap(Map3d map3d, boolean reset) {
+        // Edits are applied to a copy, the map may be shared with a BinParser snapshot
+        this.map3d = new Map3d(map3d);
+        this.loaded = true;
+
+        if (reset) {
+            history.reset(this.map3d);
+        } else {
+            history.commit(this.map3d);
+        }
+
+        setColumnHeaders(this.map3d.xAxis);
+        setRowHeaders(this.map3d.yAxis);
+        setTableData(this.map3d.zAxis);
+
+        updateHeight();
+    }
+
+    /**
+     * Loads a table from the bin. Nothing changes if the same content was loaded last, so a view model publishing the
+     * same table again doesn't revert the user's edits. The history starts over when a different table is loaded,
+     * new content for the same table is recorded in it.
+     *
+     * @param definition the table, null for the empty map shown when no table is selected.
+     * @return true if the table now shows a different map.
+     */
+    public boolean loadMap(@Nullable TableDefinition definition, Map3d map3d) {
+        boolean sameTable = loaded && Objects.equals(definition, this.definition);
+
+        if (sameTable && map3d.equals(source)) {
+            return false;
+        }
+
+        this.definition = definition;
+        this.source = new Map3d(map3d);
+
+        // Already showing it, e.g. an edit made in this table that came back through the view model
+        if (sameTable && map3d.equals(this.map3d)) {
+            return false;
+        }
+
+        setMap(map3d, !sameTable);
+        return true;
+    }
+
+    public void undo() {
+        if (history.canUndo()) {
+            applyVersion(history.undo());
+        }
+    }
+
+    public void redo() {
+        if (history.canRedo()) {
+            applyVersion(history.redo());
+        }
+    }
+
+    // Published like an edit, the history has already moved to the version
+    private void applyVersion(MapVersion version) {
+        map3d = version.toMap3d();
         setColumnHeaders(map3d.xAxis);
         setRowHeaders(map3d.yAxis);
         setTableData(map3d.zAxis);
 
-        updateHeight();
+        publishSubject.onNext(map3d);
     }
 
     public Map3d getMap3d() {
@@ -201,105 +292,60 @@ public class MapTable extends JList implements TableModelListener {
             column = table.getColumnModel().getColumn(i);
             column.setPreferredWidth(55);
             column.setMaxWidth(55);
-
-            DefaultTableCellRenderer centerRenderer = new DecimalFormatRenderer();
-            centerRenderer.setHorizontalAlignment(JLabel.CENTER);
-            column.setCellRenderer(centerRenderer);
+            column.setCellRenderer(cellRenderer);
         }
     }
 
     private class DecimalFormatRenderer extends DefaultTableCellRenderer {
 
-        private final DecimalFormat formatter = new DecimalFormat("#.##");
+        private final Color selectionColor = Util.newColorWithAlpha(Color.CYAN, 50);
+
+        DecimalFormatRenderer() {
+            setHorizontalAlignment(JLabel.CENTER);
+        }
 
         public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+            setForeground(Color.WHITE);
 
-            Component c = super.getTableCellRendererComponent(table,value,isSelected,hasFocus,row,column);
-            c.setForeground(Color.WHITE);
+            ListSelectionModel rowSelection = table.getSelectionModel();
+            ListSelectionModel columnSelection = table.getColumnModel().getSelectionModel();
 
-            if (value != null) {
-                value = formatter.format(value);
-            } else {
-                value = 0.0;
-            }
+            boolean hasSelection = !columnSelection.isSelectionEmpty();
 
-            boolean hasSelection = table.getSelectedColumns().length > 0;
-
-            if (hasSelection && table.hasFocus()) {
-                if (column >= table.getSelectedColumns()[0] && column <= table.getSelectedColumns()[table.getSelectedColumns().length - 1] && row >= table.getSelectedRows()[0] && row <= table.getSelectedRows()[table.getSelectedRows().length - 1]) {
-                    setBackground(Util.newColorWithAlpha(Color.CYAN, 50));
-                } else {
-                    if (value instanceof String) {
-                        double v = Double.parseDouble((String) value);
-                        double norm;
-                        if (maxValue - minValue != 0) {
-                            norm = 1 - (v - minValue) / (maxValue - minValue);
-                            setBackground(getColor(norm));
-                        } else {
-                            setBackground(Color.GREEN);
-                        }
-                    } else {
-                        setBackground(null);
-                    }
-                }
+            if (hasSelection && table.hasFocus() && column >= columnSelection.getMinSelectionIndex() && column <= columnSelection.getMaxSelectionIndex() && row >= rowSelection.getMinSelectionIndex() && row <= rowSelection.getMaxSelectionIndex()) {
+                setBackground(selectionColor);
+            } else if (Double.isNaN(tableModel.getDouble(row, column))) {
+                setBackground(null);
             } else {
-                if (value instanceof String) {
-                    try {
-                        double v = Double.parseDouble((String) value);
-                        double norm;
-                        if (maxValue - minValue != 0) {
-                            norm = 1 - (v - minValue) / (maxValue - minValue);
-                            setBackground(getColor(norm));
-                        } else {
-                            setBackground(Color.GREEN);
-                        }
-                    } catch (NumberFormatException e) {
-                        setBackground(null);
-                    }
-                } else {
-                    setBackground(null);
-                }
+                double norm = tableModel.getNormalizedValue(row, column);
+                setBackground(Double.isNaN(norm) ? Color.GREEN : ColorRamp.getColor(norm));
             }
 
-            return super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-        }
-
-        private Color getColor(double value) {
-            double H = value * 0.4; // Hue (note 0.4 = Green, see huge chart below)
-            double S = 0.9; // Saturation
-            double B = 0.9; // Brightness
-
-            return Color.getHSBColor((float) H, (float) S, (float) B);
+            return super.getTableCellRendererComponent(table, tableModel.getText(row, column), isSelected, hasFocus, row, column);
         }
     }
 
-    private void setRange(Double[][] data) {
-        if (data != null) {
-            double max = Double.MIN_VALUE;
-            double min = Double.MAX_VALUE;
-            for (Double[] doubles : data) {
-                for (Double value : doubles) {
-                    if (value != null) {
-                        max = Math.max(max, value);
-                        min = Math.min(min, value);
-                    }
-                }
-            }
-
-            this.maxValue = max;
-            this.minValue = min;
-        } else {
-            this.minValue = 0;
-            this.maxValue = 0;
+    /**
+     * Replaces the values. This is a load rather than an edit, so nothing is published.
+     */
+    public void setTableData(Double[][] data) {
+        // Pasted values are written into the data, which may be shared with the caller
+        this.data = new Double[data.length][];
+        for (int i = 0; i < data.length; i++) {
+            this.data[i] = data[i] == null ? null : Arrays.copyOf(data[i], data[i].length);
         }
+
+        map3d.zAxis = this.data;
+        loadModelData();
+        updateHeight();
     }
 
-    public void setTableData(Double[][] data) {
+    /**
+     * Replaces the values with ones the user pasted, which are published like any other edit.
+     */
+    void pasteTableData(Double[][] data) {
         this.data = data;
-        setRange(data);
-        tableModel.setDataVector(this.data, this.columnHeaders);
-        enforceTableColumnWidth(this.table);
-        updateHeight();
+        setModelData();
     }
 
     public void setColumnHeaders(Double[] columnHeaders) {
@@ -308,12 +354,37 @@ public class MapTable extends JList implements TableModelListener {
         }
 
         this.columnHeaders = columnHeaders;
-        tableModel.setDataVector(this.data, this.columnHeaders);
+        map3d.xAxis = columnHeaders;
+        loadModelData();
+    }
+
+    private void loadModelData() {
+        loading = true;
+        try {
+            setModelData();
+        } finally {
+            loading = false;
+        }
+    }
+
+    private void setModelData() {
+        int columnCount = tableModel.getColumnCount();
+        tableModel.setData(this.data, this.columnHeaders);
+
+        if (tableModel.getColumnCount() == columnCount) {
+            // The columns weren't recreated, so the header values are updated in place
+            for (int i = 0; i < columnCount; i++) {
+                table.getColumnModel().getColumn(i).setHeaderValue(tableModel.getColumnName(i));
+            }
+            table.getTableHeader().repaint();
+        }
+
         enforceTableColumnWidth(this.table);
     }
 
     public void setRowHeaders(Double[] rowHeaders) {
         this.rowHeaders = rowHeaders;
+        map3d.yAxis = rowHeaders;
         updateHeight();
     }
 
@@ -322,20 +393,8 @@ public class MapTable extends JList implements TableModelListener {
     }
 
     private JTable createTable(Object[] columnHeaders, final Double[][] data) {
-        setRange(data);
-
-        tableModel = new DefaultTableModel(data, columnHeaders) {
-            @Override
-            public Class<?> getColumnClass(int column) {
-                return Double.class;
-            }
-
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                //all cells false
-                return editable;
-            }
-        };
+        tableModel = new DoubleTableModel("#.##");
+        tableModel.setData(data, columnHeaders);
 
         final JTable table = new JTable(tableModel) {
             @Override
@@ -365,15 +424,12 @@ public class MapTable extends JList implements TableModelListener {
         table.getModel().addTableModelListener(new TableModelListener() {
             @Override
             public void tableChanged(TableModelEvent e) {
-                Double[][] values = new Double[MapTable.this.data.length][];
-
-                for (int i = 0; i < MapTable.this.data.length; i++) {
-                    values[i] = new Double[MapTable.this.data[i].length];
-                    for (int j = 0; j < MapTable.this.data[i].length; j++) {
-                        values[i][j] = (Double) table.getModel().getValueAt(i, j);
-                    }
+                if (loading) {
+                    return;
                 }
 
+                Double[][] values = tableModel.toArray();
+
                 MapTable.this.data = values;
 
                 debouncer.debounce(this, () -> {
@@ -381,6 +437,7 @@ public class MapTable extends JList implements TableModelListener {
                     map3d.yAxis = getRowHeaders();
                     map3d.zAxis = values;
 
+                    history.commit(map3d);
                     publishSubject.onNext(map3d);
                 }, 100, TimeUnit.MILLISECONDS);
             }
@@ -108,7 +108,7 @@ public class MapTableExcelAdapter implements ActionListener {
                         }
                     }
 
-                    mapTable.setTableData(mapTable.getData());
+                    mapTable.pasteTableData(mapTable.getData());
                 }
             } catch (Exception ex) {
                 ex.printStackTrace();
@@ -0,0 +1,45 @@
+package presentation.view;
+
+import domain.metrics.EdtStallEvent;
+
+import javax.swing.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Posts a task to the EDT every few milliseconds while a JFR recording has {@link EdtStallEvent} enabled, and records
+ * how long each task waited. Waits under the threshold of the event are dropped by JFR.
+ */
+class EdtStallMonitor {
+
+    private static final long PERIOD_MILLIS = 50;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "edt-stall-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only one task is posted at a time, so a stalled EDT doesn't pile them up
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    void start() {
+        executor.scheduleWithFixedDelay(this::post, PERIOD_MILLIS, PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void post() {
+        EdtStallEvent event = new EdtStallEvent();
+
+        if (!event.isEnabled() || !pending.compareAndSet(false, true)) {
+            return;
+        }
+
+        event.begin();
+        SwingUtilities.invokeLater(() -> {
+            event.commit();
+            pending.set(false);
+        });
+    }
+}
@@ -1,8 +1,16 @@
 package presentation.view;
 
+import data.parser.bin.BinParser;
+import data.parser.xdf.TableDefinition;
+import data.parser.xdf.XdfParser;
+import data.writer.BinWriter;
+import domain.metrics.Metrics;
+import domain.metrics.Stage;
+import io.reactivex.Completable;
 import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
 import data.preferences.MapPreferenceManager;
 import data.preferences.bin.BinFilePreferences;
 import data.preferences.filechooser.BinFileChooserPreferences;
@@ -11,6 +19,7 @@ import data.preferences.logheaderdefinition.LogHeaderPreference;
 import data.preferences.xdf.XdfFilePreferences;
 import presentation.view.closedloopfueling.ClosedLoopFuelingView;
 import presentation.view.configuration.ConfigurationView;
+import presentation.view.diagnostics.DiagnosticsView;
 import presentation.view.kfmiop.KfmiopView;
 import presentation.view.kfmirl.KfmirlView;
 import presentation.view.kfvpdksd.KfvpdksdView;
@@ -22,17 +31,32 @@ import presentation.view.listener.OnTabSelectedListener;
 import presentation.view.openloopfueling.OpenLoopFuelingView;
 import presentation.view.plsol.PlsolView;
 import presentation.view.wdkugdn.WdkugdnView;
+import presentation.viewmodel.CalibrationSources;
 
 import javax.swing.*;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import javax.swing.event.MenuEvent;
+import javax.swing.event.MenuListener;
 import javax.swing.filechooser.FileFilter;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class MainManager {
-    private final List<OnTabSelectedListener> tabSelectedListeners = new ArrayList<>();
+    private static final Stage FIRST_WINDOW = Metrics.getInstance().stage("startup.firstWindow");
+    private static final Stage WARM_UP = Metrics.getInstance().stage("startup.warmUp");
+
+    // In the same order as the tabs
+    private final List<LazyTab<?>> tabs = new ArrayList<>();
 
     private final JFrame frame = new JFrame();
     private File binFile = new File("");
@@ -79,69 +103,66 @@ public class MainManager {
     }
 
     public void start() {
+        warmUp();
+        CalibrationSources.getInstance().start();
+        new EdtStallMonitor().start();
         updateTitle();
 
+        JTabbedPane tabbedPane = getTabbedPane();
+
         frame.setJMenuBar(getMenuBar());
         frame.setSize(1480, 1080);
-        frame.add(getTabbedPane());
+        frame.add(tabbedPane);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                // Recorded even if metrics are disabled, startup only happens once
+                FIRST_WINDOW.record(TimeUnit.MILLISECONDS.toNanos(ManagementFactory.getRuntimeMXBean().getUptime()));
+
+                // The first tab is built once the window is showing
+                SwingUtilities.invokeLater(() -> tabs.get(tabbedPane.getSelectedIndex()).onTabSelected(true));
+            }
+        });
         frame.setVisible(true);
     }
 
+    /**
+     * Parses the XDF and bin in the background while the window is built, rather than when the first view needs them.
+     * BinWriter isn't warmed up, its script engines are per thread and are created by the thread that writes.
+     */
+    private void warmUp() {
+        long start = System.nanoTime();
+
+        Completable.mergeArray(
+                        Completable.fromAction(XdfParser::getInstance).subscribeOn(Schedulers.io()),
+                        Completable.fromAction(BinParser::getInstance).subscribeOn(Schedulers.io()))
+                .subscribe(() -> WARM_UP.record(System.nanoTime() - start), Throwable::printStackTrace);
+    }
+
     private JTabbedPane getTabbedPane() {
         JTabbedPane tabbedPane = new JTabbedPane();
 
-        ConfigurationView configurationView = new ConfigurationView();
-        tabbedPane.addTab("Configuration", null, new JScrollPane(configurationView.getPanel()), "Table Definition Configuration");
-
-        KrkteView krkteView = new KrkteView();
-        tabSelectedListeners.add(krkteView);
-        tabbedPane.addTab("KRKTE", null, new JScrollPane(krkteView.getPanel()), "KRKTE Calculator");
-
-        ClosedLoopFuelingView closedLoopFuelingView = new ClosedLoopFuelingView();
-        // first tab is selected
-        closedLoopFuelingView.onTabSelected(true);
-        tabSelectedListeners.add(closedLoopFuelingView);
-        tabbedPane.addTab("Closed Loop Fueling", null, closedLoopFuelingView.getPanel(), "Closed Loop MLHFM Compensation");
-
-        OpenLoopFuelingView openLoopFuelingView = new OpenLoopFuelingView();
-        tabSelectedListeners.add(openLoopFuelingView);
-        tabbedPane.addTab("Open Loop Fueling", null, openLoopFuelingView.getPanel(), "Open Loop MLHFMCompensation");
-
-        PlsolView plsolView = new PlsolView();
-        tabbedPane.addTab("PLSOL", null, plsolView.getPanel(), "Requested Boost");
-
-        KfmiopView kfmiopView = new KfmiopView();
-        tabSelectedListeners.add(kfmiopView);
-        tabbedPane.addTab("KFMIOP", null, new JScrollPane(kfmiopView.getPanel()), "KFMIOP Calculator");
-
-        KfmirlView kfmirlView = new KfmirlView();
-        tabSelectedListeners.add(kfmirlView);
-        tabbedPane.addTab("KFMIRL", null, new JScrollPane(kfmirlView.getPanel()), "KFMIRL Calculator");
-
-        KfzwopView kfzwopView = new KfzwopView();
-        tabSelectedListeners.add(kfzwopView);
-        tabbedPane.addTab("KFZWOP", null, new JScrollPane(kfzwopView.getPanel()), "KFZWOP Calculator");
-
-        KfzwView kfzwView = new KfzwView();
-        tabSelectedListeners.add(kfzwView);
-        tabbedPane.addTab("KFZW", null, new JScrollPane(kfzwView.getPanel()), "KFZW Calculator");
-
-        KfvpdksdView kfvpdksdView = new KfvpdksdView();
-        tabSelectedListeners.add(kfvpdksdView);
-        tabbedPane.addTab("KFVPDKSD/E", null, new JScrollPane(kfvpdksdView.getPanel()), "KFVPDKSD/E Calculator");
-
-        WdkugdnView wdkugdnView = new WdkugdnView();
-        tabbedPane.addTab("WDKUGDN", null, wdkugdnView.getPanel(), "KFURL");
-
-        LdrpidView ldrpidView = new LdrpidView();
-        tabbedPane.addTab("LDRPID", null, new JScrollPane(ldrpidView.getPanel()), "LDRPID");
+        // Views and their view models are only created when their tab is first selected
+        addTab(tabbedPane, "Configuration", "Table Definition Configuration", ConfigurationView::new, view -> new JScrollPane(view.getPanel()));
+        addTab(tabbedPane, "Diagnostics", "Pipeline Stage Timings", DiagnosticsView::new, DiagnosticsView::getPanel);
+        addTab(tabbedPane, "KRKTE", "KRKTE Calculator", KrkteView::new, view -> new JScrollPane(view.getPanel()));
+        addTab(tabbedPane, "Closed Loop Fueling", "Closed Loop MLHFM Compensation", ClosedLoopFuelingView::new, ClosedLoopFuelingView::getPanel);
+        addTab(tabbedPane, "Open Loop Fueling", "Open Loop MLHFMCompensation", OpenLoopFuelingView::new, OpenLoopFuelingView::getPanel);
+        addTab(tabbedPane, "PLSOL", "Requested Boost", PlsolView::new, PlsolView::getPanel);
+        addTab(tabbedPane, "KFMIOP", "KFMIOP Calculator", KfmiopView::new, view -> new JScrollPane(view.getPanel()));
+        addTab(tabbedPane, "KFMIRL", "KFMIRL Calculator", KfmirlView::new, view -> new JScrollPane(view.getPanel()));
+        addTab(tabbedPane, "KFZWOP", "KFZWOP Calculator", KfzwopView::new, view -> new JScrollPane(view.getPanel()));
+        addTab(tabbedPane, "KFZW", "KFZW Calculator", KfzwView::new, view -> new JScrollPane(view.getPanel()));
+        addTab(tabbedPane, "KFVPDKSD/E", "KFVPDKSD/E Calculator", KfvpdksdView::new, view -> new JScrollPane(view.getPanel()));
+        addTab(tabbedPane, "WDKUGDN", "KFURL", WdkugdnView::new, WdkugdnView::getPanel);
+        addTab(tabbedPane, "LDRPID", "LDRPID", LdrpidView::new, view -> new JScrollPane(view.getPanel()));
 
         tabbedPane.addChangeListener(new ChangeListener() {
             public void stateChanged(ChangeEvent e) {
                 int selectedIndex = tabbedPane.getSelectedIndex();
-                for (int i = 0; i < tabSelectedListeners.size(); i++) {
-                    tabSelectedListeners.get(i).onTabSelected(selectedIndex == i);
+                for (int i = 0; i < tabs.size(); i++) {
+                    tabs.get(i).onTabSelected(selectedIndex == i);
                 }
             }
         });
@@ -149,6 +170,12 @@ public class MainManager {
         return tabbedPane;
     }
 
+    private <T> void addTab(JTabbedPane tabbedPane, String title, String tip, Supplier<T> view, Function<T, Component> component) {
+        LazyTab<T> tab = new LazyTab<>(view, component);
+        tabs.add(tab);
+        tabbedPane.addTab(title, null, tab.container, tip);
+    }
+
     private JMenuBar getMenuBar() {
         JMenuBar menuBar = new JMenuBar();
 
@@ -171,6 +198,37 @@ public class MainManager {
         });
         fileMenu.add(openBinMenuItem);
 
+        JMenu editMenu = new JMenu("Edit");
+        menuBar.add(editMenu);
+
+        JMenuItem undoWriteMenuItem = new JMenuItem("Undo Write");
+        undoWriteMenuItem.addActionListener(e -> writeRevision(true));
+        editMenu.add(undoWriteMenuItem);
+
+        JMenuItem redoWriteMenuItem = new JMenuItem("Redo Write");
+        redoWriteMenuItem.addActionListener(e -> writeRevision(false));
+        editMenu.add(redoWriteMenuItem);
+
+        editMenu.addMenuListener(new MenuListener() {
+            @Override
+            public void menuSelected(MenuEvent e) {
+                File file = BinFilePreferences.getInstance().getFile();
+                TableDefinition undoTable = BinWriter.getInstance().getUndoTable(file);
+                TableDefinition redoTable = BinWriter.getInstance().getRedoTable(file);
+
+                undoWriteMenuItem.setEnabled(undoTable != null);
+                undoWriteMenuItem.setText(undoTable == null ? "Undo Write" : "Undo Write " + undoTable.getTableName());
+                redoWriteMenuItem.setEnabled(redoTable != null);
+                redoWriteMenuItem.setText(redoTable == null ? "Redo Write" : "Redo Write " + redoTable.getTableName());
+            }
+
+            @Override
+            public void menuDeselected(MenuEvent e) {}
+
+            @Override
+            public void menuCanceled(MenuEvent e) {}
+        });
+
         JMenu xdfMenu = new JMenu("XDF");
         menuBar.add(xdfMenu);
 
@@ -214,10 +272,76 @@ public class MainManager {
         return menuBar;
     }
 
+    /**
+     * Writes the previous or next revision of the most recently written table back to the bin.
+     */
+    private void writeRevision(boolean undo) {
+        File file = BinFilePreferences.getInstance().getFile();
+        TableDefinition tableDefinition = undo ? BinWriter.getInstance().getUndoTable(file) : BinWriter.getInstance().getRedoTable(file);
+
+        if (tableDefinition == null) {
+            return;
+        }
+
+        String action = undo ? "Undo Write" : "Redo Write";
+        int returnValue = JOptionPane.showConfirmDialog(
+                frame,
+                "Are you sure you want to " + (undo ? "undo" : "redo") + " the last write of " + tableDefinition.getTableName() + " to the binary?",
+                action,
+                JOptionPane.YES_NO_OPTION);
+
+        if (returnValue == JOptionPane.YES_OPTION) {
+            try {
+                if (undo) {
+                    BinWriter.getInstance().undo(file);
+                } else {
+                    BinWriter.getInstance().redo(file);
+                }
+            } catch (IOException ioException) {
+                ioException.printStackTrace();
+                JOptionPane.showMessageDialog(frame, "The binary could not be written: " + ioException.getMessage(), action, JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
     private void updateTitle() {
         frame.setTitle("ME7 Tuner - " + binFile.getName() + " | XDF File - " + xdfFile.getName());
     }
 
+    /**
+     * A tab whose view is created the first time it is selected.
+     */
+    private static class LazyTab<T> implements OnTabSelectedListener {
+        private final JPanel container = new JPanel(new BorderLayout());
+        private final Supplier<T> viewFactory;
+        private final Function<T, Component> component;
+
+        private T view;
+
+        private LazyTab(Supplier<T> viewFactory, Function<T, Component> component) {
+            this.viewFactory = viewFactory;
+            this.component = component;
+        }
+
+        @Override
+        public void onTabSelected(boolean selected) {
+            if (selected && view == null) {
+                try {
+                    view = viewFactory.get();
+                    container.add(component.apply(view), BorderLayout.CENTER);
+                    container.revalidate();
+                    container.repaint();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+
+            if (view instanceof OnTabSelectedListener) {
+                ((OnTabSelectedListener) view).onTabSelected(selected);
+            }
+        }
+    }
+
     private static class BinFileFilter extends FileFilter {
         public boolean accept(File f) {
             if (f.isDirectory()) {
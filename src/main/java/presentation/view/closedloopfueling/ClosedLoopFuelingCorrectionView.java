@@ -15,6 +15,7 @@ import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
+import presentation.chart.DecimatedXYDataset;
 import data.parser.xdf.TableDefinition;
 import data.preferences.bin.BinFilePreferences;
 import data.preferences.mlhfm.MlhfmPreferences;
@@ -44,7 +45,7 @@ public class ClosedLoopFuelingCorrectionView {
     private ClosedLoopFuelingCorrection closedLoopFuelingCorrection;
     private MapTable mapTable;
 
-    private XYSeriesCollection afrCorrectionPointDataSet;
+    private DecimatedXYDataset afrCorrectionPointDataSet;
     private XYSeriesCollection afrCorrectionLineDataSet;
 
     private int polynomialDegree = 6;
@@ -238,7 +239,7 @@ public class ClosedLoopFuelingCorrectionView {
     }
 
     private void initStdDevChart() {
-        XYSeriesCollection dataset = new XYSeriesCollection();
+        DecimatedXYDataset dataset = new DecimatedXYDataset(DecimatedXYDataset.Mode.SCATTER);
 
         stdDevChart = ChartFactory.createScatterPlot(
                 "Derivative",
@@ -263,10 +264,12 @@ public class ClosedLoopFuelingCorrectionView {
 
         plot.getRenderer().setSeriesShape(0, new Ellipse2D.Double(0, 0, 1, 1));
         plot.getRenderer().setSeriesPaint(0, Color.decode("#f57900"));
+
+        dataset.attach(plot);
     }
 
     private void initAfrCorrectionChart() {
-        afrCorrectionPointDataSet = new XYSeriesCollection();
+        afrCorrectionPointDataSet = new DecimatedXYDataset(DecimatedXYDataset.Mode.SCATTER);
         afrCorrectionLineDataSet = new XYSeriesCollection();
 
         afrCorrectionChart = ChartFactory.createScatterPlot(
@@ -300,6 +303,8 @@ public class ClosedLoopFuelingCorrectionView {
         correctionPointRenderer.setSeriesPaint(0, Color.decode("#f57900"));
 
         plot.setRenderer(CORRECTION_POINT_SERIES_INDEX, correctionPointRenderer);
+
+        afrCorrectionPointDataSet.attach(plot);
     }
 
     private JButton getFileButton() {
@@ -423,19 +428,26 @@ public class ClosedLoopFuelingCorrectionView {
 
         Double[] voltages = mlhfm.yAxis;
 
-        XYSeries series = new XYSeries("dMAFv/dt");
-
+        int size = 0;
         for (Double voltage : voltages) {
-            List<Double> values = stdDev.get(voltage);
+            size += stdDev.get(voltage).size();
+        }
 
-            for (Double value : values) {
-                series.add(voltage, value);
+        double[] x = new double[size];
+        double[] y = new double[size];
+        int index = 0;
+
+        for (Double voltage : voltages) {
+            for (Double value : stdDev.get(voltage)) {
+                x[index] = voltage;
+                y[index++] = value;
             }
         }
 
         XYPlot plot = (XYPlot) stdDevChart.getPlot();
-        ((XYSeriesCollection) plot.getDataset()).removeAllSeries();
-        ((XYSeriesCollection) plot.getDataset()).addSeries(series);
+        DecimatedXYDataset dataset = (DecimatedXYDataset) plot.getDataset();
+        dataset.removeAllSeries();
+        dataset.addSeries("dMAFv/dt", x, y);
     }
 
     private void drawAfrCorrectionChart(Map<Double, List<Double>> correctionsAfrMap, Map<Double, Double> meanAfrMap, Map<Double, double[]> modeAfrMap, Map<Double, Double> correctedAfrMap) {
@@ -455,17 +467,23 @@ public class ClosedLoopFuelingCorrectionView {
     }
 
     private void generateRawAfrCorrections(Map<Double, List<Double>> correctionsAfrMap) {
-        XYSeries afrCorrectionsSeries = new XYSeries("AFR Corrections %");
+        int size = 0;
+        for (List<Double> values : correctionsAfrMap.values()) {
+            size += values.size();
+        }
 
-        for (Double voltage : correctionsAfrMap.keySet()) {
-            List<Double> values = correctionsAfrMap.get(voltage);
+        double[] x = new double[size];
+        double[] y = new double[size];
+        int index = 0;
 
-            for (Double value : values) {
-                afrCorrectionsSeries.add(voltage, value);
+        for (Map.Entry<Double, List<Double>> entry : correctionsAfrMap.entrySet()) {
+            for (Double value : entry.getValue()) {
+                x[index] = entry.getKey();
+                y[index++] = value;
             }
         }
 
-        afrCorrectionPointDataSet.addSeries(afrCorrectionsSeries);
+        afrCorrectionPointDataSet.addSeries("AFR Corrections %", x, y);
     }
 
     private void generateMeanAfrCorrectionSeries(Map<Double, Double> meanAfrMap) {
@@ -2,6 +2,8 @@ package presentation.view.closedloopfueling;
 
 import data.contract.Me7LogFileContract;
 import domain.derivative.Derivative;
+import domain.metrics.Metrics;
+import domain.metrics.Stage;
 import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.annotations.Nullable;
@@ -12,26 +14,30 @@ import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
-import org.jfree.data.xy.XYSeries;
-import org.jfree.data.xy.XYSeriesCollection;
 import data.parser.me7log.ClosedLoopLogParser;
 import data.preferences.closedloopfueling.ClosedLoopFuelingLogPreferences;
+import presentation.chart.DecimatedXYDataset;
 import presentation.viewmodel.closedloopfueling.ClosedLoopFuelingLogViewModel;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
 import java.io.File;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 public class ClosedLoopFuelingLogView {
 
+    private static final Stage DRAW_CHART = Metrics.getInstance().stage("chart.closedloop.log");
+
     private JFreeChart chart;
     private JPanel closedLoopLogPanel;
     private JLabel fileLabel;
 
     private File me7LogFile;
+    private Map<Me7LogFileContract.Header, List<Double>> me7LogMap;
+    private Map3d mlhfm;
 
     ClosedLoopFuelingLogView() {
         ClosedLoopFuelingLogViewModel viewModel = new ClosedLoopFuelingLogViewModel();
@@ -42,7 +48,9 @@ public class ClosedLoopFuelingLogView {
 
             @Override
             public void onNext(@NonNull ClosedLoopFuelingLogViewModel.ClosedLoopMlhfmLogModel closedLoopMlhfmLogModel) {
-                drawChart(closedLoopMlhfmLogModel.getMe7LogMap(), closedLoopMlhfmLogModel.getMlhfm());
+                me7LogMap = closedLoopMlhfmLogModel.getMe7LogMap();
+                mlhfm = closedLoopMlhfmLogModel.getMlhfm();
+                drawChart(me7LogMap, mlhfm);
             }
 
             @Override
@@ -150,11 +158,10 @@ public class ClosedLoopFuelingLogView {
                         case MIN_RPM -> ClosedLoopFuelingLogPreferences.setMinRpmPreference(Double.parseDouble(filterConfigPane.getFieldText(fieldTitle)));
                         case MAX_VOLTAGE_DT -> ClosedLoopFuelingLogPreferences.setMaxVoltageDtPreference(Double.parseDouble(filterConfigPane.getFieldText(fieldTitle)));
                     }
-
-                    if (this.me7LogFile != null) {
-                        loadMe7File(this.me7LogFile);
-                    }
                 }
+
+                ClosedLoopFuelingLogPreferences.notifyFilterChanged();
+                drawChart(me7LogMap, mlhfm);
             }
         });
 
@@ -188,7 +195,7 @@ public class ClosedLoopFuelingLogView {
     }
 
     private void initChart() {
-        XYSeriesCollection dataset = new XYSeriesCollection();
+        DecimatedXYDataset dataset = new DecimatedXYDataset(DecimatedXYDataset.Mode.SCATTER);
 
         chart = ChartFactory.createScatterPlot(
                 "Derivative",
@@ -216,19 +223,32 @@ public class ClosedLoopFuelingLogView {
 
         plot.getRenderer().setSeriesShape(1, new Ellipse2D.Double(0, 0, 1, 1));
         plot.getRenderer().setSeriesPaint(1, Color.GREEN);
+
+        dataset.attach(plot);
     }
 
     private void drawChart(@Nullable Map<Me7LogFileContract.Header, List<Double>> me7LogMap, @Nullable Map3d mlhfm) {
+        long start = DRAW_CHART.start();
 
         XYPlot plot = (XYPlot) chart.getPlot();
-        ((XYSeriesCollection) plot.getDataset()).removeAllSeries();
+        DecimatedXYDataset dataset = (DecimatedXYDataset) plot.getDataset();
+        dataset.removeAllSeries();
 
         if(me7LogMap != null && mlhfm != null) {
             Map<Double, List<Double>> dtMap = Derivative.getMlfhm(me7LogMap, mlhfm);
             Double[] voltages = mlhfm.yAxis;
 
-            XYSeries invalidDtSeries = new XYSeries("Excluded Sample");
-            XYSeries validDtSeries = new XYSeries("Included Sample");
+            int size = 0;
+            for (Double voltage : voltages) {
+                size += dtMap.get(voltage).size();
+            }
+
+            double[] invalidVoltages = new double[size];
+            double[] invalidDt = new double[size];
+            double[] validVoltages = new double[size];
+            double[] validDt = new double[size];
+            int invalidCount = 0;
+            int validCount = 0;
 
             double maxFilterVoltage = ClosedLoopFuelingLogPreferences.getMaxVoltageDtPreference();
 
@@ -237,16 +257,19 @@ public class ClosedLoopFuelingLogView {
 
                 for (Double value : values) {
                     if (value > maxFilterVoltage) {
-                        invalidDtSeries.add(voltage, value);
+                        invalidVoltages[invalidCount] = voltage;
+                        invalidDt[invalidCount++] = value;
                     } else {
-                        validDtSeries.add(voltage, value);
+                        validVoltages[validCount] = voltage;
+                        validDt[validCount++] = value;
                     }
                 }
             }
 
-
-            ((XYSeriesCollection) plot.getDataset()).addSeries(invalidDtSeries);
-            ((XYSeriesCollection) plot.getDataset()).addSeries(validDtSeries);
+            dataset.addSeries("Excluded Sample", Arrays.copyOf(invalidVoltages, invalidCount), Arrays.copyOf(invalidDt, invalidCount));
+            dataset.addSeries("Included Sample", Arrays.copyOf(validVoltages, validCount), Arrays.copyOf(validDt, validCount));
         }
+
+        DRAW_CHART.stop(start);
     }
 }
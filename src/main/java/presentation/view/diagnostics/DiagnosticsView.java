@@ -0,0 +1,185 @@
+package presentation.view.diagnostics;
+
+import domain.metrics.Counter;
+import domain.metrics.Metrics;
+import domain.metrics.Stage;
+import io.reactivex.Single;
+import io.reactivex.SingleObserver;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import presentation.view.listener.OnTabSelectedListener;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Shows the pipeline stage timings and counters of {@link Metrics}. The tables are refreshed once a second while the
+ * tab is selected.
+ */
+public class DiagnosticsView implements OnTabSelectedListener {
+
+    private static final int REFRESH_MILLIS = 1000;
+
+    private static final String[] STAGE_COLUMNS = {"Stage", "Count", "Total (ms)", "Mean (ms)", "p50 (ms)", "p95 (ms)", "p99 (ms)", "Max (ms)"};
+    private static final String[] COUNTER_COLUMNS = {"Counter", "Count", "Per Second", "Stage"};
+
+    private static final Class<?>[] STAGE_COLUMN_CLASSES = {String.class, Long.class, Double.class, Double.class, Double.class, Double.class, Double.class, Double.class};
+    private static final Class<?>[] COUNTER_COLUMN_CLASSES = {String.class, Long.class, Double.class, String.class};
+
+    private final DefaultTableModel stageModel = new ReadOnlyTableModel(STAGE_COLUMNS, STAGE_COLUMN_CLASSES);
+    private final DefaultTableModel counterModel = new ReadOnlyTableModel(COUNTER_COLUMNS, COUNTER_COLUMN_CLASSES);
+
+    private final Timer refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    private JPanel panel;
+
+    public JPanel getPanel() {
+        if (panel == null) {
+            panel = new JPanel(new BorderLayout());
+            panel.add(getControlPanel(), BorderLayout.NORTH);
+
+            JPanel tablePanel = new JPanel(new GridLayout(2, 1));
+            tablePanel.add(getTablePanel("Stages", stageModel));
+            tablePanel.add(getTablePanel("Counters", counterModel));
+            panel.add(tablePanel, BorderLayout.CENTER);
+
+            refresh();
+        }
+
+        return panel;
+    }
+
+    @Override
+    public void onTabSelected(boolean selected) {
+        if (selected) {
+            refresh();
+            refreshTimer.start();
+        } else {
+            refreshTimer.stop();
+        }
+    }
+
+    private JPanel getControlPanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+
+        JCheckBox enabledCheckBox = new JCheckBox("Collect Metrics", Metrics.getInstance().isEnabled());
+        enabledCheckBox.setToolTipText("Time the log parsers, bin decoding, corrections and charts");
+        enabledCheckBox.addActionListener(e -> Metrics.getInstance().setEnabled(enabledCheckBox.isSelected()));
+        panel.add(enabledCheckBox);
+
+        JButton resetButton = new JButton("Reset");
+        resetButton.addActionListener(e -> {
+            Metrics.getInstance().reset();
+            refresh();
+        });
+        panel.add(resetButton);
+
+        JButton exportButton = new JButton("Export JSON");
+        exportButton.setToolTipText("Write the metrics to a JSON file");
+        exportButton.addActionListener(e -> {
+            final JFileChooser fc = new JFileChooser();
+            fc.setSelectedFile(new File("me7tuner_metrics.json"));
+
+            if (fc.showSaveDialog(panel) == JFileChooser.APPROVE_OPTION) {
+                export(fc.getSelectedFile()).subscribe(new SingleObserver<>() {
+                    @Override
+                    public void onSubscribe(@NonNull Disposable disposable) {}
+
+                    @Override
+                    public void onSuccess(@NonNull File file) {
+                        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(panel, "The metrics were written to " + file.getPath(), exportButton.getText(), JOptionPane.INFORMATION_MESSAGE));
+                    }
+
+                    @Override
+                    public void onError(@NonNull Throwable throwable) {
+                        throwable.printStackTrace();
+                        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(panel, "The metrics could not be written: " + throwable.getMessage(), exportButton.getText(), JOptionPane.ERROR_MESSAGE));
+                    }
+                });
+            }
+        });
+        panel.add(exportButton);
+
+        return panel;
+    }
+
+    private JPanel getTablePanel(String title, DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.setFillsViewportHeight(true);
+
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBorder(BorderFactory.createTitledBorder(title));
+        panel.add(new JScrollPane(table), BorderLayout.CENTER);
+
+        return panel;
+    }
+
+    private void refresh() {
+        List<Stage> stages = Metrics.getInstance().getStages();
+        stageModel.setRowCount(0);
+        for (Stage stage : stages) {
+            stageModel.addRow(new Object[]{
+                    stage.getName(),
+                    stage.getCount(),
+                    millis(stage.getTotalNanos()),
+                    millis(stage.getMeanNanos()),
+                    millis(stage.getPercentileNanos(0.5)),
+                    millis(stage.getPercentileNanos(0.95)),
+                    millis(stage.getPercentileNanos(0.99)),
+                    millis(stage.getMaxNanos())
+            });
+        }
+
+        List<Counter> counters = Metrics.getInstance().getCounters();
+        counterModel.setRowCount(0);
+        for (Counter counter : counters) {
+            counterModel.addRow(new Object[]{
+                    counter.getName(),
+                    counter.getCount(),
+                    counter.getStage() == null ? null : Math.rint(counter.getRatePerSecond()),
+                    counter.getStage() == null ? "-" : counter.getStage().getName()
+            });
+        }
+    }
+
+    private Single<File> export(File file) {
+        String json = Metrics.getInstance().toJson();
+
+        return Single.fromCallable(() -> {
+            try (Writer writer = new FileWriter(file)) {
+                writer.write(json);
+            }
+            return file;
+        }).subscribeOn(Schedulers.io());
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1e6;
+    }
+
+    private static class ReadOnlyTableModel extends DefaultTableModel {
+        private final Class<?>[] columnClasses;
+
+        private ReadOnlyTableModel(String[] columns, Class<?>[] columnClasses) {
+            super(columns, 0);
+            this.columnClasses = columnClasses;
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return columnClasses[column];
+        }
+
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package presentation.view.kfmiop;
 
 import io.reactivex.Observer;
+import io.reactivex.SingleObserver;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.Disposable;
 import domain.math.map.Map3d;
@@ -15,6 +16,7 @@ import data.writer.BinWriter;
 import javax.swing.*;
 import javax.swing.event.HyperlinkEvent;
 import java.awt.*;
+import java.io.File;
 import java.io.IOException;
 
 public class KfmiopView implements OnTabSelectedListener {
@@ -124,6 +126,10 @@ public class KfmiopView implements OnTabSelectedListener {
         constraints.insets.top = 0;
         panel.add(getFileButton(), constraints);
 
+        constraints.gridx = 0;
+        constraints.gridy = 5;
+        panel.add(getExportSweepButton(), constraints);
+
         return panel;
     }
 
@@ -142,12 +148,12 @@ public class KfmiopView implements OnTabSelectedListener {
 
                         Map3d inputKfmiop = kfmiopModel.getInputKfmiop();
 
-                        KfmiopView.this.inputKfmiop.setMap(inputKfmiop);
+                        KfmiopView.this.inputKfmiop.loadMap(kfmiopModel.getTableDefinition(), inputKfmiop);
                     } else {
                         fileLabel.setText("No Definition Selected");
 
                         Map3d defaultMap = new Map3d(new Double[11], new Double[16], new Double[16][11]);
-                        KfmiopView.this.inputKfmiop.setMap(defaultMap);
+                        KfmiopView.this.inputKfmiop.loadMap(null, defaultMap);
                         KfmiopView.this.outputKfmiop.setMap(defaultMap);
                         KfmiopView.this.inputBoost.setMap(defaultMap);
                         KfmiopView.this.outputBoost.setMap(defaultMap);
@@ -325,6 +331,36 @@ public class KfmiopView implements OnTabSelectedListener {
         return button;
     }
 
+    private JButton getExportSweepButton() {
+        JButton button = new JButton("Export Pressure Sweep");
+        button.setToolTipText("Write the maximum load and boost over a range of MAP sensor and boost pressures to a CSV file");
+
+        button.addActionListener(e -> {
+            final JFileChooser fc = new JFileChooser();
+            fc.setSelectedFile(new File("kfmiop_sweep.csv"));
+
+            if (fc.showSaveDialog(panel) == JFileChooser.APPROVE_OPTION) {
+                viewModel.exportSweep(fc.getSelectedFile()).subscribe(new SingleObserver<>() {
+                    @Override
+                    public void onSubscribe(@NonNull Disposable disposable) {}
+
+                    @Override
+                    public void onSuccess(@NonNull File file) {
+                        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(panel, "The pressure sweep was written to " + file.getPath(), button.getText(), JOptionPane.INFORMATION_MESSAGE));
+                    }
+
+                    @Override
+                    public void onError(@NonNull Throwable throwable) {
+                        throwable.printStackTrace();
+                        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(panel, "The pressure sweep could not be written: " + throwable.getMessage(), button.getText(), JOptionPane.ERROR_MESSAGE));
+                    }
+                });
+            }
+        });
+
+        return button;
+    }
+
     private JEditorPane getHelpPanel() {
         JEditorPane jep = new JEditorPane();
         jep.setContentType("text/html");//set content as html
@@ -157,7 +157,7 @@ public class KfmirlView implements OnTabSelectedListener {
             @Override
             public void onNext(@NonNull Map3d map3d) {
                 Map3d kfmiop = new Map3d(kfmiopXAxis.getData()[0], map3d.yAxis, map3d.zAxis);
-                viewModel.calculateKfmirl(kfmiop);
+                viewModel.setKfmiop(kfmiop);
             }
 
             @Override
@@ -179,7 +179,7 @@ public class KfmirlView implements OnTabSelectedListener {
             public void onNext(@NonNull Double[][] doubles) {
                 kfmiop.setColumnHeaders(kfmiopXAxis.getData()[0]);
                 Map3d kfmiopInput = new Map3d((Double[]) kfmiop.getColumnHeaders(), kfmiop.getRowHeaders(), kfmiop.getData());
-                viewModel.calculateKfmirl(kfmiopInput);
+                viewModel.setKfmiop(kfmiopInput);
             }
 
             @Override
@@ -201,9 +201,8 @@ public class KfmirlView implements OnTabSelectedListener {
             @Override
             public void onNext(@NonNull KfmirlViewModel.KfmirlModel kfmirlModel) {
                 SwingUtilities.invokeLater(() -> {
-                    if (kfmirlModel.getKfmiop() != null && !kfmiop.getMap3d().equals(kfmirlModel.getKfmiop().getSecond())) {
+                    if (kfmirlModel.getKfmiop() != null && kfmiop.loadMap(kfmirlModel.getKfmiop().getFirst(), kfmirlModel.getKfmiop().getSecond())) {
                         Map3d kfmiopMap = kfmirlModel.getKfmiop().getSecond();
-                        kfmiop.setMap(kfmiopMap);
 
                         Double[][] xAxis = new Double[1][];
                         xAxis[0] = kfmiopMap.xAxis;
@@ -222,8 +221,8 @@ public class KfmirlView implements OnTabSelectedListener {
                         Map3d defaultKfmiop = new Map3d(new Double[11], new Double[16], new Double[16][11]);
                         Map3d defaultKfmirl = new Map3d(new Double[12], new Double[16], new Double[16][12]);
 
-                        kfmiop.setMap(defaultKfmiop);
-                        kfmirl.setMap(defaultKfmirl);
+                        kfmiop.loadMap(null, defaultKfmiop);
+                        kfmirl.loadMap(null, defaultKfmirl);
                         kfmiopXAxis.setTableData(new Double[1][11]);
 
                         kfmirlFileLabel.setText("No Definition Selected");
@@ -79,7 +79,7 @@ public class KfvpdksdView implements OnTabSelectedListener {
                 SwingUtilities.invokeLater(() -> {
                     if (kfvpdksdModel.kfvpdksdTable() == null) {
                         Map3d defaultMap = new Map3d(new Double[12], new Double[12], new Double[12][12]);
-                        kfvpdksdTable.setMap(defaultMap);
+                        kfvpdksdTable.loadMap(null, defaultMap);
                         boostTable.setTableData(new Double[1][12]);
 
                         XYPlot plot = (XYPlot) chart.getPlot();
@@ -88,21 +88,19 @@ public class KfvpdksdView implements OnTabSelectedListener {
                         return;
                     }
 
-                    if (kfvpdksdModel.getKfvpdksdTable() != null && !kfvpdksdTable.getMap3d().equals(kfvpdksdModel.getKfvpdksdTable().getSecond())) {
+                    if (kfvpdksdModel.getKfvpdksdTable() != null && kfvpdksdTable.loadMap(kfvpdksdModel.getKfvpdksdTable().getFirst(), kfvpdksdModel.getKfvpdksdTable().getSecond())) {
                         definitionFileLabel.setText(kfvpdksdModel.getKfvpdksdTable().getFirst().getTableName());
 
                         boostTable.setRowHeaders(new Double[]{0.0});
                         boostTable.setColumnHeaders(kfvpdksdModel.getKfvpdksdTable().getSecond().yAxis);
                         boostTable.setTableData(new Double[1][kfvpdksdModel.getKfvpdksdTable().getSecond().yAxis.length]);
 
-                        kfvpdksdTable.setMap(kfvpdksdModel.getKfvpdksdTable().getSecond());
-
                         drawPressure(kfvpdksdModel.getKfvpdksdTable().getSecond());
                     }
 
 
                     if (kfvpdksdModel.getKfvpdksd() != null && kfvpdksdModel.getPressure() != null && !pressureInitialized) {
-                        Map3d kfvpdks = kfvpdksdModel.getKfvpdksdTable().getSecond();
+                        Map3d kfvpdks = new Map3d(kfvpdksdModel.getKfvpdksdTable().getSecond());
 
                         Double[][] data = new Double[1][];
                         data[0] = kfvpdksdModel.getPressure();
@@ -123,7 +121,7 @@ public class KfvpdksdView implements OnTabSelectedListener {
 
                     if (kfvpdksdModel.getKfvpdksd() != null) {
                         kfvpdksdTable.setTableData(kfvpdksdModel.getKfvpdksd().getKfvpdksd());
-                        kfvpdksdTable.setColumnHeaders(kfvpdksdModel.getKfvpdksdTable().getSecond().xAxis);
+                        kfvpdksdTable.setColumnHeaders(kfvpdksdModel.getPressureRatio());
                     }
                 });
             }
@@ -319,7 +317,7 @@ public class KfvpdksdView implements OnTabSelectedListener {
 
     private void loadMe7File(File file) {
         SwingUtilities.invokeLater(() -> {
-            viewModel.loadLogs(file, (value, max) -> {
+            KfvpdksdViewModel.LoadResult result = viewModel.loadLogs(file, (value, max) -> {
                 SwingUtilities.invokeLater(() -> {
                     dpb.setMaximum(max);
                     dpb.setValue(value);
@@ -327,7 +325,11 @@ public class KfvpdksdView implements OnTabSelectedListener {
                 });
             });
 
-            logFileLabel.setText(file.getPath());
+            switch (result) {
+                case LOADING -> logFileLabel.setText(file.getPath());
+                case NO_MAP -> JOptionPane.showMessageDialog(panel, "Select a KFVPDKSD map before loading logs, the logs are binned by its RPM axis.", "Load Logs", JOptionPane.ERROR_MESSAGE);
+                case NO_LOGS -> JOptionPane.showMessageDialog(panel, "No logs were found in " + file.getPath() + ".", "Load Logs", JOptionPane.ERROR_MESSAGE);
+            }
         });
     }
 
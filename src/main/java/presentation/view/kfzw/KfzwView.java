@@ -64,8 +64,8 @@ public class KfzwView implements OnTabSelectedListener {
                     if (model.getInputKfzw() == null) {
                         Map3d defaultKfzw = new Map3d(new Double[12], new Double[16], new Double[16][12]);
 
-                        kfzwInput.setMap(defaultKfzw);
-                        kfzwInput.setMap(defaultKfzw);
+                        kfzwInput.loadMap(null, defaultKfzw);
+                        kfzwOutput.loadMap(null, defaultKfzw);
                         kfmiopXAxis.setTableData(new Double[1][11]);
 
                         fileLabel.setText("No Definition Selected");
@@ -73,9 +73,7 @@ public class KfzwView implements OnTabSelectedListener {
                         return;
                     }
 
-                    if (!kfzwInput.getMap3d().equals(model.getInputKfzw().getSecond())) {
-                        kfzwInput.setMap(model.getInputKfzw().getSecond());
-
+                    if (kfzwInput.loadMap(model.getInputKfzw().getFirst(), model.getInputKfzw().getSecond())) {
                         Double[][] kfmiopXAxisValues = new Double[1][];
                         kfmiopXAxisValues[0] = model.getKfmiopXAxis();
                         kfmiopXAxis.setTableData(kfmiopXAxisValues);
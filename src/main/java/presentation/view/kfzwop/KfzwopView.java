@@ -64,8 +64,8 @@ public class KfzwopView implements OnTabSelectedListener {
                     if (model.getKfzwop() == null) {
                         Map3d defaultKfzwop = new Map3d(new Double[11], new Double[16], new Double[16][11]);
 
-                        kfzwopInput.setMap(defaultKfzwop);
-                        kfzwopOutput.setMap(defaultKfzwop);
+                        kfzwopInput.loadMap(null, defaultKfzwop);
+                        kfzwopOutput.loadMap(null, defaultKfzwop);
                         kfmiopXAxis.setTableData(new Double[1][11]);
 
                         fileLabel.setText("No Definition Selected");
@@ -73,9 +73,7 @@ public class KfzwopView implements OnTabSelectedListener {
                         return;
                     }
 
-                    if (!kfzwopInput.getMap3d().equals(model.getKfzwop().getSecond())) {
-                        kfzwopInput.setMap(model.getKfzwop().getSecond());
-
+                    if (kfzwopInput.loadMap(model.getKfzwop().getFirst(), model.getKfzwop().getSecond())) {
                         Double[][] kfmiopXAxisValues = new Double[1][];
                         kfmiopXAxisValues[0] = model.getKfzwop().getSecond().xAxis;
                         kfmiopXAxis.setTableData(kfmiopXAxisValues);
@@ -324,7 +324,7 @@ public class LdrpidView {
                         @Override
                         public Void doInBackground() {
                             Me7LogParser parser = new Me7LogParser();
-                            Map<Me7LogFileContract.Header, List<Double>> values = parser.parseLogDirectory(Me7LogParser.LogType.LDRPID, fc.getSelectedFile(), (value, max) -> {
+                            List<Map<Me7LogFileContract.Header, List<Double>>> values = parser.parseLogFiles(Me7LogParser.LogType.LDRPID, fc.getSelectedFile(), (value, max) -> {
                                 SwingUtilities.invokeLater(() -> {
                                     dpb.setMaximum(max);
                                     dpb.setValue(value);
@@ -433,7 +433,7 @@ public class LdrpidView {
         Pair<TableDefinition, Map3d> tableDefinition = KfldimxPreferences.getInstance().getSelectedMap();
         kfldimxTable.setEditable(false);
         if(tableDefinition != null && tableDefinition.getSecond() != null) {
-            kfldimxTable.setMap(tableDefinition.getSecond());
+            kfldimxTable.loadMap(tableDefinition.getFirst(), tableDefinition.getSecond());
         }
     }
 
@@ -441,7 +441,7 @@ public class LdrpidView {
         Pair<TableDefinition, Map3d> tableDefinition = KfldrlPreferences.getInstance().getSelectedMap();
         kfldrlTable.setEditable(false);
         if(tableDefinition != null && tableDefinition.getSecond() != null) {
-            kfldrlTable.setMap(tableDefinition.getSecond());
+            kfldrlTable.loadMap(tableDefinition.getFirst(), tableDefinition.getSecond());
         }
     }
 
@@ -6,6 +6,7 @@ import io.reactivex.disposables.Disposable;
 import domain.math.map.Map3d;
 import domain.model.mlhfm.MlhfmFitter;
 import domain.model.openloopfueling.correction.OpenLoopMlhfmCorrection;
+import domain.model.openloopfueling.util.LogAlignment;
 import org.apache.commons.math3.stat.descriptive.moment.Mean;
 import org.apache.commons.math3.util.Pair;
 import org.jfree.chart.ChartFactory;
@@ -13,6 +14,7 @@ import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.chart.title.TextTitle;
 import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 import data.parser.xdf.TableDefinition;
@@ -39,6 +41,7 @@ public class OpenLoopFuelingCorrectionView {
 
     private JFreeChart mlfhmChart;
     private JFreeChart afrCorrectionChart;
+    private TextTitle logAlignmentTitle;
     private JPanel correctionPanel;
     private OpenLoopMlhfmCorrection openLoopMlhfmCorrection;
     private MapTable mapTable;
@@ -57,6 +60,7 @@ public class OpenLoopFuelingCorrectionView {
                 drawMlhfmChart(openLoopMlhfmCorrection.inputMlhfm, openLoopMlhfmCorrection.correctedMlhfm);
                 drawMapTable(openLoopMlhfmCorrection.correctedMlhfm);
                 drawAfrCorrectionChart(openLoopMlhfmCorrection.correctionsAfrMap, openLoopMlhfmCorrection.meanAfrMap, openLoopMlhfmCorrection.modeAfrMap, openLoopMlhfmCorrection.correctedAfrMap);
+                drawLogAlignment(openLoopMlhfmCorrection.logAlignment);
             }
 
             @Override
@@ -316,7 +320,7 @@ public class OpenLoopFuelingCorrectionView {
 
         button.addActionListener(e -> {
             Map3d correctedFitMlhfm = MlhfmFitter.fitMlhfm(openLoopMlhfmCorrection.correctedMlhfm, polynomialDegree);
-            openLoopMlhfmCorrection = new OpenLoopMlhfmCorrection(openLoopMlhfmCorrection.inputMlhfm, openLoopMlhfmCorrection.correctedMlhfm, correctedFitMlhfm, openLoopMlhfmCorrection.correctionsAfrMap, openLoopMlhfmCorrection.meanAfrMap, openLoopMlhfmCorrection.modeAfrMap, openLoopMlhfmCorrection.correctedAfrMap);
+            openLoopMlhfmCorrection = new OpenLoopMlhfmCorrection(openLoopMlhfmCorrection.inputMlhfm, openLoopMlhfmCorrection.correctedMlhfm, correctedFitMlhfm, openLoopMlhfmCorrection.correctionsAfrMap, openLoopMlhfmCorrection.meanAfrMap, openLoopMlhfmCorrection.modeAfrMap, openLoopMlhfmCorrection.correctedAfrMap, openLoopMlhfmCorrection.logAlignment);
             drawMlhfmChart(openLoopMlhfmCorrection.inputMlhfm, correctedFitMlhfm);
             drawMapTable(correctedFitMlhfm);
         });
@@ -368,6 +372,18 @@ public class OpenLoopFuelingCorrectionView {
         ((XYSeriesCollection) plot.getDataset()).addSeries(correctedMlhfmSeries);
     }
 
+    private void drawLogAlignment(LogAlignment logAlignment) {
+        String text = logAlignment.isConfident() ? logAlignment.toString() : logAlignment + " - not applied";
+
+        if (logAlignmentTitle == null) {
+            logAlignmentTitle = new TextTitle(text);
+            logAlignmentTitle.setPaint(Color.decode("#F8F8F2"));
+            afrCorrectionChart.addSubtitle(logAlignmentTitle);
+        } else {
+            logAlignmentTitle.setText(text);
+        }
+    }
+
     private void drawAfrCorrectionChart(Map<Double, List<Double>> correctionsAfrMap, Map<Double, Double> meanAfrMap, Map<Double, double[]> modeAfrMap, Map<Double, Double> correctedAfrMap) {
 
         XYPlot plot = (XYPlot) afrCorrectionChart.getPlot();
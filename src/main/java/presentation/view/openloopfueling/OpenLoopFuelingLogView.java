@@ -5,6 +5,8 @@ import data.contract.Me7LogFileContract;
 import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.Disposable;
+import domain.metrics.Metrics;
+import domain.metrics.Stage;
 import domain.model.airflow.AirflowEstimation;
 import domain.model.openloopfueling.util.AfrLogUtil;
 import domain.model.openloopfueling.util.Me7LogUtil;
@@ -13,11 +15,11 @@ import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
-import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 import data.preferences.filechooser.AfrFileChooserPreferences;
 import data.preferences.filechooser.OpenLoopFileChooserPreferences;
 import data.preferences.openloopfueling.OpenLoopFuelingLogFilterPreferences;
+import presentation.chart.DecimatedXYDataset;
 import presentation.viewmodel.openloopfueling.OpenLoopFuelingLogViewModel;
 
 import javax.swing.*;
@@ -33,6 +35,9 @@ public class OpenLoopFuelingLogView {
     private static final int MEASURED_AIRFLOW_DATA_SERIES_INDEX = 0;
     private static final int ESTIMATED_AIRFLOW_DATA_SERIES_INDEX = 1;
 
+    private static final Stage DRAW_ME7_CHART = Metrics.getInstance().stage("chart.openloop.me7log");
+    private static final Stage DRAW_AFR_CHART = Metrics.getInstance().stage("chart.openloop.afrlog");
+
     private JFreeChart fuelingChart;
     private JFreeChart airflowChart;
     private JPanel openLoopLogPanel;
@@ -40,22 +45,22 @@ public class OpenLoopFuelingLogView {
     private JLabel afrFileLabel;
     private final OpenLoopFuelingLogViewModel viewModel;
 
-    private final XYSeriesCollection me7FuelingDataset;
-    private final XYSeriesCollection afrFuelingDataset;
+    private final DecimatedXYDataset me7FuelingDataset;
+    private final DecimatedXYDataset afrFuelingDataset;
 
-    private final XYSeriesCollection measuredAirflowDataset;
-    private final XYSeriesCollection estimatedAirflowDataset;
+    private final DecimatedXYDataset measuredAirflowDataset;
+    private final DecimatedXYDataset estimatedAirflowDataset;
 
     private File me7LogFile;
     private File afrLogFile;
 
     public OpenLoopFuelingLogView() {
 
-        me7FuelingDataset = new XYSeriesCollection();
-        afrFuelingDataset = new XYSeriesCollection();
+        me7FuelingDataset = new DecimatedXYDataset(DecimatedXYDataset.Mode.LINE);
+        afrFuelingDataset = new DecimatedXYDataset(DecimatedXYDataset.Mode.LINE);
 
-        measuredAirflowDataset = new XYSeriesCollection();
-        estimatedAirflowDataset = new XYSeriesCollection();
+        measuredAirflowDataset = new DecimatedXYDataset(DecimatedXYDataset.Mode.LINE);
+        estimatedAirflowDataset = new DecimatedXYDataset(DecimatedXYDataset.Mode.LINE);
 
         viewModel = new OpenLoopFuelingLogViewModel();
         viewModel.register(new Observer<>() {
@@ -262,13 +267,7 @@ public class OpenLoopFuelingLogView {
                     }
                 }
 
-                if(this.me7LogFile != null) {
-                    loadMe7File(this.me7LogFile);
-                }
-
-                if(this.afrLogFile != null) {
-                    loadAfrFile(this.afrLogFile);
-                }
+                OpenLoopFuelingLogFilterPreferences.notifyFilterChanged();
             }
         });
 
@@ -355,6 +354,9 @@ public class OpenLoopFuelingLogView {
         rendererAfr.setAutoPopulateSeriesPaint(false);
         rendererAfr.setDefaultPaint(Color.RED);
         plot.setRenderer(AFR_FUELING_AIRFLOW_DATA_SERIES_INDEX, rendererAfr);
+
+        me7FuelingDataset.attach(plot);
+        afrFuelingDataset.attach(plot);
     }
 
     private void initAirflowChart() {
@@ -387,6 +389,9 @@ public class OpenLoopFuelingLogView {
         rendererEstimated.setAutoPopulateSeriesPaint(false);
         rendererEstimated.setDefaultPaint(Color.RED);
         plot.setRenderer(ESTIMATED_AIRFLOW_DATA_SERIES_INDEX, rendererEstimated);
+
+        measuredAirflowDataset.attach(plot);
+        estimatedAirflowDataset.attach(plot);
     }
 
     private void drawMeasuredAirflowChart(List<List<Double>> measuredAirflowGramsPerSecondLogs, List<List<Double>> measuredRpmLogs) {
@@ -397,13 +402,7 @@ public class OpenLoopFuelingLogView {
             List<Double> measuredAirflowLog = measuredAirflowGramsPerSecondLogs.get(i);
             List<Double> rpmLog = measuredRpmLogs.get(i);
 
-            XYSeries series = new XYSeries("Measured Airflow " + logCount++);
-
-            for(int j = 0; j < measuredAirflowLog.size(); j++) {
-                series.add(rpmLog.get(j), measuredAirflowLog.get(j));
-            }
-
-            measuredAirflowDataset.addSeries(series);
+            measuredAirflowDataset.addSeries("Measured Airflow " + logCount++, rpmLog.subList(0, measuredAirflowLog.size()), measuredAirflowLog);
         }
 
         XYPlot plot = (XYPlot) airflowChart.getPlot();
@@ -418,13 +417,7 @@ public class OpenLoopFuelingLogView {
             List<Double> measuredAirflowLog = estimatedAirflowGramsPerSecondLogs.get(i);
             List<Double> rpmLog = measuredRpmLogs.get(i);
 
-            XYSeries series = new XYSeries("Estimated Airflow " + logCount++);
-
-            for(int j = 0; j < measuredAirflowLog.size(); j++) {
-                series.add(rpmLog.get(j), measuredAirflowLog.get(j));
-            }
-
-            estimatedAirflowDataset.addSeries(series);
+            estimatedAirflowDataset.addSeries("Estimated Airflow " + logCount++, rpmLog.subList(0, measuredAirflowLog.size()), measuredAirflowLog);
         }
 
         XYPlot plot = (XYPlot) airflowChart.getPlot();
@@ -438,24 +431,29 @@ public class OpenLoopFuelingLogView {
             return;
         }
 
+        long start = DRAW_ME7_CHART.start();
+
         List<Map<Me7LogFileContract.Header, List<Double>>> me7LogList = Me7LogUtil.findMe7Logs(me7LogMap, OpenLoopFuelingLogFilterPreferences.getMinThrottleAnglePreference(), 0, OpenLoopFuelingLogFilterPreferences.getMinRpmPreference(), OpenLoopFuelingLogFilterPreferences.getMinMe7PointsPreference());
 
         int logCount = 1;
         for (Map<Me7LogFileContract.Header, List<Double>> map : me7LogList) {
-            XYSeries series = new XYSeries("Desired AFR " + logCount++);
-
             List<Double> requestedAfr = map.get(Me7LogFileContract.Header.REQUESTED_LAMBDA_HEADER);
             List<Double> rpm = map.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
 
+            double[] x = new double[rpm.size()];
+            double[] y = new double[rpm.size()];
             for (int i = 0; i < rpm.size(); i++) {
-                series.add(rpm.get(i).doubleValue(), requestedAfr.get(i)*14.7);
+                x[i] = rpm.get(i);
+                y[i] = requestedAfr.get(i)*14.7;
             }
 
-            me7FuelingDataset.addSeries(series);
+            me7FuelingDataset.addSeries("Desired AFR " + logCount++, x, y);
         }
 
         XYPlot plot = (XYPlot) fuelingChart.getPlot();
         plot.setDataset(ME7_FUELING_DATA_SERIES_INDEX, me7FuelingDataset);
+
+        DRAW_ME7_CHART.stop(start);
     }
 
     private void drawAfrFuelingLogChart(Map<String, List<Double>> afrLogMap) {
@@ -465,24 +463,22 @@ public class OpenLoopFuelingLogView {
             return;
         }
 
+        long start = DRAW_AFR_CHART.start();
+
         List<Map<String, List<Double>>> afrLogList = AfrLogUtil.findAfrLogs(afrLogMap, OpenLoopFuelingLogFilterPreferences.getMinThrottleAnglePreference(), OpenLoopFuelingLogFilterPreferences.getMinRpmPreference(), OpenLoopFuelingLogFilterPreferences.getMaxAfrPreference(), OpenLoopFuelingLogFilterPreferences.getMinAfrPointsPreference());
 
         int logCount = 1;
         for (Map<String, List<Double>> map : afrLogList) {
-            XYSeries series = new XYSeries("Actual AFR " + logCount++);
-
             List<Double> actualAfr = map.get(AfrLogFileContract.AFR_HEADER);
             List<Double> rpm = map.get(AfrLogFileContract.RPM_HEADER);
 
-            for (int i = 0; i < rpm.size(); i++) {
-                series.add(rpm.get(i).doubleValue(), actualAfr.get(i).doubleValue());
-            }
-
-            afrFuelingDataset.addSeries(series);
+            afrFuelingDataset.addSeries("Actual AFR " + logCount++, rpm, actualAfr.subList(0, rpm.size()));
         }
 
         XYPlot plot = (XYPlot) fuelingChart.getPlot();
         plot.setDataset(AFR_FUELING_AIRFLOW_DATA_SERIES_INDEX, afrFuelingDataset);
+
+        DRAW_AFR_CHART.stop(start);
     }
 
     private static class CSVFileFilter extends FileFilter {
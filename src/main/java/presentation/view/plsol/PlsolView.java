@@ -22,12 +22,20 @@ public class PlsolView {
     private JFreeChart plsolChart;
     private JFreeChart airflowChart;
     private JFreeChart powerChart;
+    private JFreeChart altitudeChart;
+    private JFreeChart intakeAirTemperatureChart;
     private JPanel panel;
 
+    private static final double[] BAROMETRIC_PRESSURE_SWEEP = {1013, 950, 900, 850, 800, 750};
+    private static final double[] INTAKE_AIR_TEMPERATURE_SWEEP = {-10, 0, 10, 20, 30, 40, 50};
+    private static final int SWEEP_POINTS = 400;
+
     public PlsolView() {
         initPlsolChart();
         initAirflowChart();
         initPowerChart();
+        altitudeChart = initSweepChart("PLSOL vs Altitude");
+        intakeAirTemperatureChart = initSweepChart("PLSOL vs Intake Air Temperature");
         initPanel();
         calculatePlsol();
     }
@@ -47,6 +55,8 @@ public class PlsolView {
         tabbedPane.addTab("Load", null, getPlsolChartPanel(), "Pressure -> Load");
         tabbedPane.addTab("Airflow", null, getAirflowChartPanel(), "Pressure -> Airflow");
         tabbedPane.addTab("Power", null, getPowerChartPanel(), "Pressure -> Horsepower");
+        tabbedPane.addTab("Altitude", null, getChartPanel(altitudeChart), "Pressure -> Load by barometric pressure");
+        tabbedPane.addTab("Intake Temperature", null, getChartPanel(intakeAirTemperatureChart), "Pressure -> Load by intake air temperature");
 
         c.fill = GridBagConstraints.BOTH;
         c.gridx = 0;
@@ -88,6 +98,14 @@ public class PlsolView {
         return panel;
     }
 
+    private JPanel getChartPanel(JFreeChart chart) {
+        JPanel panel = new JPanel();
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.add(new ChartPanel(chart));
+
+        return panel;
+    }
+
     private JPanel getActionPanel() {
         JPanel panel = new JPanel();
         panel.setLayout(new GridBagLayout());
@@ -112,6 +130,34 @@ public class PlsolView {
         drawAirflowChart(airflow.getPoints());
         Horsepower power = new Horsepower(airflow.getPoints());
         drawPowerChart(power.getPoints());
+        calculateSweeps();
+    }
+
+    private void calculateSweeps() {
+        double[] load = new double[SWEEP_POINTS];
+        for (int i = 0; i < load.length; i++) {
+            load[i] = i;
+        }
+
+        double barometricPressure = PlsolPreferences.getBarometricPressure();
+        double intakeAirTemperature = PlsolPreferences.getIntakeAirTemperature();
+        double kfurl = PlsolPreferences.getKfurl();
+
+        double[][][] altitude = Plsol.plsol(BAROMETRIC_PRESSURE_SWEEP, new double[]{intakeAirTemperature}, kfurl, load);
+        String[] altitudeNames = new String[BAROMETRIC_PRESSURE_SWEEP.length];
+        double[][] altitudeCurves = new double[BAROMETRIC_PRESSURE_SWEEP.length][];
+        for (int i = 0; i < BAROMETRIC_PRESSURE_SWEEP.length; i++) {
+            altitudeNames[i] = String.format("%.0f mbar", BAROMETRIC_PRESSURE_SWEEP[i]);
+            altitudeCurves[i] = altitude[i][0];
+        }
+        drawSweepChart(altitudeChart, load, altitudeCurves, altitudeNames);
+
+        double[][][] temperature = Plsol.plsol(new double[]{barometricPressure}, INTAKE_AIR_TEMPERATURE_SWEEP, kfurl, load);
+        String[] temperatureNames = new String[INTAKE_AIR_TEMPERATURE_SWEEP.length];
+        for (int i = 0; i < INTAKE_AIR_TEMPERATURE_SWEEP.length; i++) {
+            temperatureNames[i] = String.format("%.0f C", INTAKE_AIR_TEMPERATURE_SWEEP[i]);
+        }
+        drawSweepChart(intakeAirTemperatureChart, load, temperature[0], temperatureNames);
     }
 
     private void initPlsolChart() {
@@ -194,6 +240,49 @@ public class PlsolView {
         plot.getRenderer().setSeriesPaint(0, Color.decode("#f57900"));
     }
 
+    private JFreeChart initSweepChart(String title) {
+        XYSeriesCollection dataset = new XYSeriesCollection();
+
+        JFreeChart chart = ChartFactory.createScatterPlot(
+                title,
+                "Requested Load", "PSI (absolute)", dataset);
+
+        chart.getTitle().setPaint(Color.decode("#F8F8F2"));
+        chart.setBackgroundPaint(Color.decode("#383c4a"));
+        chart.getLegend().setBackgroundPaint(Color.decode("#383c4a"));
+        chart.getLegend().setItemPaint(Color.decode("#F8F8F2"));
+
+        XYPlot plot = (XYPlot) chart.getPlot();
+        plot.setBackgroundPaint(Color.decode("#383c4a"));
+        plot.setDomainGridlinePaint(Color.decode("#F8F8F2"));
+        plot.setRangeGridlinePaint(Color.decode("#F8F8F2"));
+        plot.getDomainAxis().setLabelPaint(Color.decode("#F8F8F2"));
+        plot.getDomainAxis().setTickLabelPaint(Color.decode("#F8F8F2"));
+        plot.getRangeAxis().setLabelPaint(Color.decode("#F8F8F2"));
+        plot.getRangeAxis().setTickLabelPaint(Color.decode("#F8F8F2"));
+
+        XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer(true, false);
+        plot.setRenderer(renderer);
+
+        return chart;
+    }
+
+    private void drawSweepChart(JFreeChart chart, double[] load, double[][] curves, String[] names) {
+        XYSeriesCollection dataset = new XYSeriesCollection();
+
+        for (int i = 0; i < curves.length; i++) {
+            XYSeries series = new XYSeries(names[i]);
+
+            for (int j = 0; j < load.length; j++) {
+                series.add(load[j], curves[i][j] * 0.0145038, false);
+            }
+
+            dataset.addSeries(series);
+        }
+
+        ((XYPlot) chart.getPlot()).setDataset(dataset);
+    }
+
     private void drawPlsolChart(Point2D.Double[] points) {
         XYSeries absolute = new XYSeries("Requested Absolute");
 
@@ -0,0 +1,118 @@
+package presentation.viewmodel;
+
+import data.parser.bin.BinParser;
+import data.parser.xdf.TableDefinition;
+import data.preferences.MapPreferenceManager;
+import data.preferences.kfmiop.KfmiopPreferences;
+import domain.calibration.Calibration;
+import domain.math.map.Map3d;
+import io.reactivex.Observer;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.disposables.Disposable;
+import org.apache.commons.math3.util.Pair;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Feeds the selected KFMIOP and the maximum pressures into the {@link Calibration} graph. The tabs are built lazily,
+ * so this is started with the application rather than by the KFMIOP tab, otherwise KFMIRL, KFZWOP and KFZW would
+ * have nothing to calculate from until the KFMIOP tab is opened.
+ */
+public class CalibrationSources {
+
+    private static volatile CalibrationSources instance;
+
+    private boolean started;
+
+    private CalibrationSources() {}
+
+    public static CalibrationSources getInstance() {
+        if (instance == null) {
+            synchronized (CalibrationSources.class) {
+                if (instance == null) {
+                    instance = new CalibrationSources();
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+
+        started = true;
+
+        BinParser.getInstance().registerMapListObserver(new Observer<>() {
+            @Override
+            public void onSubscribe(@NonNull Disposable disposable) {}
+
+            @Override
+            public void onNext(@NonNull List<Pair<TableDefinition, Map3d>> pairs) {
+                update();
+            }
+
+            @Override
+            public void onError(@NonNull Throwable throwable) {
+                throwable.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {}
+        });
+
+        KfmiopPreferences.getInstance().registerOnMapChanged(new Observer<>() {
+            @Override
+            public void onSubscribe(@NonNull Disposable disposable) {}
+
+            @Override
+            public void onNext(@NonNull Optional<Pair<TableDefinition, Map3d>> selectedTableDefinitionPair) {
+                update();
+            }
+
+            @Override
+            public void onError(@NonNull Throwable throwable) {
+                throwable.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {}
+        });
+
+        MapPreferenceManager.registerOnClear(new Observer<>() {
+            @Override
+            public void onSubscribe(@NonNull Disposable disposable) {}
+
+            @Override
+            public void onNext(@NonNull Boolean cleared) {
+                Calibration.getInstance().baseKfmiop.set(null);
+            }
+
+            @Override
+            public void onError(@NonNull Throwable throwable) {
+                throwable.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {}
+        });
+
+        update();
+    }
+
+    /**
+     * Reads the selected KFMIOP and the maximum pressures again, KFMIOP and everything that follows from it are
+     * recalculated if they changed.
+     */
+    public void update() {
+        Pair<TableDefinition, Map3d> tableDefinition = KfmiopPreferences.getInstance().getSelectedMap();
+        Calibration calibration = Calibration.getInstance();
+
+        calibration.maxMapSensorPressure.set(KfmiopPreferences.getInstance().getMaxMapPressurePreference());
+        calibration.maxBoostPressure.set(KfmiopPreferences.getInstance().getMaxBoostPressurePreference());
+        calibration.baseKfmiop.set(tableDefinition != null ? tableDefinition.getSecond() : null);
+    }
+}
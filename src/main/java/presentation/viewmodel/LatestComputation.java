@@ -0,0 +1,63 @@
+package presentation.viewmodel;
+
+import domain.util.Cancellation;
+import io.reactivex.Maybe;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
+
+import javax.swing.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs computations off the EDT with latest-wins semantics. Submitting a computation cancels the one that is still
+ * running or waiting for a worker, so only the result of the latest submission is delivered. Results are delivered
+ * on the EDT. All instances share one bounded pool of worker threads.
+ *
+ * Cancellation interrupts the worker. Long computations should call {@link Cancellation#throwIfCancelled()} now and then so
+ * superseded work stops early rather than running to completion and being dropped.
+ */
+public class LatestComputation<T> {
+
+    private static final int WORKER_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private static final AtomicInteger workerIndex = new AtomicInteger();
+
+    private static final Scheduler WORKERS = Schedulers.from(Executors.newFixedThreadPool(WORKER_COUNT, runnable -> {
+        Thread thread = new Thread(runnable, "computation-" + workerIndex.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }), true);
+
+    private static final Scheduler EDT = Schedulers.from(SwingUtilities::invokeLater);
+
+    private final Subject<Callable<T>> requests = PublishSubject.<Callable<T>>create().toSerialized();
+
+    public LatestComputation(Consumer<T> onResult) {
+        requests.switchMap(callable -> compute(callable).toObservable()).subscribe(onResult::accept);
+    }
+
+    public void submit(Callable<T> callable) {
+        requests.onNext(callable);
+    }
+
+    private Maybe<T> compute(Callable<T> callable) {
+        return Maybe.fromCallable(() -> {
+                    try {
+                        return callable.call();
+                    } catch (CancellationException | InterruptedException e) {
+                        // Superseded, there is nothing to deliver
+                        return null;
+                    }
+                })
+                .doOnError(Throwable::printStackTrace)
+                .onErrorComplete()
+                .subscribeOn(WORKERS)
+                // A result already on its way to the EDT is still dropped if it has been superseded
+                .observeOn(EDT);
+    }
+}
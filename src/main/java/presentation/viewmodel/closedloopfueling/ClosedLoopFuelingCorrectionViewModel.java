@@ -8,11 +8,14 @@ import io.reactivex.subjects.PublishSubject;
 import domain.math.map.Map3d;
 import domain.model.closedloopfueling.ClosedLoopFuelingCorrection;
 import domain.model.closedloopfueling.ClosedLoopFuelingCorrectionManager;
+import domain.model.closedloopfueling.ClosedLoopFuelingCorrectionPartial;
+import domain.model.closedloopfueling.ClosedLoopSampleIndex;
 import org.apache.commons.math3.util.Pair;
 import data.parser.xdf.TableDefinition;
 import data.preferences.closedloopfueling.ClosedLoopFuelingLogPreferences;
 import data.parser.me7log.ClosedLoopLogParser;
 import data.preferences.mlhfm.MlhfmPreferences;
+import presentation.viewmodel.LatestComputation;
 
 import java.util.List;
 import java.util.Map;
@@ -20,16 +23,21 @@ import java.util.Map;
 public class ClosedLoopFuelingCorrectionViewModel {
 
     private final PublishSubject<ClosedLoopFuelingCorrection> publishSubject = PublishSubject.create();
+    private final LatestComputation<ClosedLoopFuelingCorrection> correctionComputation = new LatestComputation<>(publishSubject::onNext);
+
+    // Set on the log parsing thread and read on the EDT when the filters change
+    private volatile Samples samples;
 
     public ClosedLoopFuelingCorrectionViewModel() {
-        ClosedLoopLogParser.getInstance().registerClosedLoopLogOnChangeObserver(new Observer<Map<Me7LogFileContract.Header, List<Double>>>() {
+        ClosedLoopLogParser.getInstance().registerClosedLoopLogFilesOnChangeObserver(new Observer<List<Map<Me7LogFileContract.Header, List<Double>>>>() {
             @Override
-            public void onNext(@NonNull Map<Me7LogFileContract.Header, List<Double>> me7LogMap) {
+            public void onNext(@NonNull List<Map<Me7LogFileContract.Header, List<Double>>> me7Logs) {
                 Pair<TableDefinition, Map3d> mlhfmDefinition = MlhfmPreferences.getInstance().getSelectedMap();
                 if (mlhfmDefinition != null) {
                     Map3d mlhfm = mlhfmDefinition.getSecond();
                     if (mlhfm != null) {
-                        generateCorrection(me7LogMap, mlhfm);
+                        samples = new Samples(mlhfm, new ClosedLoopSampleIndex(me7Logs, mlhfm.yAxis, true));
+                        generateCorrection();
                     }
                 }
             }
@@ -46,21 +54,53 @@ public class ClosedLoopFuelingCorrectionViewModel {
             public void onComplete() {
             }
         });
+
+        ClosedLoopFuelingLogPreferences.registerOnFilterChanged(new Observer<>() {
+            @Override
+            public void onSubscribe(@NonNull Disposable disposable) {
+            }
+
+            @Override
+            public void onNext(@NonNull Boolean changed) {
+                generateCorrection();
+            }
+
+            @Override
+            public void onError(@NonNull Throwable throwable) {
+                throwable.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
     }
 
     public void registerMLHFMOnChange(Observer<ClosedLoopFuelingCorrection> observer) {
         publishSubject.subscribe(observer);
     }
 
-    private void generateCorrection(Map<Me7LogFileContract.Header, List<Double>> me7LogMap, Map3d mlhfmMap) {
+    private void generateCorrection() {
+        Samples samples = this.samples;
 
-        ClosedLoopFuelingCorrectionManager closedLoopFuelingCorrectionManager = new ClosedLoopFuelingCorrectionManager(ClosedLoopFuelingLogPreferences.getMinThrottleAnglePreference(), ClosedLoopFuelingLogPreferences.getMinRpmPreference(), ClosedLoopFuelingLogPreferences.getMaxVoltageDtPreference());
-        closedLoopFuelingCorrectionManager.correct(me7LogMap, mlhfmMap);
-        ClosedLoopFuelingCorrection closedLoopFuelingCorrection = closedLoopFuelingCorrectionManager.getClosedLoopMlhfmCorrection();
-
-        if (closedLoopFuelingCorrection != null) {
-            publishSubject.onNext(closedLoopFuelingCorrection);
+        if (samples == null) {
+            return;
         }
 
+        double minThrottleAngle = ClosedLoopFuelingLogPreferences.getMinThrottleAnglePreference();
+        double minRpm = ClosedLoopFuelingLogPreferences.getMinRpmPreference();
+        double maxVoltageDt = ClosedLoopFuelingLogPreferences.getMaxVoltageDtPreference();
+
+        // Filtering retains every sample, so it runs off the EDT and the parser thread. A null correction is dropped.
+        correctionComputation.submit(() -> {
+            ClosedLoopFuelingCorrectionPartial partial = samples.sampleIndex().filter(minThrottleAngle, minRpm, maxVoltageDt);
+
+            ClosedLoopFuelingCorrectionManager closedLoopFuelingCorrectionManager = new ClosedLoopFuelingCorrectionManager(minThrottleAngle, minRpm, maxVoltageDt, true);
+            closedLoopFuelingCorrectionManager.correct(partial, samples.mlhfm());
+            return closedLoopFuelingCorrectionManager.getClosedLoopMlhfmCorrection();
+        });
     }
+
+    // The MLHFM the samples were indexed against
+    private record Samples(Map3d mlhfm, ClosedLoopSampleIndex sampleIndex) {}
 }
@@ -1,38 +1,50 @@
 package presentation.viewmodel.kfmiop;
 
-import data.parser.bin.BinParser;
 import data.preferences.MapPreferenceManager;
 import io.reactivex.Observer;
+import io.reactivex.Single;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.annotations.Nullable;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subjects.BehaviorSubject;
 import domain.math.map.Map3d;
 import domain.model.kfmiop.Kfmiop;
-import domain.model.rlsol.Rlsol;
+import domain.model.kfmiop.KfmiopSweep;
+import domain.calibration.Calibration;
 import org.apache.commons.math3.util.Pair;
+import presentation.viewmodel.CalibrationSources;
 import data.parser.xdf.TableDefinition;
 import data.preferences.kfmiop.KfmiopPreferences;
 
-import java.util.List;
+import javax.swing.*;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
 import java.util.Optional;
 
 public class KfmiopViewModel {
 
+    // Maximum MAP sensor and boost pressures (mbar) of the design sweep
+    private static final double[] SWEEP_MAP_SENSOR_PRESSURES = range(2000, 4000, 250);
+    private static final double[] SWEEP_BOOST_PRESSURES = range(1500, 3500, 100);
+
     private final BehaviorSubject<KfmiopModel> behaviorSubject = BehaviorSubject.create();
 
     public KfmiopViewModel() {
         behaviorSubject.onNext(new KfmiopModel.Builder().build());
 
-        onTableSelected(getSelectedKfmiopTableDefinition());
-
-        BinParser.getInstance().registerMapListObserver(new Observer<>() {
+        Calibration.getInstance().kfmiop.register(new Observer<>() {
             @Override
             public void onSubscribe(@NonNull Disposable disposable) {}
 
             @Override
-            public void onNext(@NonNull List<Pair<TableDefinition, Map3d>> pairs) {
-                calculateKfmiop();
+            public void onNext(@NonNull Optional<Kfmiop> kfmiop) {
+                Optional<Map3d> baseKfmiop = Calibration.getInstance().baseKfmiop.get();
+
+                if (kfmiop.isPresent() && baseKfmiop.isPresent()) {
+                    SwingUtilities.invokeLater(() -> onKfmiopCalculated(baseKfmiop.get(), kfmiop.get()));
+                }
             }
 
             @Override
@@ -42,6 +54,8 @@ public class KfmiopViewModel {
             public void onComplete() {}
         });
 
+        onTableSelected(getSelectedKfmiopTableDefinition());
+
         KfmiopPreferences.getInstance().registerOnMapChanged(new Observer<>() {
             @Override
             public void onSubscribe(@NonNull Disposable disposable) {
@@ -90,14 +104,32 @@ public class KfmiopViewModel {
     }
 
     public void calculateKfmiop() {
-        double maxMapSensorLoad = Rlsol.rlsol(1030, KfmiopPreferences.getInstance().getMaxMapPressurePreference(), 0, 96, 0.106, KfmiopPreferences.getInstance().getMaxMapPressurePreference());
-        double maxBoostPressureLoad = Rlsol.rlsol(1030, KfmiopPreferences.getInstance().getMaxBoostPressurePreference(), 0, 96, 0.106, KfmiopPreferences.getInstance().getMaxBoostPressurePreference());
+        // KFMIRL, KFZWOP and KFZW are recalculated from the new KFMIOP as needed
+        CalibrationSources.getInstance().update();
+    }
 
+    /**
+     * Sweeps the maximum MAP sensor and boost pressures over the selected KFMIOP and writes the maximum load and boost
+     * of every combination to a CSV file.
+     *
+     * @return the file once it has been written, the sweep runs on an IO thread.
+     */
+    public Single<File> exportSweep(File file) {
         Pair<TableDefinition, Map3d> tableDefinition = getSelectedKfmiopTableDefinition();
 
-        if (tableDefinition != null) {
-            cacluateKfmiop(getSelectedKfmiopTableDefinition().getSecond(), maxMapSensorLoad, maxBoostPressureLoad);
+        if (tableDefinition == null) {
+            return Single.error(new IllegalStateException("No KFMIOP is selected"));
         }
+
+        Map3d baseKfmiop = tableDefinition.getSecond();
+
+        return Single.fromCallable(() -> {
+            KfmiopSweep sweep = KfmiopSweep.sweep(baseKfmiop, SWEEP_MAP_SENSOR_PRESSURES, SWEEP_BOOST_PRESSURES);
+            try (Writer writer = new FileWriter(file)) {
+                sweep.export(writer);
+            }
+            return file;
+        }).subscribeOn(Schedulers.io());
     }
 
     private void onTableSelected(@Nullable Pair<TableDefinition, Map3d> selectedTable) {
@@ -106,7 +138,6 @@ public class KfmiopViewModel {
         if (selectedTable != null) {
             builder.tableDefinition(selectedTable.getFirst()).inputKfmiop(selectedTable.getSecond());
             behaviorSubject.onNext(builder.build());
-            calculateKfmiop();
         } else {
             builder.tableDefinition(null).inputKfmiop(null).outputKfmiop(null).inputBoost(null).outputBoost(null).maxMapSensorPressure(0).maxBoostPressure(0);
             behaviorSubject.onNext(builder.build());
@@ -117,9 +148,18 @@ public class KfmiopViewModel {
         return KfmiopPreferences.getInstance().getSelectedMap();
     }
 
-    private void cacluateKfmiop(Map3d baseKfmiop, double maxMapSensorLoad, double maxBoostPressureLoad) {
+    private static double[] range(double start, double end, double step) {
+        int count = (int) Math.round((end - start) / step) + 1;
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = start + i * step;
+        }
+
+        return values;
+    }
+
+    private void onKfmiopCalculated(Map3d baseKfmiop, Kfmiop kfmiop) {
         KfmiopModel.Builder builder = new KfmiopModel.Builder(behaviorSubject.getValue());
-        Kfmiop kfmiop = Kfmiop.calculateKfmiop(baseKfmiop, maxMapSensorLoad, maxBoostPressureLoad);
         builder.inputKfmiop(baseKfmiop).outputKfmiop(kfmiop.getOutputKfmiop()).inputBoost(kfmiop.getInputBoost()).outputBoost(kfmiop.getOutputBoost()).maxMapSensorPressure(kfmiop.getMaxMapSensorPressure()).maxBoostPressure(kfmiop.getMaxBoostPressure());
         behaviorSubject.onNext(builder.build());
     }
@@ -5,7 +5,7 @@ import data.parser.xdf.TableDefinition;
 import data.preferences.MapPreferenceManager;
 import data.preferences.kfmiop.KfmiopPreferences;
 import data.preferences.kfmirl.KfmirlPreferences;
-import domain.math.Inverse;
+import domain.calibration.Calibration;
 import domain.math.map.Map3d;
 import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
@@ -15,6 +15,7 @@ import io.reactivex.subjects.BehaviorSubject;
 import io.reactivex.subjects.Subject;
 import org.apache.commons.math3.util.Pair;
 
+import javax.swing.*;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +23,25 @@ public class KfmirlViewModel {
     private final Subject<KfmirlModel> subject = BehaviorSubject.create();
 
     public KfmirlViewModel() {
+        Calibration.getInstance().kfmirl.register(new Observer<>() {
+            @Override
+            public void onSubscribe(@NonNull Disposable disposable) {
+            }
+
+            @Override
+            public void onNext(@NonNull Optional<Map3d> kfmirl) {
+                SwingUtilities.invokeLater(() -> publishModel());
+            }
+
+            @Override
+            public void onError(@NonNull Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
         BinParser.getInstance().registerMapListObserver(new Observer<>() {
             @Override
             public void onSubscribe(@NonNull Disposable disposable) {
@@ -85,21 +105,12 @@ public class KfmirlViewModel {
         });
     }
 
-    public void calculateKfmirl(Map3d kfmiop) {
-        Pair<TableDefinition, Map3d> kfmiopTableDefinition = KfmiopPreferences.getInstance().getSelectedMap();
-        Pair<TableDefinition, Map3d> kfmirlTableDefinition = KfmirlPreferences.getInstance().getSelectedMap();
-        if (kfmiopTableDefinition != null && kfmirlTableDefinition != null && kfmiop != null) {
-
-            Map3d map3d = Inverse.calculateInverse(kfmiop, kfmirlTableDefinition.getSecond());
-
-            // Don't change the first column
-            for (int i = 0; i < map3d.zAxis.length; i++) {
-                map3d.zAxis[i][0] = kfmirlTableDefinition.getSecond().zAxis[i][0];
-            }
-
-            subject.onNext(new KfmirlModel(kfmiopTableDefinition, kfmirlTableDefinition, map3d)); // Found the map
-        } else {
-            subject.onNext(new KfmirlModel(kfmiopTableDefinition, kfmirlTableDefinition, null)); // No map found
+    /**
+     * Makes an edited KFMIOP the input of the calibration graph, so KFMIRL, KFZWOP and KFZW all follow from it.
+     */
+    public void setKfmiop(Map3d kfmiop) {
+        if (kfmiop != null) {
+            Calibration.getInstance().baseKfmiop.set(kfmiop);
         }
     }
 
@@ -108,10 +119,20 @@ public class KfmirlViewModel {
     }
 
     private void updateModel() {
+        Pair<TableDefinition, Map3d> kfmirlTableDefinition = KfmirlPreferences.getInstance().getSelectedMap();
+        Calibration.getInstance().baseKfmirl.set(kfmirlTableDefinition != null ? kfmirlTableDefinition.getSecond() : null);
+
+        publishModel();
+    }
+
+    private void publishModel() {
         Pair<TableDefinition, Map3d> kfmiopTableDefinition = KfmiopPreferences.getInstance().getSelectedMap();
         Pair<TableDefinition, Map3d> kfmirlTableDefinition = KfmirlPreferences.getInstance().getSelectedMap();
+
         if (kfmiopTableDefinition != null && kfmirlTableDefinition != null) {
-            calculateKfmirl(kfmiopTableDefinition.getSecond());
+            // The KFMIOP the graph calculated KFMIRL from, which may have been edited on this tab
+            Map3d kfmiop = Calibration.getInstance().baseKfmiop.get().orElse(kfmiopTableDefinition.getSecond());
+            subject.onNext(new KfmirlModel(new Pair<>(kfmiopTableDefinition.getFirst(), kfmiop), kfmirlTableDefinition, Calibration.getInstance().kfmirl.get().orElse(null)));
         } else if (kfmiopTableDefinition == null) {
             subject.onNext(new KfmirlModel(null, kfmirlTableDefinition, null));
         } else {
@@ -1,6 +1,5 @@
 package presentation.viewmodel.kfvpdksd;
 
-import data.contract.Me7LogFileContract;
 import data.parser.bin.BinParser;
 import data.parser.me7log.KfvpdksdLogParser;
 import data.parser.me7log.Me7LogParser;
@@ -8,6 +7,7 @@ import data.parser.xdf.TableDefinition;
 import data.preferences.MapPreferenceManager;
 import data.preferences.kfvpdksd.KfvpdksdPreferences;
 import domain.math.RescaleAxis;
+import domain.math.TopFractionMean;
 import domain.math.map.Map3d;
 import domain.model.kfvpdksd.Kfvpdksd;
 import io.reactivex.Observer;
@@ -35,7 +35,7 @@ public class KfvpdksdViewModel {
             public void onNext(@NonNull List<Pair<TableDefinition, Map3d>> pairs) {
                 Pair<TableDefinition, Map3d> kfvpdksdTable = KfvpdksdPreferences.getInstance().getSelectedMap();
                 if (kfvpdksdTable != null) {
-                    subject.onNext(new KfvpdksdModel(kfvpdksdTable, null, null));
+                    subject.onNext(new KfvpdksdModel(kfvpdksdTable, null, null, null));
                 }
             }
 
@@ -56,7 +56,7 @@ public class KfvpdksdViewModel {
             public void onNext(@NonNull Optional<Pair<TableDefinition, Map3d>> tableDefinitionMap3dPair) {
                 Pair<TableDefinition, Map3d> kfvpdksdTable = KfvpdksdPreferences.getInstance().getSelectedMap();
                 if (kfvpdksdTable != null) {
-                    subject.onNext(new KfvpdksdModel(kfvpdksdTable, null, null));
+                    subject.onNext(new KfvpdksdModel(kfvpdksdTable, null, null, null));
                 }
             }
 
@@ -67,17 +67,14 @@ public class KfvpdksdViewModel {
             public void onComplete() {}
         });
 
-        KfvpdksdLogParser.getInstance().registerLogOnChangeObserver(new Observer<>() {
+        KfvpdksdLogParser.getInstance().registerPressureOnChangeObserver(new Observer<>() {
             @Override
             public void onSubscribe(@NonNull Disposable disposable) {
             }
 
             @Override
-            public void onNext(@NonNull Map<Me7LogFileContract.Header, List<Double>> log) {
-                Pair<TableDefinition, Map3d> kfvpdksdTable = KfvpdksdPreferences.getInstance().getSelectedMap();
-                if (kfvpdksdTable != null) {
-                    calculateKfvpdksd(Kfvpdksd.parsePressure(log, kfvpdksdTable.getSecond().yAxis));
-                }
+            public void onNext(@NonNull TopFractionMean[] sketches) {
+                calculateKfvpdksd(Kfvpdksd.getMaxPressure(sketches));
             }
 
             @Override
@@ -97,7 +94,7 @@ public class KfvpdksdViewModel {
 
             @Override
             public void onNext(@NonNull Boolean aBoolean) {
-                subject.onNext(new KfvpdksdModel(null, null, null));
+                subject.onNext(new KfvpdksdModel(null, null, null, null));
             }
 
             @Override
@@ -112,21 +109,41 @@ public class KfvpdksdViewModel {
         });
     }
 
+    public enum LoadResult {
+        LOADING,
+        NO_MAP,
+        NO_LOGS
+    }
+
     public void register(Observer<KfvpdksdModel> observer) {
         subject.subscribe(observer);
     }
 
-    public void loadLogs(File file, Me7LogParser.ProgressCallback progressCallback) {
-        KfvpdksdLogParser.getInstance().loadDirectory(file, progressCallback);
+    /**
+     * @return NO_MAP if no KFVPDKSD is selected, the logs are binned by its RPM axis as they are parsed so they can't
+     * be loaded without it. NO_LOGS if the directory has no log files.
+     */
+    public LoadResult loadLogs(File file, Me7LogParser.ProgressCallback progressCallback) {
+        Pair<TableDefinition, Map3d> kfvpdksdTable = KfvpdksdPreferences.getInstance().getSelectedMap();
+        if (kfvpdksdTable == null) {
+            return LoadResult.NO_MAP;
+        }
+
+        Double[] rpmAxis = kfvpdksdTable.getSecond().yAxis;
+        if (!KfvpdksdLogParser.getInstance().loadDirectory(file, log -> Kfvpdksd.parsePressureSketches(log, rpmAxis), progressCallback)) {
+            return LoadResult.NO_LOGS;
+        }
+
+        return LoadResult.LOADING;
     }
 
     public void calculateKfvpdksd(Double[] maxPressure) {
         Pair<TableDefinition, Map3d> kfvpdksdTable = KfvpdksdPreferences.getInstance().getSelectedMap();
         if(kfvpdksdTable != null) {
             Double[] rescaledPressureRatio = RescaleAxis.rescaleAxis(kfvpdksdTable.getSecond().xAxis, (1000+getMax(maxPressure))/1000d);
-            kfvpdksdTable.getSecond().xAxis = rescaledPressureRatio;
-            Kfvpdksd kfvpdksd = Kfvpdksd.generate(maxPressure, KfvpdksdPreferences.getInstance().getSelectedMap().getSecond().yAxis, rescaledPressureRatio);
-            SwingUtilities.invokeLater(() -> subject.onNext(new KfvpdksdModel(kfvpdksdTable, kfvpdksd, maxPressure)));
+            // The selected map is a BinParser snapshot, so the rescaled axis is published separately
+            Kfvpdksd kfvpdksd = Kfvpdksd.generate(maxPressure, kfvpdksdTable.getSecond().yAxis, rescaledPressureRatio);
+            SwingUtilities.invokeLater(() -> subject.onNext(new KfvpdksdModel(kfvpdksdTable, kfvpdksd, maxPressure, rescaledPressureRatio)));
         }
     }
 
@@ -135,11 +152,12 @@ public class KfvpdksdViewModel {
         return Collections.max(Arrays.asList(values.clone()));
     }
 
-    public record KfvpdksdModel(Pair<TableDefinition, Map3d> kfvpdksdTable, Kfvpdksd kfvpdksd, Double[] pressure) {
-        public KfvpdksdModel(@Nullable Pair<TableDefinition, Map3d> kfvpdksdTable, @Nullable Kfvpdksd kfvpdksd, @Nullable Double[] pressure) {
+    public record KfvpdksdModel(Pair<TableDefinition, Map3d> kfvpdksdTable, Kfvpdksd kfvpdksd, Double[] pressure, Double[] pressureRatio) {
+        public KfvpdksdModel(@Nullable Pair<TableDefinition, Map3d> kfvpdksdTable, @Nullable Kfvpdksd kfvpdksd, @Nullable Double[] pressure, @Nullable Double[] pressureRatio) {
             this.kfvpdksdTable = kfvpdksdTable;
             this.kfvpdksd = kfvpdksd;
             this.pressure = pressure;
+            this.pressureRatio = pressureRatio;
         }
 
         @Nullable
@@ -156,5 +174,13 @@ public class KfvpdksdViewModel {
         public Double[] getPressure() {
             return pressure;
         }
+
+        /**
+         * @return the pressure ratio axis of the calculated KFVPDKSD.
+         */
+        @Nullable
+        public Double[] getPressureRatio() {
+            return pressureRatio;
+        }
     }
 }
@@ -3,11 +3,9 @@ package presentation.viewmodel.kfzw;
 import data.parser.bin.BinParser;
 import data.parser.xdf.TableDefinition;
 import data.preferences.MapPreferenceManager;
-import data.preferences.kfmiop.KfmiopPreferences;
 import data.preferences.kfzw.KfzwPreferences;
-import domain.math.RescaleAxis;
+import domain.calibration.Calibration;
 import domain.math.map.Map3d;
-import domain.model.kfzw.Kfzw;
 import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.annotations.Nullable;
@@ -15,6 +13,7 @@ import io.reactivex.disposables.Disposable;
 import io.reactivex.subjects.BehaviorSubject;
 import org.apache.commons.math3.util.Pair;
 
+import javax.swing.*;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -24,6 +23,25 @@ public class KfzwViewModel {
     private final BehaviorSubject<KfzwModel> subject = BehaviorSubject.create();
 
     public KfzwViewModel() {
+        Calibration.getInstance().kfzw.register(new Observer<>() {
+            @Override
+            public void onSubscribe(@NonNull Disposable disposable) {
+            }
+
+            @Override
+            public void onNext(@NonNull Optional<Map3d> kfzw) {
+                kfzw.ifPresent(map3d -> SwingUtilities.invokeLater(() -> subject.onNext(new KfzwModel(KfzwPreferences.getInstance().getSelectedMap(), Calibration.getInstance().kfmiopXAxis.get().orElse(null), map3d))));
+            }
+
+            @Override
+            public void onError(@NonNull Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
         BinParser.getInstance().registerMapListObserver(new Observer<>() {
             @Override
             public void onSubscribe(@NonNull Disposable disposable) {
@@ -90,32 +108,21 @@ public class KfzwViewModel {
     }
 
     public void calculateKfzw(@NonNull Map3d kfzw, @NonNull Double[] newXAxis) {
-        Map3d newKfzw = new Map3d();
-        // We need to, potentially, generate a load axis with more elements since KFZW has (maybe?) more resolution than KFMIRL
-        double maxValue = newXAxis[newXAxis.length -1];
+        Map3d newKfzw = Calibration.calculateKfzw(kfzw, newXAxis);
 
-        newKfzw.xAxis = RescaleAxis.rescaleAxis(kfzw.xAxis, maxValue);
-        newKfzw.yAxis = kfzw.yAxis;
-        newKfzw.zAxis = Kfzw.generateKfzw(kfzw.xAxis, kfzw.zAxis, newKfzw.xAxis);
-
-        subject.onNext(new KfzwModel(KfzwPreferences.getInstance().getSelectedMap(), KfmiopPreferences.getInstance().getSelectedMap().getSecond().xAxis, newKfzw));
+        subject.onNext(new KfzwModel(KfzwPreferences.getInstance().getSelectedMap(), newXAxis, newKfzw));
     }
 
     private void updateModel() {
         Pair<TableDefinition, Map3d> kfzwTable = KfzwPreferences.getInstance().getSelectedMap();
-        Pair<TableDefinition, Map3d> kfmiopTable = KfmiopPreferences.getInstance().getSelectedMap();
+        // KFZW is rescaled onto the output KFMIOP load axis once KFMIOP has been calculated
+        Calibration.getInstance().baseKfzw.set(kfzwTable != null ? kfzwTable.getSecond() : null);
+        Double[] kfmiopXAxis = Calibration.getInstance().kfmiopXAxis.get().orElse(null);
+
         if (kfzwTable != null) {
-            if(kfmiopTable != null) {
-                subject.onNext(new KfzwModel(kfzwTable, KfmiopPreferences.getInstance().getSelectedMap().getSecond().xAxis, kfzwTable.getSecond()));
-            } else {
-                subject.onNext(new KfzwModel(kfzwTable, null, kfzwTable.getSecond()));
-            }
+            subject.onNext(new KfzwModel(kfzwTable, kfmiopXAxis, Calibration.getInstance().kfzw.get().orElse(kfzwTable.getSecond())));
         } else {
-            if(kfmiopTable != null) {
-                subject.onNext(new KfzwModel(null, KfmiopPreferences.getInstance().getSelectedMap().getSecond().xAxis, null));
-            } else {
-                subject.onNext(new KfzwModel(null, null, null));
-            }
+            subject.onNext(new KfzwModel(null, kfmiopXAxis, null));
         }
     }
 
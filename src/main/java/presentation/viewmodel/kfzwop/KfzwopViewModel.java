@@ -4,8 +4,10 @@ import data.parser.bin.BinParser;
 import data.parser.xdf.TableDefinition;
 import data.preferences.MapPreferenceManager;
 import data.preferences.kfzwop.KfzwopPreferences;
+import domain.calibration.Calibration;
 import domain.math.map.Map3d;
 import domain.model.kfzw.Kfzw;
+import presentation.viewmodel.LatestComputation;
 import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.annotations.Nullable;
@@ -14,14 +16,35 @@ import io.reactivex.subjects.BehaviorSubject;
 import io.reactivex.subjects.Subject;
 import org.apache.commons.math3.util.Pair;
 
+import javax.swing.*;
 import java.util.List;
 import java.util.Optional;
 
 public class KfzwopViewModel {
 
     private final Subject<KfzwopModel> subject = BehaviorSubject.create();
+    private final LatestComputation<Map3d> kfzwopComputation = new LatestComputation<>(kfzwop -> subject.onNext(new KfzwopModel(KfzwopPreferences.getInstance().getSelectedMap(), kfzwop)));
 
     public KfzwopViewModel() {
+        Calibration.getInstance().kfzwop.register(new Observer<>() {
+            @Override
+            public void onSubscribe(@NonNull Disposable disposable) {
+            }
+
+            @Override
+            public void onNext(@NonNull Optional<Map3d> kfzwop) {
+                kfzwop.ifPresent(map3d -> SwingUtilities.invokeLater(() -> subject.onNext(new KfzwopModel(KfzwopPreferences.getInstance().getSelectedMap(), map3d))));
+            }
+
+            @Override
+            public void onError(@NonNull Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
         BinParser.getInstance().registerMapListObserver(new Observer<>() {
             @Override
             public void onSubscribe(@NonNull Disposable disposable) {
@@ -85,8 +108,11 @@ public class KfzwopViewModel {
 
     private void updateModel() {
         Pair<TableDefinition, Map3d> kfzwopTable = KfzwopPreferences.getInstance().getSelectedMap();
+        // KFZWOP is rescaled onto the output KFMIOP load axis once KFMIOP has been calculated
+        Calibration.getInstance().baseKfzwop.set(kfzwopTable != null ? kfzwopTable.getSecond() : null);
+
         if (kfzwopTable != null) {
-            subject.onNext(new KfzwopModel(kfzwopTable, kfzwopTable.getSecond()));
+            subject.onNext(new KfzwopModel(kfzwopTable, Calibration.getInstance().kfzwop.get().orElse(kfzwopTable.getSecond())));
         } else {
             subject.onNext(new KfzwopModel(null, null));
         }
@@ -97,11 +123,13 @@ public class KfzwopViewModel {
     }
 
     public void calculateKfzwop(@NonNull Map3d kfzwop, @NonNull Double[] newXAxis) {
-        Map3d newKfzwop = new Map3d();
-        newKfzwop.xAxis = newXAxis;
-        newKfzwop.yAxis = kfzwop.yAxis;
-        newKfzwop.zAxis = Kfzw.generateKfzw(kfzwop.xAxis, kfzwop.zAxis, newXAxis);
-        subject.onNext(new KfzwopModel(KfzwopPreferences.getInstance().getSelectedMap(), newKfzwop));
+        kfzwopComputation.submit(() -> {
+            Map3d newKfzwop = new Map3d();
+            newKfzwop.xAxis = newXAxis;
+            newKfzwop.yAxis = kfzwop.yAxis;
+            newKfzwop.zAxis = Kfzw.generateKfzw(kfzwop.xAxis, kfzwop.zAxis, newXAxis);
+            return newKfzwop;
+        });
     }
 
     public record KfzwopModel(
@@ -0,0 +1,51 @@
+package presentation.viewmodel.openloopfueling;
+
+import data.contract.Me7LogFileContract;
+import domain.model.openloopfueling.util.LogAlignment;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The correction and the airflow estimation both need the alignment of the same logs, so the latest one is kept
+ * and the cross correlation only runs once per pair of logs and filters.
+ */
+class LogAlignmentCache {
+
+    private static volatile LogAlignmentCache instance;
+
+    private Map<Me7LogFileContract.Header, List<Double>> me7Log;
+    private Map<String, List<Double>> afrLog;
+    private double minThrottleAngle;
+    private double minRpm;
+    private int minPointsMe7;
+    private LogAlignment logAlignment;
+
+    private LogAlignmentCache() {}
+
+    static LogAlignmentCache getInstance() {
+        if (instance == null) {
+            synchronized (LogAlignmentCache.class) {
+                if (instance == null) {
+                    instance = new LogAlignmentCache();
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    // Called from worker threads, a second caller waits for the estimate of the first
+    synchronized LogAlignment getLogAlignment(Map<Me7LogFileContract.Header, List<Double>> me7Log, Map<String, List<Double>> afrLog, double minThrottleAngle, double minRpm, int minPointsMe7) {
+        if (logAlignment == null || this.me7Log != me7Log || this.afrLog != afrLog || this.minThrottleAngle != minThrottleAngle || this.minRpm != minRpm || this.minPointsMe7 != minPointsMe7) {
+            logAlignment = LogAlignment.estimate(me7Log, afrLog, minThrottleAngle, minRpm, minPointsMe7);
+            this.me7Log = me7Log;
+            this.afrLog = afrLog;
+            this.minThrottleAngle = minThrottleAngle;
+            this.minRpm = minRpm;
+            this.minPointsMe7 = minPointsMe7;
+        }
+
+        return logAlignment;
+    }
+}
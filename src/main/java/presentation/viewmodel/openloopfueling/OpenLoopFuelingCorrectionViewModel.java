@@ -8,6 +8,7 @@ import io.reactivex.subjects.BehaviorSubject;
 import domain.math.map.Map3d;
 import domain.model.openloopfueling.correction.OpenLoopMlhfmCorrection;
 import domain.model.openloopfueling.correction.OpenLoopMlhfmCorrectionManager;
+import domain.model.openloopfueling.util.LogAlignment;
 import org.apache.commons.math3.util.Pair;
 import data.parser.afrLog.AfrLogParser;
 import data.parser.bin.BinParser;
@@ -15,6 +16,7 @@ import data.parser.me7log.OpenLoopLogParser;
 import data.parser.xdf.TableDefinition;
 import data.preferences.mlhfm.MlhfmPreferences;
 import data.preferences.openloopfueling.OpenLoopFuelingLogFilterPreferences;
+import presentation.viewmodel.LatestComputation;
 
 import java.util.List;
 import java.util.Map;
@@ -26,6 +28,7 @@ public class OpenLoopFuelingCorrectionViewModel {
     private Map<String, List<Double>> afrLogMap;
 
     private final BehaviorSubject<OpenLoopMlhfmCorrection> publishSubject = BehaviorSubject.create();
+    private final LatestComputation<OpenLoopMlhfmCorrection> correctionComputation = new LatestComputation<>(publishSubject::onNext);
 
     public OpenLoopFuelingCorrectionViewModel() {
         OpenLoopLogParser.getInstance().register(new Observer<>() {
@@ -93,6 +96,26 @@ public class OpenLoopFuelingCorrectionViewModel {
             public void onComplete() {
             }
         });
+
+        OpenLoopFuelingLogFilterPreferences.registerOnFilterChanged(new Observer<>() {
+            @Override
+            public void onSubscribe(@NonNull Disposable disposable) {
+            }
+
+            @Override
+            public void onNext(@NonNull Boolean changed) {
+                generateCorrection();
+            }
+
+            @Override
+            public void onError(@NonNull Throwable throwable) {
+                throwable.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
     }
 
     public void register(Observer<OpenLoopMlhfmCorrection> observer) {
@@ -101,13 +124,20 @@ public class OpenLoopFuelingCorrectionViewModel {
 
     private void generateCorrection() {
         if (me7LogMap != null && afrLogMap != null && mlhfmMap != null) {
-            OpenLoopMlhfmCorrectionManager openLoopMlhfmCorrectionManager = new OpenLoopMlhfmCorrectionManager(OpenLoopFuelingLogFilterPreferences.getMinThrottleAnglePreference(), OpenLoopFuelingLogFilterPreferences.getMinRpmPreference(), OpenLoopFuelingLogFilterPreferences.getMinMe7PointsPreference(), OpenLoopFuelingLogFilterPreferences.getMinAfrPointsPreference(), OpenLoopFuelingLogFilterPreferences.getMaxAfrPreference());
-            openLoopMlhfmCorrectionManager.correct(me7LogMap, afrLogMap, mlhfmMap);
-            OpenLoopMlhfmCorrection openLoopMlhfmCorrection = openLoopMlhfmCorrectionManager.getOpenLoopCorrection();
-
-            if (openLoopMlhfmCorrection != null) {
-                publishSubject.onNext(openLoopMlhfmCorrection);
-            }
+            Map<Me7LogFileContract.Header, List<Double>> me7LogMap = this.me7LogMap;
+            Map<String, List<Double>> afrLogMap = this.afrLogMap;
+            Map3d mlhfmMap = this.mlhfmMap;
+
+            double minThrottleAngle = OpenLoopFuelingLogFilterPreferences.getMinThrottleAnglePreference();
+            double minRpm = OpenLoopFuelingLogFilterPreferences.getMinRpmPreference();
+            int minPointsMe7 = OpenLoopFuelingLogFilterPreferences.getMinMe7PointsPreference();
+            OpenLoopMlhfmCorrectionManager openLoopMlhfmCorrectionManager = new OpenLoopMlhfmCorrectionManager(minThrottleAngle, minRpm, minPointsMe7, OpenLoopFuelingLogFilterPreferences.getMinAfrPointsPreference(), OpenLoopFuelingLogFilterPreferences.getMaxAfrPreference());
+
+            correctionComputation.submit(() -> {
+                LogAlignment logAlignment = LogAlignmentCache.getInstance().getLogAlignment(me7LogMap, afrLogMap, minThrottleAngle, minRpm, minPointsMe7);
+                openLoopMlhfmCorrectionManager.correct(me7LogMap, afrLogMap, mlhfmMap, logAlignment);
+                return openLoopMlhfmCorrectionManager.getOpenLoopCorrection();
+            });
         }
     }
 }
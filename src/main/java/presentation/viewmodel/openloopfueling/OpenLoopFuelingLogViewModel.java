@@ -9,6 +9,8 @@ import io.reactivex.subjects.BehaviorSubject;
 import domain.math.map.Map3d;
 import domain.model.airflow.AirflowEstimation;
 import domain.model.airflow.AirflowEstimationManager;
+import domain.model.openloopfueling.util.LogAlignment;
+import presentation.viewmodel.LatestComputation;
 import org.apache.commons.math3.util.Pair;
 import data.parser.afrLog.AfrLogParser;
 import data.parser.bin.BinParser;
@@ -25,6 +27,7 @@ import java.util.Map;
 public class OpenLoopFuelingLogViewModel {
 
     private final BehaviorSubject<OpenLoopFuelingLogModel> behaviorSubject = BehaviorSubject.create();
+    private final LatestComputation<OpenLoopFuelingLogModel> airflowEstimationComputation = new LatestComputation<>(this::onAirflowEstimated);
 
     public OpenLoopFuelingLogViewModel() {
         OpenLoopLogParser.getInstance().register(new Observer<>() {
@@ -78,7 +81,7 @@ public class OpenLoopFuelingLogViewModel {
                 }
 
                 builder.afrLogs(logs);
-                behaviorSubject.onNext(generateAirflowEstimation(builder.build()));
+                generateAirflowEstimation(builder.build());
             }
 
             @Override
@@ -109,7 +112,7 @@ public class OpenLoopFuelingLogViewModel {
                     }
 
                     builder.mlhfm(tableDefinition.getSecond());
-                    behaviorSubject.onNext(generateAirflowEstimation(builder.build()));
+                    generateAirflowEstimation(builder.build());
                 }
             }
 
@@ -144,6 +147,29 @@ public class OpenLoopFuelingLogViewModel {
             public void onComplete() {
             }
         });
+
+        OpenLoopFuelingLogFilterPreferences.registerOnFilterChanged(new Observer<>() {
+            @Override
+            public void onSubscribe(@NonNull Disposable disposable) {
+            }
+
+            @Override
+            public void onNext(@NonNull Boolean changed) {
+                OpenLoopFuelingLogModel model = behaviorSubject.getValue();
+                if (model != null) {
+                    generateAirflowEstimation(model);
+                }
+            }
+
+            @Override
+            public void onError(@NonNull Throwable throwable) {
+                throwable.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
     }
 
     public void register(Observer<OpenLoopFuelingLogModel> observer) {
@@ -158,21 +184,31 @@ public class OpenLoopFuelingLogViewModel {
         AfrLogParser.getInstance().load(file);
     }
 
-    private OpenLoopFuelingLogModel generateAirflowEstimation(OpenLoopFuelingLogModel model) {
+    private void generateAirflowEstimation(OpenLoopFuelingLogModel model) {
+        behaviorSubject.onNext(model);
+
         if (model.me7Logs != null && model.afrLogs != null) {
-            AirflowEstimationManager airflowEstimationManager = new AirflowEstimationManager(OpenLoopFuelingLogFilterPreferences.getMinThrottleAnglePreference(), OpenLoopFuelingLogFilterPreferences.getMinRpmPreference(), OpenLoopFuelingLogFilterPreferences.getMinMe7PointsPreference(), OpenLoopFuelingLogFilterPreferences.getMinAfrPointsPreference(), OpenLoopFuelingLogFilterPreferences.getMaxAfrPreference(), OpenLoopFuelingLogFilterPreferences.getFuelInjectorSizePreference(), OpenLoopFuelingLogFilterPreferences.getNumFuelInjectorsPreference(), OpenLoopFuelingLogFilterPreferences.getGasolineGramsPerCubicCentimeterPreference());
-            airflowEstimationManager.estimate(model.me7Logs, model.afrLogs);
-            AirflowEstimation airflowEstimation = airflowEstimationManager.getAirflowEstimation();
+            double minThrottleAngle = OpenLoopFuelingLogFilterPreferences.getMinThrottleAnglePreference();
+            double minRpm = OpenLoopFuelingLogFilterPreferences.getMinRpmPreference();
+            int minPointsMe7 = OpenLoopFuelingLogFilterPreferences.getMinMe7PointsPreference();
+            AirflowEstimationManager airflowEstimationManager = new AirflowEstimationManager(minThrottleAngle, minRpm, minPointsMe7, OpenLoopFuelingLogFilterPreferences.getMinAfrPointsPreference(), OpenLoopFuelingLogFilterPreferences.getMaxAfrPreference(), OpenLoopFuelingLogFilterPreferences.getFuelInjectorSizePreference(), OpenLoopFuelingLogFilterPreferences.getNumFuelInjectorsPreference(), OpenLoopFuelingLogFilterPreferences.getGasolineGramsPerCubicCentimeterPreference());
+            airflowEstimationComputation.submit(() -> {
+                // Shared with the correction, which aligns the same logs
+                LogAlignment logAlignment = LogAlignmentCache.getInstance().getLogAlignment(model.me7Logs, model.afrLogs, minThrottleAngle, minRpm, minPointsMe7);
+                airflowEstimationManager.estimate(model.me7Logs, model.afrLogs, logAlignment);
+                // The estimation belongs to the model it was computed from
+                return new OpenLoopFuelingLogModel.Builder(model).airflowEstimation(airflowEstimationManager.getAirflowEstimation()).build();
+            });
+        }
+    }
 
-            if (airflowEstimation != null) {
-                OpenLoopFuelingLogModel.Builder builder = new OpenLoopFuelingLogModel.Builder(model);
-                builder.airflowEstimation(airflowEstimation);
+    private void onAirflowEstimated(OpenLoopFuelingLogModel estimated) {
+        OpenLoopFuelingLogModel model = behaviorSubject.getValue();
 
-                return builder.build();
-            }
+        // Drop the estimation if the logs or MLHFM changed while it was computed
+        if (model != null && model.me7Logs == estimated.me7Logs && model.afrLogs == estimated.afrLogs && model.mlhfm == estimated.mlhfm) {
+            behaviorSubject.onNext(estimated);
         }
-
-        return model;
     }
 
     public static class OpenLoopFuelingLogModel {
@@ -0,0 +1,105 @@
+package domain.model.openloopfueling.util;
+
+import data.contract.AfrLogFileContract;
+import data.contract.Me7LogFileContract;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogAlignmentTest {
+
+    private static final double SAMPLE_PERIOD = 0.1;
+    // The ME7 clock runs this far ahead of the AFR clock (seconds)
+    private static final double ME7_OFFSET = 5;
+
+    @Test
+    void estimatesTheOffsetFromTwoPulls() {
+        Map<String, List<Double>> afrLog = createAfrLog(0, 120);
+
+        List<Map<Me7LogFileContract.Header, List<Double>>> pulls = List.of(
+                createMe7Pull(0, 20, 30),
+                createMe7Pull(0, 70, 80)
+        );
+
+        LogAlignment alignment = LogAlignment.estimate(pulls, afrLog);
+
+        assertEquals(2, alignment.pulls());
+        assertEquals(ME7_OFFSET, alignment.offset(), 0.05);
+        assertEquals(0, alignment.skew(), 1e-3);
+        assertTrue(alignment.isConfident());
+    }
+
+    @Test
+    void estimatesTheOffsetAcrossAnHour() {
+        Map<String, List<Double>> afrLog = createAfrLog(0, 120);
+
+        // The ME7 clock only records minutes and seconds, so it reads an hour behind the AFR clock
+        List<Map<Me7LogFileContract.Header, List<Double>>> pulls = List.of(
+                createMe7Pull(-3600, 20, 30),
+                createMe7Pull(-3600, 70, 80)
+        );
+
+        LogAlignment alignment = LogAlignment.estimate(pulls, afrLog);
+
+        assertEquals(2, alignment.pulls());
+        assertEquals(ME7_OFFSET, alignment.offset(), 0.05);
+        assertTrue(alignment.isConfident());
+    }
+
+    // RPM over the time of the drive
+    private static double rpm(double time) {
+        return 4000 + 1500 * Math.sin(0.3 * time) + 400 * Math.sin(1.7 * time);
+    }
+
+    // Wide open throttle during the pulls only
+    private static double throttle(double time) {
+        return (time >= 18 && time <= 32) || (time >= 68 && time <= 82) ? 100 : 10;
+    }
+
+    private static Map<String, List<Double>> createAfrLog(double start, double end) {
+        List<Double> timestamps = new ArrayList<>();
+        List<Double> rpm = new ArrayList<>();
+        List<Double> throttle = new ArrayList<>();
+
+        for (int i = 0; start + i * SAMPLE_PERIOD <= end; i++) {
+            double time = start + i * SAMPLE_PERIOD;
+            timestamps.add(time);
+            rpm.add(rpm(time));
+            throttle.add(throttle(time));
+        }
+
+        Map<String, List<Double>> log = new HashMap<>();
+        log.put(AfrLogFileContract.TIMESTAMP, timestamps);
+        log.put(AfrLogFileContract.RPM_HEADER, rpm);
+        log.put(AfrLogFileContract.TPS_HEADER, throttle);
+
+        return log;
+    }
+
+    private static Map<Me7LogFileContract.Header, List<Double>> createMe7Pull(double startTime, double start, double end) {
+        List<Double> timestamps = new ArrayList<>();
+        List<Double> rpm = new ArrayList<>();
+        List<Double> throttle = new ArrayList<>();
+
+        for (int i = 0; start + i * SAMPLE_PERIOD <= end; i++) {
+            double time = start + i * SAMPLE_PERIOD;
+            timestamps.add(time + ME7_OFFSET);
+            rpm.add(rpm(time));
+            throttle.add(throttle(time));
+        }
+
+        Map<Me7LogFileContract.Header, List<Double>> log = new HashMap<>();
+        log.put(Me7LogFileContract.Header.START_TIME_HEADER, List.of(startTime));
+        log.put(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER, timestamps);
+        log.put(Me7LogFileContract.Header.RPM_COLUMN_HEADER, rpm);
+        log.put(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER, throttle);
+
+        return log;
+    }
+}